@@ -1,20 +1,15 @@
-import java.beans.PropertyChangeEvent;
-import java.beans.PropertyChangeListener;
-import java.beans.PropertyChangeSupport;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.Map.Entry;
 import java.util.Optional;
-import java.util.Random;
 import java.util.UUID;
 
 import javafx.beans.property.SimpleIntegerProperty;
-import javafx.util.Pair;
 
 /*
  * Agent base class for Agent Based Modeling
@@ -29,7 +24,7 @@ import javafx.util.Pair;
  *  3. an efficiency (i.e. how effective is the agent at completing work)
  *  4. a list of "supplies," i.e., a set of skills 
  */
-public class Agent implements PropertyChangeListener {
+public class Agent implements ISimEventListener {
 
 	public static final int SYNC_BACKLOG_EVERY = 50;    // how often to re-check demand list
 	public static final int INCOMPLETE_TASK_PENALTY = 8; // 1 work day (in hours)
@@ -37,6 +32,8 @@ public class Agent implements PropertyChangeListener {
 	
 	public static enum TASK_RESULTS { FAIL, SUCCESS, SKIP_COMPLETE, SKIP_INCOMPLETE, SKIP_TOOEARLY};
 	
+	private static final DemandType[] DEMAND_TYPES = DemandType.values();
+	
 	/* 
 	 * Default constructor
 	 * set UUID to random id
@@ -49,11 +46,19 @@ public class Agent implements PropertyChangeListener {
 	public Agent(String name, int efficiency) {
 		this(UUID.randomUUID(),name,efficiency);
 	}
+	public Agent(String name, int efficiency, SimRandom rand) {
+		this(UUID.randomUUID(),name,efficiency,rand);
+	}
 	
 	/*
 	 * Full constructor
+	 * agents outside a SimEnvironment all share the same default stream,
+	 * a simulation gives each agent its own (see SimEnvironment.setSeed)
 	 */
 	public Agent(UUID id, String name, int efficiency) {
+		this(id, name, efficiency, new SimRandom(SimEnvironment.DEFAULT_SEED));
+	}
+	public Agent(UUID id, String name, int efficiency, SimRandom rand) {
 		super();
 		this.setId(id);
 		this.setName(name);
@@ -63,24 +68,32 @@ public class Agent implements PropertyChangeListener {
 		this.setCurrenttask(Optional.empty());
 		this.setMaxWaitCycles(5);
 		this.setState(AgentState.UNAVAILABLE);
-		this.rand = new Random();
-		rand.setSeed(43);
+		this.rand = rand;
 		
 		this.resources = new ArrayList<Supply>();
+		this.capabilities = new CapabilityIndex(this.resources);
 
-		this.committed_tasks = new ArrayList<Demand>();
-		this.completed_tasks = new ArrayList<Demand>();
+		this.n_committed = 0;
+		this.completed_tasks = new ArrayDeque<Demand>();
+		this.new_completed = new ArrayList<Demand>();
+		this.commit_queue = new CommitQueue();
 		this.abandoned_tasks = new ArrayList<Demand>();
-		this.backlog_tasks = new ArrayList<Demand>();
+		this.backlog_tasks = new DemandBacklog();
 		this.ledger = new Hashtable<UUID, LedgerEntry>();
+		this.undo = new SupplyUndoLog();
+		this.committed_ledger = new CommittedLedger();
 		this.interactions = new Hashtable<String, Integer>();
 		this.cycles_since_sync = 0;
-		this.setSupplyDemandDictionary(Optional.empty());
+		this.setSupplyDemandTable(Optional.empty());
 		this.backup = Optional.empty();
 		this.setInteraxLearningRate(0.85);
 		
-		// PropertyChangeListener set-up
-		this.support = new PropertyChangeSupport(this);
+		// event bus and progress counters (replaced when joining a simulation)
+		this.bus = new SimEventBus();
+		this.counters = new ProgressCounters();
+		this.archive = new CommitArchive();
+		this.unrecorded = new ArrayList<Demand>();
+		this.commit_times = new int[32];
  	}
 
 	// member variables meant to be exposed for UI purposes
@@ -96,6 +109,9 @@ public class Agent implements PropertyChangeListener {
 	// list of Supply (resources, talent, skills)
 	protected ArrayList<Supply> resources;
 	
+	// bitmask summary of resources for fast demand matching
+	protected CapabilityIndex capabilities;
+	
 	// track considered demands
 	private int cycles_since_sync;
 	
@@ -104,13 +120,23 @@ public class Agent implements PropertyChangeListener {
 	private Optional<Demand> backup; // placeholder if interrupted mid-wait
 
 	// task lists
-	protected ArrayList<Demand> committed_tasks; // officially completed and committed
-	protected ArrayList<Demand> completed_tasks; // completed but not committed
+	protected int n_committed;                   // officially completed and committed (see archive)
+	protected ArrayDeque<Demand> completed_tasks; // completed but not committed (in order)
 	protected ArrayList<Demand> abandoned_tasks; // failed to complete (no collaboration)
-	protected ArrayList<Demand> backlog_tasks;   // tasks not yet performed
+	protected DemandBacklog backlog_tasks;       // tasks not yet performed (priority order)
 	
-	// look-up table for task completion times
+	// completed tasks by finish time, for committing
+	protected ArrayList<Demand> new_completed;   // completed since the last commit
+	protected CommitQueue commit_queue;
+	
+	// look-up table for task completion times (work not yet committed)
 	protected Hashtable<UUID,LedgerEntry> ledger; 
+	
+	// start and finish times of committed work, folded out of the ledger
+	protected CommittedLedger committed_ledger;
+	
+	// Supply states from before uncommitted tasks (for roll-back)
+	protected SupplyUndoLog undo;
 	protected Optional<Demand> current_task;      // current active task
 	
 	// look-up table for agent interactions
@@ -127,13 +153,28 @@ public class Agent implements PropertyChangeListener {
 	protected int stepsSinceLastActive;
 
 	// used for random number generation
-	protected Random rand;
+	protected SimRandom rand;
 
-	// used for messaging with DemandList
-	protected PropertyChangeSupport support;
+	// used for messaging with DemandList and SimEnvironment
+	protected SimEventBus bus;
 	
-	// use for lookups
-	protected Optional<SupplyDemandDictionary> sd_dict;
+	// told when time, state, backlog or urgent count change (EventScheduler)
+	private Runnable schedule_listener;
+	
+	// running totals of completed/committed demands and collaborations 
+	// (shared with the simulation, see ProgressCounters)
+	protected ProgressCounters counters;
+	
+	// where committed work goes (shared with the simulation, see CommitArchive)
+	protected CommitArchive archive;
+	
+	// commits not yet recorded in the archive (see flushCommits), with
+	// their start and finish times side by side in commit_times
+	private ArrayList<Demand> unrecorded;
+	private int[] commit_times;
+	
+	// use for lookups (compiled, read-only)
+	protected Optional<SupplyDemandTable> sd_dict;
 	
 	// factor for reducing collaboration time
 	protected double interax_learning_rate;
@@ -148,20 +189,20 @@ public class Agent implements PropertyChangeListener {
 		
 		// child Agent class functionality can override this function
 		this.setState(AgentState.ACTIVE);
-		System.out.println("Agent::Start "+this.getName());
+		SimLog.debug(LogCategory.AGENT, "Agent::Start {}", this.getName());
 	}
 	
 	public void refreshBacklog(DemandList dl) {
 		refreshBacklog(dl, false);
 	}
 	public void refreshBacklog(DemandList dl, boolean verbose) {
-		for (Demand d: dl.getDemandlist()) {
+		if(this.sd_dict.isEmpty()) {
+			return;
+		}
+		// only QUEUED and INCOMPLETE demands of types I might supply can be picked up
+		for (Demand d: dl.getOpenDemands(this._suppliableTypes())) {
 			DemandState s = d.getState();
-			if(s == DemandState.COMPLETE) {
-				// skip completed demands
-				continue;
-			}
-			else if(s == DemandState.INCOMPLETE && 
+			if(s == DemandState.INCOMPLETE && 
 					this.abandoned_tasks.contains(d)) {
 				// skip demands that *i* abandoned earlier
 				continue;
@@ -175,21 +216,21 @@ public class Agent implements PropertyChangeListener {
 				this.addToBacklog(d);
 				
 				if(verbose)
-					System.out.println(this.getName()+" added "+d.getName()+" to backlog");
+					SimLog.debug(LogCategory.AGENT, "{} added {} to backlog", this.getName(), d.getName());
 			}
 		}
 	}
 
-	public void doSomething(PropertyChangeEvent evt) {
-		doSomething(evt, false);
+	public void doSomething(SimEventType type, int time, Demand d) {
+		doSomething(type, time, d, false);
 	}
-	public void doSomething(PropertyChangeEvent evt, boolean verbose) {
+	public void doSomething(SimEventType type, int time, Demand d, boolean verbose) {
 		
 		// child Agent class functionality can override this function
-		if(evt.getPropertyName()=="newdemand") {
+		switch(type) {
+		case NEW_DEMAND:
 			
 			//System.out.println(this.getName()+": alerted that a new demand has been issued...");
-			Demand d = (Demand)(evt.getNewValue());
 			
 			// only consider Demands that are not active, partial (handled by collaboration), or complete
 			if(d.getState() == DemandState.QUEUED) {
@@ -203,7 +244,7 @@ public class Agent implements PropertyChangeListener {
 						this.addToBacklog(d);
 						
 						if(verbose)
-							System.out.println(this.getName()+" added demand to backlog: "+d.toString());
+							SimLog.debug(LogCategory.AGENT, "{} added demand to backlog: {}", this.getName(), d);
 						
 						// keep track of urgent requests
 						if(d.getPriority() == DemandPriority.URGENT) {
@@ -221,12 +262,14 @@ public class Agent implements PropertyChangeListener {
 					this.setCurrenttask(d.ancillaryDemand);
 				}
 			}
-		}
-		else if (evt.getPropertyName()=="commituntil") {
+			break;
+			
+		case COMMIT_UNTIL:
 			// commit any completed tasks up until time provided
-			this._updateTaskLists((Integer)evt.getNewValue());
-		}
-		else if (evt.getPropertyName()=="finishtask") {
+			this._updateTaskLists(time);
+			break;
+			
+		case FINISH_TASK:
 			// if Agent is in ACTIVE state, complete a task
 			if(this.getState() == AgentState.ACTIVE) {
 				this.cycles_since_sync++;
@@ -234,7 +277,7 @@ public class Agent implements PropertyChangeListener {
 				
 				if(this.cycles_since_sync >= Agent.SYNC_BACKLOG_EVERY) {
 					// flag that it's time for me to refresh my backlog
-					this.support.firePropertyChange("refresh_backlog",0,this);
+					this.bus.fire(SimEventType.REFRESH_BACKLOG, this);
 				}
 			}
 			// manage WAITING when an urgent request has been seen
@@ -248,7 +291,7 @@ public class Agent implements PropertyChangeListener {
 					this.numUrgentMinusOne();
 				}
 				else {
-					System.err.println(this.getName()+" unable to pivot to collaborate. Continuing to wait...");
+					SimLog.warn(LogCategory.COLLAB, "{} unable to pivot to collaborate. Continuing to wait...", this.getName());
 				}
 
 				// restore current task
@@ -257,16 +300,17 @@ public class Agent implements PropertyChangeListener {
 			else {
 				this.updateStepsSinceLastActive();
 				if(this.getStepsSinceLastActive() >= this.getMaxWaitCycles().get()) {
-					System.err.println("-E "+this.getName()+" found no collaborators. "
-							+ "Marking demand incomplete and moving on.");
+					SimLog.warn(LogCategory.COLLAB, "{} found no collaborators. "
+							+ "Marking demand incomplete and moving on.", this.getName());
 					
 					// give up on Waiting and leave Demand unfinished for now
 					this.releaseWait();
 				}
 			}
-		}
-		else {
-			System.err.println(this.getName()+" does not know how to manage event "+evt.getPropertyName());
+			break;
+			
+		default:
+			SimLog.error(LogCategory.SIM, "{} does not know how to manage event {}", this.getName(), type);
 		}
 	}
 	
@@ -276,6 +320,27 @@ public class Agent implements PropertyChangeListener {
 		//this.interactions.put(collaborator.getId(),prevval+1);
 		int prevval = this.interactions.getOrDefault(collaborator.getName(), 0);
 		this.interactions.put(collaborator.getName(),prevval+1);
+		this.counters.interacted();
+	}
+	
+	// log work on a demand, with the Supply records made since undo_mark
+	protected void _addToLedger(UUID id, LedgerEntry le, int undo_mark) {
+		this.undo.attach(le, undo_mark);
+		LedgerEntry old = this.ledger.put(id, le);
+		if(old != null) {
+			this.undo.release(old);
+		}
+		else if(this.committed_ledger.size() > 0) {
+			// replaces any committed entry
+			this.committed_ledger.remove(id);
+		}
+	}
+	
+	// move a demand to the completed task list
+	protected void _addCompleted(Demand d) {
+		this.completed_tasks.add(d);
+		this.new_completed.add(d);
+		this.counters.completed(d);
 	}
 	
 	// manage timeout on waiting for collaboration
@@ -310,14 +375,13 @@ public class Agent implements PropertyChangeListener {
 		
 		// log shared Demand and Collaboration Demand
 		this.backlog_tasks.remove(d.ancillaryDemand.get());
-		this.completed_tasks.add(d.ancillaryDemand.get());
-		this.completed_tasks.add(d);
+		this._addCompleted(d.ancillaryDemand.get());
+		this._addCompleted(d);
 		
 		// add collaboration to ledger
-		this.ledger.put(d.getId(), 
-				new LedgerEntry(this.getAgentTime(),
-								collab_effort,
-								new ArrayList<SupplyImage>()));
+		this._addToLedger(d.getId(), 
+				new LedgerEntry(this.getAgentTime(), collab_effort),
+				this.undo.mark());
 		
 		// was there excess wait time?
 		int wait = 0;
@@ -343,25 +407,73 @@ public class Agent implements PropertyChangeListener {
 	// commit any completed tasks that were completed before commit time
 	protected void _updateTaskLists(int committime) {
 		
-		// cycle through completed tasks
-	    Iterator<Demand> itr = completed_tasks.iterator();
-        while (itr.hasNext()) {
-        	Demand d = (Demand)itr.next();
-        	
-        	// if tasks were completed before new global time
-        	// mark as officially committed
-			if(ledger.get(d.getId()).getTimeAtFinish() <= committime) {
-				// move demand to committed_tasks
-				committed_tasks.add(d);
-				// remove from completed_tasks
-				itr.remove();
+		// queue tasks completed since last time by finish time
+		// (ledger entries are only final once the task is done)
+		for (int i = 0; i < new_completed.size(); i++) {
+			Demand d = new_completed.get(i);
+			commit_queue.add(d, this._timeFinished(d));
+		}
+		new_completed.clear();
+		
+		// take tasks in finish order up to commit time
+		while (!commit_queue.isEmpty() && commit_queue.peekFinish() <= committime) {
+			Demand d = commit_queue.poll();
+			LedgerEntry le = ledger.get(d.getId());
+			int finish = this._timeFinished(d);
+			if(finish > committime) {
+				// redone since it was queued, try again later
+				commit_queue.add(d, finish);
+				continue;
 			}
-        }
+			if(!completed_tasks.removeFirstOccurrence(d)) {
+				// rolled back since it was queued
+				continue;
+			}
+			
+			// mark as officially committed
+			int start = (le != null) ? le.getTimeAtStart() : committed_ledger.getTimeAtStart(d.getId(), finish);
+			n_committed++;
+			counters.committed(d);
+			this._unrecorded(d, start, finish);
+			
+			// can no longer be rolled back, keep only its times
+			if(le != null) {
+				undo.release(le);
+				ledger.remove(d.getId());
+				committed_ledger.add(d.getId(), start, finish);
+			}
+		}
+	}
+	
+	// record commits made since last time in the archive (done for every agent
+	// in turn after COMMIT_UNTIL, so records are in the same order however
+	// many threads did the committing)
+	public void flushCommits() {
+		for (int i = 0; i < unrecorded.size(); i++) {
+			archive.record(unrecorded.get(i), this, commit_times[2*i], commit_times[2*i+1]);
+		}
+		unrecorded.clear();
+	}
+	
+	private void _unrecorded(Demand d, int start, int finish) {
+		int i = unrecorded.size();
+		if(2*i+1 >= commit_times.length) {
+			commit_times = Arrays.copyOf(commit_times, 4*i+2);
+		}
+		unrecorded.add(d);
+		commit_times[2*i] = start;
+		commit_times[2*i+1] = finish;
+	}
+	
+	// time work on d finished (0 if not in either ledger)
+	protected int _timeFinished(Demand d) {
+		LedgerEntry le = ledger.get(d.getId());
+		return (le != null) ? le.getTimeAtFinish() : committed_ledger.getTimeAtFinish(d.getId(), 0);
 	}
 
 	protected void _rollBack() {
 		// roll back last completed Demand
-		_rollBack(this.completed_tasks.get(this.completed_tasks.size()-1),true);
+		_rollBack(this.completed_tasks.getLast(),true);
 	}
 	protected void _rollBack(Demand d) {
 		// roll back Demand, assume completed already
@@ -372,9 +484,9 @@ public class Agent implements PropertyChangeListener {
 		// roll back progress to just before completing Demand d
 		// NOTE: assumes rollback Demand is last demand completed!
 		if(isCompleted) {
-			if(this.completed_tasks.contains(d)) {
-				// remove from completed task list
-				this.completed_tasks.remove(d);
+			if(this.completed_tasks.removeFirstOccurrence(d)) {
+				// removed from completed task list
+				this.counters.uncompleted(d);
 			}
 			else {
 				// false start - nothing to roll-back
@@ -384,18 +496,7 @@ public class Agent implements PropertyChangeListener {
 		
 		// roll-back Supply usage
 		LedgerEntry p = ledger.get(d.getId());
-		for (SupplyImage si : p.getSi()) {
-
-			// find matching Supply
-			for (Supply s : this.resources) {
-				if(s.getId() == si.id) {
-					
-					// reset "image" of Supply
-					si.ReimageSupply(s);
-					break;
-				}
-			}
-		}
+		this.undo.restore(p, this.resources);
 		
 		if(isCompleted) {
 			// reset local time
@@ -413,7 +514,7 @@ public class Agent implements PropertyChangeListener {
 		}
 		
 		// remove from ledger
-		ledger.remove(d.getId());
+		this.undo.release(ledger.remove(d.getId()));
 	}
 	
 	protected void _partialRollBack(int timecap) {
@@ -435,7 +536,7 @@ public class Agent implements PropertyChangeListener {
 		}
 		// grab last completed demand instead
 		else if(!this.completed_tasks.isEmpty()) {
-			lastdemand = this.completed_tasks.get(this.completed_tasks.size()-1);
+			lastdemand = this.completed_tasks.getLast();
 		}
 		else {
 			// don't know what demand to rollback!
@@ -451,7 +552,7 @@ public class Agent implements PropertyChangeListener {
 		// 3) make a clone for use now
 		Demand newdemand = lastdemand.clone();
 		newdemand.setState(DemandState.QUEUED); // wards against being screened out by completeTask
-		System.out.println("+D cloning demand after rollback: "+newdemand.toString());
+		SimLog.debug(LogCategory.DEMAND, "{} cloning demand after rollback: {}", this.getName(), newdemand);
 		
 		// add clone to backlog
 		this.backlog_tasks.add(newdemand);
@@ -461,11 +562,11 @@ public class Agent implements PropertyChangeListener {
 	}
 
 	/*
-	 * PropertyChangeListener interface functions
+	 * ISimEventListener interface functions
 	 */
 	@Override
-	public void propertyChange(PropertyChangeEvent evt) {
-		this.doSomething(evt);
+	public void handleEvent(SimEventType type, int time, Demand d, Agent a) {
+		this.doSomething(type, time, d);
 	}
 	
 	/* 
@@ -473,10 +574,15 @@ public class Agent implements PropertyChangeListener {
 	 */	
 	public void addToBacklog(Demand d) {
 		this.backlog_tasks.add(d);
+		this._scheduleChanged();
 	}
 	
-	public void addPropertyChangeListener(PropertyChangeListener pcl) {
-		this.support.addPropertyChangeListener(pcl);
+	// join a simulation's event bus: publish on it and listen for time events
+	// (new demands arrive through a DemandRouter)
+	public void joinEventBus(SimEventBus simbus) {
+		this.bus = simbus;
+		simbus.subscribe(SimEventType.FINISH_TASK, this);
+		simbus.subscribe(SimEventType.COMMIT_UNTIL, this);
 	}
 	
 	/*
@@ -490,30 +596,41 @@ public class Agent implements PropertyChangeListener {
 		if(this.sd_dict.isEmpty())
 			return false;
 		
-		ArrayList<Pair<SupplyType,SupplyQuality>> reqsupp;
-		if(d.getType()==DemandType.COLLABORATE) {
-			reqsupp = this.getSupplyDemandDictionary().get().getRequiredSupplies(d.ancillaryDemand.get().getType());
-		}
-		else {
-			reqsupp = this.getSupplyDemandDictionary().get().getRequiredSupplies(d.getType());
+		DemandType dt = (d.getType()==DemandType.COLLABORATE) ? d.ancillaryDemand.get().getType() : d.getType();
+		
+		if(!checkamt) {
+			// shallow check: any unhandled requirement met by a usable supply?
+			long open = this.getSupplyDemandTable().get().getRequirementMask(dt) & ~_handledMask(d);
+			if((open & this.capabilities.getUsableMask()) == 0) {
+				return false;
+			}
+			
+			// matched, top up the supply that will be used (as isUsable() does)
+			this._replenishFirstMatch(d, dt);
+			return true;
 		}
 		
+		SupplyDemandTable sdt = this.getSupplyDemandTable().get();
+		int nreq = sdt.getNumRequired(dt);
+		
 		boolean matchedone = false;
 		
-		if(reqsupp != null) {
+		if(nreq > 0) {
 			// consider required supplies
-			for (Pair<SupplyType,SupplyQuality> p : reqsupp) {
+			for (int i = 0; i < nreq; i++) {
+				SupplyType req_st = sdt.getSupplyType(dt, i);
+				int req_sq = sdt.getMinQualityOrdinal(dt, i);
 				
 				// has this supply been handled already (e.g. COLLABORATION)
-				if (d.getPartial().containsKey(p.getKey())) {
+				if (d.hasPartial(req_st)) {
 					continue;
 				}
 	
 				for (Supply s: this.resources){ // match to supplies on-hand
 					
-					if (s.getType() == p.getKey()) { // type matches
+					if (s.getType() == req_st) { // type matches
 						
-						if(s.getQuality().ordinal() >= p.getValue().ordinal()){ // quality is good enough
+						if(s.getQuality().ordinal() >= req_sq){ // quality is good enough
 							
 							if (s.isUsable()) {// non-expired and replenishment checked
 								
@@ -554,29 +671,34 @@ public class Agent implements PropertyChangeListener {
 		if(this.sd_dict.isEmpty())
 			return false;
 		
-		ArrayList<Pair<SupplyType,SupplyQuality>> reqsupp;
-		if(d.getType()==DemandType.COLLABORATE) {
-			reqsupp = this.getSupplyDemandDictionary().get().getRequiredSupplies(d.ancillaryDemand.get().getType());
-		}
-		else {
-			reqsupp = this.getSupplyDemandDictionary().get().getRequiredSupplies(d.getType());
+		DemandType dt = (d.getType()==DemandType.COLLABORATE) ? d.ancillaryDemand.get().getType() : d.getType();
+		
+		if(!checkamt) {
+			// shallow check: every unhandled requirement matched by a supply on-hand?
+			long open = this.getSupplyDemandTable().get().getRequirementMask(dt) & ~_handledMask(d);
+			return (open & ~this.capabilities.getSupplyMask()) == 0;
 		}
 		
+		SupplyDemandTable sdt = this.getSupplyDemandTable().get();
+		int nreq = sdt.getNumRequired(dt);
+		
 		// consider required supplies
 		boolean matchedall = true;
-		for (Pair<SupplyType,SupplyQuality> p : reqsupp) {
+		for (int i = 0; i < nreq; i++) {
+			SupplyType req_st = sdt.getSupplyType(dt, i);
+			int req_sq = sdt.getMinQualityOrdinal(dt, i);
 			
 			// has this supply been handled already (e.g. COLLABORATION)
-			if (d.getPartial().containsKey(p.getKey())) {
+			if (d.hasPartial(req_st)) {
 				continue;
 			}
 			
 			boolean matchedone = false;
 			for (Supply s: this.resources){ // match to supplies on-hand
 				
-				if (s.getType() == p.getKey()) { // type matches
+				if (s.getType() == req_st) { // type matches
 				
-					if(s.getQuality().ordinal() >= p.getValue().ordinal()){ // quality is good enough
+					if(s.getQuality().ordinal() >= req_sq){ // quality is good enough
 
 						// deep check considers if enough supply is present
 						if (checkamt == true) {
@@ -609,39 +731,96 @@ public class Agent implements PropertyChangeListener {
 		return matchedall;
 	}
 	
+	// capability bits for supply types already handled on a demand (e.g. COLLABORATION)
+	protected static long _handledMask(Demand d) {
+		long handled = 0;
+		int[] partial = d.getPartial();
+		for (int t = 0; t < partial.length; t++) {
+			if(partial[t] != Demand.NO_WORK) {
+				handled |= CapabilityIndex.typeBits(t);
+			}
+		}
+		return handled;
+	}
+	
+	// DemandTypes with a requirement one of my usable supplies meets (COLLABORATE
+	// demands are matched on their ancillary demand's type, so always included)
+	private DemandType[] _suppliableTypes() {
+		SupplyDemandTable sdt = this.getSupplyDemandTable().get();
+		long usable = this.capabilities.getUsableMask();
+		DemandType[] types = new DemandType[DEMAND_TYPES.length];
+		int n = 0;
+		for (DemandType dt : DEMAND_TYPES) {
+			if(dt == DemandType.COLLABORATE || (sdt.getRequirementMask(dt) & usable) != 0) {
+				types[n++] = dt;
+			}
+		}
+		return Arrays.copyOf(types, n);
+	}
+	
+	// replenish the first usable supply matching an unhandled requirement
+	private void _replenishFirstMatch(Demand d, DemandType dt) {
+		long usable = this.capabilities.getUsableMask();
+		SupplyDemandTable sdt = this.getSupplyDemandTable().get();
+		for (int i = 0; i < sdt.getNumRequired(dt); i++) {
+			SupplyType req_st = sdt.getSupplyType(dt, i);
+			int req_sq = sdt.getMinQualityOrdinal(dt, i);
+			
+			// skip handled requirements and those no usable supply can meet
+			if (d.hasPartial(req_st) ||
+				(usable & CapabilityIndex.bit(req_st.ordinal(), req_sq)) == 0) {
+				continue;
+			}
+			
+			for (Supply s: this.resources){
+				if (s.getType() == req_st && 
+					s.getQuality().ordinal() >= req_sq &&
+					s.isUsable()) {
+					return;
+				}
+			}
+		}
+	}
+	
 	/*
 	 * Update amount of remaining supply after completing Demand
 	 * 
 	 */
-	protected boolean _expendEffort(Demand d, int effort, ArrayList<SupplyImage> snapshot) {
+	// (Supply states are recorded in the undo log, see _addToLedger)
+	protected boolean _expendEffort(Demand d, int effort) {
 		
 		// get list of supplies required
-		ArrayList<Pair<SupplyType,SupplyQuality>> reqsupp;
+		SupplyDemandTable sdt = this.getSupplyDemandTable().get();
+		DemandType dt;
 		
 		if(d.getType()==DemandType.COLLABORATE) {
 			this.setState(AgentState.COMMUNICATING);
-			reqsupp = this.getSupplyDemandDictionary().get().getRequiredSupplies(d.ancillaryDemand.get().getType());
+			dt = d.ancillaryDemand.get().getType();
 		}
 		else {
-			reqsupp = this.getSupplyDemandDictionary().get().getRequiredSupplies(d.getType());
+			dt = d.getType();
 		}
 		
 		boolean success = true;
 		int work_already_done;
 		// consider all required supplies
-		for (Pair<SupplyType,SupplyQuality> p : reqsupp) {
+		for (int i = 0; i < sdt.getNumRequired(dt); i++) {
+			SupplyType req_st = sdt.getSupplyType(dt, i);
+			int req_sq = sdt.getMinQualityOrdinal(dt, i);
 			
 			boolean nomatch = true;
 			
 			// how much has already been done
-			work_already_done = d.getPartial().getOrDefault(p.getKey(), 0);
+			work_already_done = d.getPartialEffort(req_st);
 			
-			// cycle through all of this agent's supplies
-			for (Supply s: this.resources){
+			// cycle through this agent's supplies of the required type
+			int end = this.capabilities.typeEnd(req_st);
+			for (int k = this.capabilities.typeStart(req_st); k < end; k++) {
+				int r = this.capabilities.positionOf(k);
+				Supply s = this.resources.get(r);
 							
-				// match on type and quality
-				if ((s.getType() == p.getKey()) && 
-					(s.getQuality().ordinal() >= p.getValue().ordinal())) {
+				// match on quality
+				if (s.getQuality().ordinal() >= req_sq) {
 					
 					// found case where random efficiency issues resulted in too much effort!
 					if(s.getAmount() < (effort-work_already_done)) {
@@ -649,7 +828,7 @@ public class Agent implements PropertyChangeListener {
 						// try achievable with a replenishment?
 						if(s.getCapacity() < (effort-work_already_done)) {
 							// failed to complete this part of a task
-							System.out.println("too much effort to complete task ("+s.getAmount()+","+(effort-work_already_done)+")");
+							SimLog.debug(LogCategory.TASK, "{} too much effort to complete task ({},{})", this.getName(), s.getAmount(), (effort-work_already_done));
 							success = false;
 							break;							
 						}
@@ -659,7 +838,7 @@ public class Agent implements PropertyChangeListener {
 							effort += s.getReplenishTime();
 							if(s.getAmount() < (effort-work_already_done)) {
 								// failed to complete this part of a task
-								System.out.println("too much effort to complete task ("+s.getAmount()+","+(effort-work_already_done)+")");
+								SimLog.debug(LogCategory.TASK, "{} too much effort to complete task ({},{})", this.getName(), s.getAmount(), (effort-work_already_done));
 								success = false;
 								break;
 							}
@@ -671,11 +850,11 @@ public class Agent implements PropertyChangeListener {
 					}
 					
 					// add a record of current Supply state (for potential roll-back)
-					snapshot.add(new SupplyImage(s));
+					this.undo.record(r, s);
 					
 					// expend actual effort (which is >= amount in Demand d)
 					s.reduceAmount((effort-work_already_done));
-					d.getPartial().put(p.getKey(),effort); // if value present, replaces value
+					d.setPartialEffort(req_st, effort); // replaces any earlier effort
 					break;
 				}
 			}
@@ -708,34 +887,32 @@ public class Agent implements PropertyChangeListener {
 			
 			// TODO: consider alternate selection criteria on backlog
 			
-			// sort demands by priority
-	    	Collections.sort(this.backlog_tasks, new Comparator<Demand>() {
-	    		public int compare(Demand d1, Demand d2) {
-	    			int result = d1.getPriority().compareTo(d2.getPriority());
-	    			return -result; // return reverse order (high priority first)
-	    		}
-	    	});
+			// backlog is kept in priority order (high priority first)
 
 	    	// complete one task if possible
-	    	int dindex = 0;
+	    	Demand next = this.backlog_tasks.first();
 	    	while(true) {
 	    		
-	    		if(this.backlog_tasks.size()>dindex) {
+	    		Demand following = null;
+	    		if(next != null) {
 	    			// only allow work to be done on urgent tasks
-	    			if(urgent_only && this.backlog_tasks.get(dindex).getPriority() != DemandPriority.URGENT) {
+	    			if(urgent_only && next.getPriority() != DemandPriority.URGENT) {
 	    				break;
 	    			}
-	    			this.setCurrenttask(Optional.of(this.backlog_tasks.get(dindex)));
+	    			this.setCurrenttask(Optional.of(next));
 	    			
 	    			if(this.getState()==AgentState.WAITING && 
 	    			   this.getCurrenttask().get().creator.get().getAgentTime()<this.getAgentTime()) {
 	    				
-	    				System.out.println(this.getName()+" rolling back unfinished Demand to collaborate");
+	    				SimLog.debug(LogCategory.TASK, "{} rolling back unfinished Demand to collaborate", this.getName());
 	    				this._partialRollBack(this.getCurrenttask().get().creator.get().getAgentTime());
 	    				
 	    				this.backup = Optional.empty();
 	    				this.setState(AgentState.ACTIVE);
 	    			}
+	    			
+	    			// remember where to pick up if this demand is skipped
+	    			following = this.backlog_tasks.next(next);
 	    		}
 	    		try {
 	    			retval = this.completeTask();
@@ -754,10 +931,11 @@ public class Agent implements PropertyChangeListener {
 	    		if(retval == TASK_RESULTS.SKIP_TOOEARLY) {
 	    			// don't want to toss out demand, it's just too early for this
 	    			// agent to help, so look for the next one to work on
-	    			System.out.println(this.getName()+" is too far behind. skipping collaboration for now...");
-    				
-	    			dindex++;
+	    			SimLog.debug(LogCategory.COLLAB, "{} is too far behind. skipping collaboration for now...", this.getName());
 	    		}
+	    		
+	    		// move on to the next demand in priority order
+	    		next = (following != null && this.backlog_tasks.contains(following)) ? following : null;
 	    	}
 		}
 		
@@ -770,7 +948,7 @@ public class Agent implements PropertyChangeListener {
 			return this.ledger.get(d.getId()).getEffort();
 		}
 		else {
-			return 0;
+			return this.committed_ledger.getEffort(d.getId());
 		}
 	}
 	
@@ -779,6 +957,9 @@ public class Agent implements PropertyChangeListener {
 		if(ledger.containsKey(d.getId())){
 			return this.ledger.get(d.getId()).getTimeAtStart();
 		}
+		if(committed_ledger.contains(d.getId())) {
+			return this.committed_ledger.getTimeAtStart(d.getId(), 0);
+		}
 		throw new Exception("Demand not in ledger");
 	}
 	
@@ -797,11 +978,11 @@ public class Agent implements PropertyChangeListener {
 		Demand d = this.getCurrenttask().get();
 		
 		// only pick up Demands that aren't in progress already
-		if(d.getState() == DemandState.QUEUED || d.getState() == DemandState.INCOMPLETE) {
-			d.setActive(); // mark task as started by an agent
+		// (claiming marks the task as started by this agent)
+		if(d.claim()) {
 			
 			//this.setCurrenttask(Optional.of(d));
-			System.out.println(this.getName()+" has started working on "+d.toString());
+			SimLog.debug(LogCategory.TASK, "{} has started working on {}", this.getName(), d);
 		
 			if(d.getType() == DemandType.COLLABORATE) {
 				// -------- COLLABORATION ------------
@@ -809,9 +990,8 @@ public class Agent implements PropertyChangeListener {
 				// requesting Agent gave up and marked Demand as incomplete
 				if(d.ancillaryDemand.get().getState() == DemandState.INCOMPLETE ||
 				   d.ancillaryDemand.get().getState() == DemandState.REPLACED) {
-					System.out.println("...demand already marked "+
-							d.ancillaryDemand.get().getState().toString()+
-							" Moving on.");
+					SimLog.debug(LogCategory.COLLAB, "{} ...demand already marked {} Moving on.", 
+							this.getName(), d.ancillaryDemand.get().getState());
 					
 					// set collaboration demand as complete to avoid others working on it
 					d.setComplete();
@@ -839,7 +1019,7 @@ public class Agent implements PropertyChangeListener {
 					
 					// CANNOT roll back collaborations!
 					if(!this.completed_tasks.isEmpty() &&
-					   this.completed_tasks.get(this.completed_tasks.size()-1).getType()==DemandType.COLLABORATE) {
+					   this.completed_tasks.getLast().getType()==DemandType.COLLABORATE) {
 						break;
 					}
 					else {
@@ -869,39 +1049,42 @@ public class Agent implements PropertyChangeListener {
 				}
 				
 				// complete task
-				ArrayList<SupplyImage> snapshot = new ArrayList<SupplyImage>();
+				int undo_mark = this.undo.mark();
 				
 				// update resources based on demand
-				if(this._expendEffort(d, d.ancillaryDemand.get().getEffort(), snapshot)) {	
+				if(this._expendEffort(d, d.ancillaryDemand.get().getEffort())) {	
 						
 					// move demand to cleared list
 					this.backlog_tasks.remove(d);
-					this.completed_tasks.add(d.ancillaryDemand.get());
-					this.completed_tasks.add(d);
+					this._addCompleted(d.ancillaryDemand.get());
+					this._addCompleted(d);
 					
 					// update local time and add to ledger
-					this.ledger.put(d.ancillaryDemand.get().getId(),
+					this._addToLedger(d.ancillaryDemand.get().getId(),
 							new LedgerEntry(this.getAgentTime(),
-											d.ancillaryDemand.get().getEffort(),
-											snapshot));
+											d.ancillaryDemand.get().getEffort()),
+							undo_mark);
 					this.updateAgentTime(d.ancillaryDemand.get().getEffort());
 
 					// add demand and collaboration to ledger
-					this.ledger.put(d.getId(),
-							new LedgerEntry(this.getAgentTime(),
-									collab_effort,
-									new ArrayList<SupplyImage>()));							
+					this._addToLedger(d.getId(),
+							new LedgerEntry(this.getAgentTime(), collab_effort),
+							this.undo.mark());
 					this.updateAgentTime(collab_effort);
 					
 					this.setCurrenttask(Optional.empty());
 				}
+				else {
+					// nothing was logged, so nothing to roll back to
+					this.undo.discard(undo_mark);
+				}
 
 				// update list for myself and collaborator
 				this.updateInteractions(d.creator.get());
 				d.creator.get().finishCollaboration(this,d,collab_effort);
 				
-				System.out.println("...time needed to complete task: "+d.ancillaryDemand.get().getEffort());
-				System.out.println("...time needed to collaborate: "+collab_effort);
+				SimLog.trace(LogCategory.TASK, "{} ...time needed to complete task: {}", this.getName(), d.ancillaryDemand.get().getEffort());
+				SimLog.trace(LogCategory.TASK, "{} ...time needed to collaborate: {}", this.getName(), collab_effort);
 			}
 			else {
 	
@@ -914,16 +1097,16 @@ public class Agent implements PropertyChangeListener {
 					if (this.getEfficiency() < rand.nextInt(101)) totaleffort++; // add extra effort randomly 
 				}
 				
-				ArrayList<SupplyImage> snapshot = new ArrayList<SupplyImage>();
+				int undo_mark = this.undo.mark();
 				
 				// update resources based on demand
-				if(this._expendEffort(d, totaleffort, snapshot)) {	
+				if(this._expendEffort(d, totaleffort)) {	
 					if(d.getState()==DemandState.PARTIAL) {
 						// fire signal for collaboration
 						this.setState(AgentState.WAITING);
 						
-						System.out.println("...agent is waiting for help from others");
-						this.support.firePropertyChange("collaborate",d,this); // announce need for help
+						SimLog.debug(LogCategory.COLLAB, "{} ...agent is waiting for help from others", this.getName());
+						this.bus.fire(SimEventType.COLLABORATE, d, this); // announce need for help
 					}
 					else {
 						// consider Demand completed
@@ -931,24 +1114,24 @@ public class Agent implements PropertyChangeListener {
 						
 						// move demand to cleared list
 						this.backlog_tasks.remove(d);
-						this.completed_tasks.add(d);
+						this._addCompleted(d);
 						this.setCurrenttask(Optional.empty());
 					}
 
 					// make note of work completed (even if only PARTIAL and waiting...)
-					this.ledger.put(d.getId(),
-							new LedgerEntry(this.getAgentTime(), totaleffort, snapshot));
+					this._addToLedger(d.getId(),
+							new LedgerEntry(this.getAgentTime(), totaleffort), undo_mark);
 					this.updateAgentTime(totaleffort);
 				}
 				else {
-					System.err.println("...failed to complete task");
+					SimLog.warn(LogCategory.TASK, "{} ...failed to complete task", this.getName());
 					
 					// can't complete task
 					// treat like completed, then instantly roll-back
 					
 					this.backlog_tasks.remove(d);
-					this.ledger.put(d.getId(),
-							new LedgerEntry(this.getAgentTime(), totaleffort, snapshot));
+					this._addToLedger(d.getId(),
+							new LedgerEntry(this.getAgentTime(), totaleffort), undo_mark);
 					this.setCurrenttask(Optional.empty());
 					
 					// fix any changes to Supplies during failed attempt
@@ -957,11 +1140,11 @@ public class Agent implements PropertyChangeListener {
 					return TASK_RESULTS.FAIL;
 				}
 	
-				System.out.println("...time needed to complete task: "+totaleffort);
+				SimLog.trace(LogCategory.TASK, "{} ...time needed to complete task: {}", this.getName(), totaleffort);
 			}
 		}	
 		else {
-			// task has already been completed, remove from backlog
+			// task is taken or done (e.g. claimed by another agent), remove from backlog
 			this.backlog_tasks.remove(d);
 			this.setCurrenttask(Optional.empty());
 			//System.out.println("Demand state is "+d.getState());
@@ -974,21 +1157,21 @@ public class Agent implements PropertyChangeListener {
 	protected TASK_RESULTS partialCompleteTask(Demand d, int totaleffort) {
 		
 		// only pick up Demands that aren't in progress already
-		if(d.getState() == DemandState.QUEUED || d.getState() == DemandState.INCOMPLETE) {
-			d.setActive(); // mark task as started by an agent
+		// (claiming marks the task as started by this agent)
+		if(d.claim()) {
 
-			System.out.println(this.getName()+" has started working on "+d.toString());
+			SimLog.debug(LogCategory.TASK, "{} has started working on {}", this.getName(), d);
 			
-			ArrayList<SupplyImage> snapshot = new ArrayList<SupplyImage>();
+			int undo_mark = this.undo.mark();
 			
 			// update resources based on demand
-			if(this._expendEffort(d, totaleffort, snapshot)) {	
+			if(this._expendEffort(d, totaleffort)) {	
 				if(d.getState()==DemandState.PARTIAL) {
 					// fire signal for collaboration
 					this.setState(AgentState.WAITING);
 					
-					System.out.println("...agent is waiting for help from others");
-					this.support.firePropertyChange("collaborate",d,this); // announce need for help
+					SimLog.debug(LogCategory.COLLAB, "{} ...agent is waiting for help from others", this.getName());
+					this.bus.fire(SimEventType.COLLABORATE, d, this); // announce need for help
 				}
 				else {
 					// consider Demand completed
@@ -996,24 +1179,24 @@ public class Agent implements PropertyChangeListener {
 					
 					// move demand to cleared list
 					this.backlog_tasks.remove(d);
-					this.completed_tasks.add(d);
+					this._addCompleted(d);
 					this.setCurrenttask(Optional.empty());
 				}
 
 				// make note of work completed (even if only PARTIAL and waiting...)
-				this.ledger.put(d.getId(),
-						new LedgerEntry(this.getAgentTime(),totaleffort,snapshot));
+				this._addToLedger(d.getId(),
+						new LedgerEntry(this.getAgentTime(),totaleffort), undo_mark);
 				this.updateAgentTime(totaleffort);
 			}
 			else {
-				System.err.println("...failed to complete task");
+				SimLog.warn(LogCategory.TASK, "{} ...failed to complete task", this.getName());
 				
 				// can't complete task
 				// treat like completed, then instantly roll-back
 				
 				this.backlog_tasks.remove(d);
-				this.ledger.put(d.getId(),
-						new LedgerEntry(this.getAgentTime(),totaleffort,snapshot));
+				this._addToLedger(d.getId(),
+						new LedgerEntry(this.getAgentTime(),totaleffort), undo_mark);
 				this.setCurrenttask(Optional.empty());
 				
 				// fix any changes to Supplies during failed attempt
@@ -1022,10 +1205,10 @@ public class Agent implements PropertyChangeListener {
 				return TASK_RESULTS.FAIL;
 			}
 
-			System.out.println("...time needed to complete task: "+totaleffort);
+			SimLog.trace(LogCategory.TASK, "{} ...time needed to complete task: {}", this.getName(), totaleffort);
 		}
 		else {
-			// task has already been completed, remove from backlog
+			// task is taken or done (e.g. claimed by another agent), remove from backlog
 			this.backlog_tasks.remove(d);
 			this.setCurrenttask(Optional.empty());
 			//System.out.println("Demand state is "+d.getState());
@@ -1046,25 +1229,27 @@ public class Agent implements PropertyChangeListener {
 	
 	public String toProgressString() {
 		
-		String progressString = "Name: "+this.getName()+"\n";
-		progressString += "Status: "+this.getState().name()+"\n";
-		progressString += "Local Time: "+this.getAgentTime()+"\n";
-		progressString += "Wait Time: "+this.getWaitTime()+"\n";
-		progressString += "Backlog: "+this.backlog_tasks.size()+" demands\n";
-		progressString += "Completed: "+this.completed_tasks.size()+" demands\n";
-		progressString += "Committed: "+this.committed_tasks.size()+" demands\n";
-		progressString += "Abandoned: "+this.abandoned_tasks.size()+" demands\n";
-		progressString += "Collaborations: "+this.getCollaborationCount()+"\n";
-		progressString += "List of Interactions: \n";
+		StringBuilder sb = new StringBuilder(256);
+		sb.append("Name: ").append(this.getName()).append('\n');
+		sb.append("Status: ").append(this.getState().name()).append('\n');
+		sb.append("Local Time: ").append(this.getAgentTime()).append('\n');
+		sb.append("Wait Time: ").append(this.getWaitTime()).append('\n');
+		sb.append("Backlog: ").append(this.backlog_tasks.size()).append(" demands\n");
+		sb.append("Completed: ").append(this.completed_tasks.size()).append(" demands\n");
+		sb.append("Committed: ").append(this.n_committed).append(" demands\n");
+		sb.append("Abandoned: ").append(this.abandoned_tasks.size()).append(" demands\n");
+		sb.append("Collaborations: ").append(this.getCollaborationCount()).append('\n');
+		sb.append("List of Interactions: \n");
 
 		//Iterator<Entry<UUID, Integer>> it = this.interactions.entrySet().iterator();
 		Iterator<Entry<String, Integer>> it = this.interactions.entrySet().iterator();
 	    while (it.hasNext()) {
 	    	Entry<String, Integer> nextentry = it.next();
-	    	progressString += ("("+this.getName()+","+nextentry.getKey()+") x "+nextentry.getValue()+"\n");
+	    	sb.append('(').append(this.getName()).append(',').append(nextentry.getKey())
+	    	  .append(") x ").append(nextentry.getValue()).append('\n');
 	    }
 		// * total collaborations
-		return progressString;
+		return sb.toString();
 	}
 	
 	// print interactions to file
@@ -1079,7 +1264,7 @@ public class Agent implements PropertyChangeListener {
 	    	}
 	    	catch (IOException e) {
 				// fail gracefully
-				System.err.println("Failed while writing progress report to file.");
+				SimLog.error(LogCategory.REPORT, "Failed while writing progress report to file.");
 				e.printStackTrace();
 				break;
 	    	}
@@ -1108,17 +1293,23 @@ public class Agent implements PropertyChangeListener {
 	public void setResources(ArrayList<Supply> rsrcs) {
 		resources.clear();
 		resources.addAll(rsrcs);
+		capabilities.invalidate();
+		
+		// undo records refer to supplies by position
+		undo.clear();
 	}
 	
-	public ArrayList<Demand> getCompletedtasks() { return completed_tasks; }
-	public ArrayList<Demand> getCommittedtasks() { return committed_tasks; }
+	public ArrayDeque<Demand> getCompletedtasks() { return completed_tasks; }
+	public int getNumCommitted() { return n_committed; }
 	
 	public int getAgentTime() { return agentTime; }
 	public void setAgentTime(int agentTime) { 
 		this.agentTime = agentTime; 
+		this._scheduleChanged();
 	}
 	public void updateAgentTime(int updatetime) {
 		this.agentTime += updatetime;
+		this._scheduleChanged();
 	}
 	
 	public Optional<Demand> getCurrenttask() { return current_task; }
@@ -1126,13 +1317,13 @@ public class Agent implements PropertyChangeListener {
 		this.current_task = current_task;
 	}
 	
-	public Optional<SupplyDemandDictionary> getSupplyDemandDictionary() {
+	public Optional<SupplyDemandTable> getSupplyDemandTable() {
 		return sd_dict;
 	}
-	public void setSupplyDemandDictionary(SupplyDemandDictionary sdd) {
-		this.sd_dict= Optional.of(sdd);
+	public void setSupplyDemandTable(SupplyDemandTable sdt) {
+		this.sd_dict= Optional.of(sdt);
 	}
-	public void setSupplyDemandDictionary(Optional<SupplyDemandDictionary> sd_dict) {
+	public void setSupplyDemandTable(Optional<SupplyDemandTable> sd_dict) {
 		this.sd_dict = sd_dict;
 	}
 
@@ -1145,7 +1336,10 @@ public class Agent implements PropertyChangeListener {
 	}
 	
 	public AgentState getState() { return state; }
-	public void setState(AgentState state) { this.state = state; }
+	public void setState(AgentState state) { 
+		this.state = state; 
+		this._scheduleChanged();
+	}
 	
 	public int getWaitTime() { return waitTime; }
 	public void setWaitTime(int waitTime) { this.waitTime = waitTime; }
@@ -1175,8 +1369,31 @@ public class Agent implements PropertyChangeListener {
 	}
 	public void numUrgentPlusOne(){
 		this.n_urgent += 1;
+		this._scheduleChanged();
 	}
 	public void numUrgentMinusOne(){
 		this.n_urgent -= 1;
 	}
+	
+	// internal state, exposed for SimCheckpoint
+	int getCyclesSinceSync() { return cycles_since_sync; }
+	void setCyclesSinceSync(int cycles) { this.cycles_since_sync = cycles; }
+	
+	Optional<Demand> getBackup() { return backup; }
+	void setBackup(Optional<Demand> backup) { this.backup = backup; }
+	
+	// totals to keep up to date (the simulation's, once joined)
+	void setProgressCounters(ProgressCounters counters) { this.counters = counters; }
+	
+	// archive for committed work (the simulation's, once joined)
+	void setCommitArchive(CommitArchive archive) { this.archive = archive; }
+	
+	// scheduling hook for EventScheduler (null when cycle stepping)
+	void setScheduleListener(Runnable listener) { this.schedule_listener = listener; }
+	
+	private void _scheduleChanged() {
+		if(this.schedule_listener != null) {
+			this.schedule_listener.run();
+		}
+	}
 }
\ No newline at end of file
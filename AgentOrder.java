@@ -0,0 +1,95 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/*
+ *  AgentOrder for Agent Based Modeling
+ *  @author Chad Holmes
+ *
+ *  MIT EM.426 Spring 2021 class
+ *
+ *  Keeps a list of Agents ordered by local time (agentTime), ties in
+ *  the order they were in before, i.e. what a stable sort of the list
+ *  gives.  From one cycle to the next most agents keep their place, so
+ *  instead of sorting everything the list is split in one pass into the
+ *  agents still in order and the ones that moved; only the moved ones
+ *  are sorted (by time, then old position) and merged back in.  This
+ *  costs O(n + k log k) for k moved agents.
+ */
+
+public class AgentOrder {
+
+	// reused between calls
+	private Agent[] kept;
+	private long[] moved; // (agentTime, old position) packed into a long
+	private Agent[] old;
+
+	/*
+	 * Constructor
+	 */
+	public AgentOrder() {
+		this.kept = new Agent[0];
+		this.moved = new long[0];
+		this.old = new Agent[0];
+	}
+
+	// put agents in order of local time (stable)
+	public void sort(ArrayList<Agent> agents) {
+		int n = agents.size();
+		if(old.length < n) {
+			kept = new Agent[n];
+			moved = new long[n];
+			old = new Agent[n];
+		}
+
+		// split into an in-order run and agents that moved
+		int n_kept = 0;
+		int n_moved = 0;
+		int last = Integer.MIN_VALUE;
+		for (int i = 0; i < n; i++) {
+			Agent a = agents.get(i);
+			old[i] = a;
+			int t = a.getAgentTime();
+			if(t >= last) {
+				kept[n_kept++] = a;
+				last = t;
+			}
+			else {
+				moved[n_moved++] = ((long)t << 32) | i;
+			}
+		}
+		if(n_moved == 0) {
+			return;
+		}
+		Arrays.sort(moved, 0, n_moved);
+
+		// merge the two, ties going to whichever was first before
+		// (kept agents are visited in old order, so track their positions)
+		int k = 0;
+		int m = 0;
+		int pos = 0; // old position of kept[k]
+		for (int i = 0; i < n; i++) {
+			if(k < n_kept) {
+				while (old[pos] != kept[k]) {
+					pos++;
+				}
+			}
+			if(m >= n_moved || (k < n_kept && _compare(kept[k].getAgentTime(), pos, moved[m]) < 0)) {
+				agents.set(i, kept[k++]);
+			}
+			else {
+				agents.set(i, old[(int)moved[m++]]);
+			}
+		}
+		Arrays.fill(kept, 0, n_kept, null);
+		Arrays.fill(old, 0, n, null);
+	}
+
+	// compare (time, position) of a kept agent with a packed moved agent
+	private static int _compare(int time, int pos, long moved) {
+		int t = (int)(moved >> 32);
+		if(time != t) {
+			return time < t ? -1 : 1;
+		}
+		return Integer.compare(pos, (int)moved);
+	}
+}
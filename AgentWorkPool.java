@@ -0,0 +1,93 @@
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/*
+ *  AgentWorkPool for Agent Based Modeling
+ *  @author Chad Holmes
+ *
+ *  MIT EM.426 Spring 2021 class
+ *
+ *  Runs the agent-local phases of a simulation cycle on a fork-join
+ *  pool.  A cycle has two kinds of work:
+ *
+ *  - agent-local work, which reads shared Demands but only changes the
+ *    agent's own state (backlog refreshes, committing completed tasks on
+ *    COMMIT_UNTIL), so agents can do it at the same time in any order.
+ *    The one shared thing it touches is an event-driven run's
+ *    EventScheduler, which agents tell about backlog changes; it
+ *    collects those under a lock, and the order they arrive in does not
+ *    matter
+ *  - cross-agent work (FINISH_TASK: claiming Demands, collaboration
+ *    handshakes, rollbacks; recording commits in the CommitArchive),
+ *    which stays on the simulation thread in bus order and so resolves
+ *    exactly as before.  This includes drawing task effort and spending
+ *    supply on it: both happen only once a claim has succeeded, and
+ *    spending writes the shared Demand's partial effort, so the task
+ *    work of a cycle is not parallel
+ *
+ *  Since each agent's share of the local work is the same whichever
+ *  thread does it, results (reports and archive files alike) do not
+ *  depend on the number of threads.  With a parallelism of 1 (the
+ *  default) nothing is handed to a pool.
+ */
+
+public class AgentWorkPool {
+
+	// below this many agents a phase is not worth splitting up
+	private static final int MIN_PARALLEL = 8;
+
+	private final int parallelism;
+	private ForkJoinPool pool; // created on first use
+
+	/*
+	 * Constructors
+	 */
+	public AgentWorkPool() {
+		this(1);
+	}
+
+	public AgentWorkPool(int parallelism) {
+		this.parallelism = Math.max(1, parallelism);
+	}
+
+	// do work for every item, in parallel if worthwhile (returns when all are done)
+	public <T> void forEach(List<T> items, Consumer<? super T> work) {
+		if(!this.isParallel() || items.size() < MIN_PARALLEL) {
+			for (int i = 0; i < items.size(); i++) {
+				work.accept(items.get(i));
+			}
+			return;
+		}
+		this._pool().submit(() -> items.parallelStream().forEach(work)).join();
+	}
+
+	// stop the pool threads (the pool is re-created if used again)
+	public synchronized void shutdown() {
+		if(this.pool != null) {
+			this.pool.shutdown();
+			this.pool = null;
+		}
+	}
+
+	/*
+	 * Getters and Setters
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	public boolean isParallel() {
+		return parallelism > 1;
+	}
+
+	/*
+	 * Helper Functions
+	 */
+	private synchronized ForkJoinPool _pool() {
+		if(this.pool == null) {
+			this.pool = new ForkJoinPool(this.parallelism);
+		}
+		return this.pool;
+	}
+}
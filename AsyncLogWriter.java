@@ -0,0 +1,153 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * AsyncLogWriter Class for Agent Based Modeling
+ *  @author Chad Holmes
+ *
+ *  For MIT EM.426 Spring 2021 class
+ *
+ *  AsyncLogWriter moves SimLog console I/O off the simulation threads.
+ *  Records go into a fixed ring of pre-allocated slots: a producer
+ *  claims the next sequence number, fills the slot and publishes it by
+ *  writing the sequence into the slot.  A single daemon thread reads
+ *  slots in sequence order and writes them out in batches, one print per
+ *  batch (WARN and above to System.err, the rest to System.out).
+ *
+ *  When the ring is full producers wait for the writer rather than drop
+ *  records.  The writer starts with the first enabled record, and a
+ *  shutdown hook drains whatever is left when the JVM exits.
+ *
+ */
+final class AsyncLogWriter implements Runnable {
+
+	private static final int CAPACITY = 1 << 13; // power of 2
+	private static final int BATCH_CHARS = 1 << 14;
+	private static final long IDLE_PARK_NS = 1_000_000L;
+
+	// one slot of the ring
+	private static final class LogRecord {
+		volatile long sequence = -1; // sequence of the record in this slot
+		LogLevel level;
+		LogCategory category;
+		String message;
+	}
+
+	// created on first use (initialization-on-demand holder)
+	private static final class Holder {
+		static final AsyncLogWriter INSTANCE = new AsyncLogWriter();
+	}
+	private static volatile boolean started = false;
+
+	static AsyncLogWriter get() {
+		return Holder.INSTANCE;
+	}
+
+	static void flushIfStarted() {
+		if(started) {
+			Holder.INSTANCE.flush();
+		}
+	}
+
+	private final LogRecord[] ring;
+	private final int mask;
+	private final AtomicLong claimed = new AtomicLong(); // next sequence to hand out
+	private volatile long written = 0;                   // all sequences below are printed
+	private volatile boolean idle = false;
+	private final Thread thread;
+
+	private AsyncLogWriter() {
+		ring = new LogRecord[CAPACITY];
+		for (int i = 0; i < CAPACITY; i++) {
+			ring[i] = new LogRecord();
+		}
+		mask = CAPACITY-1;
+
+		thread = new Thread(this, "sim-log-writer");
+		thread.setDaemon(true);
+		thread.start();
+		Runtime.getRuntime().addShutdownHook(new Thread(this::flush, "sim-log-flush"));
+		started = true;
+	}
+
+	// hand a formatted record to the writer thread
+	void publish(LogLevel level, LogCategory category, String message) {
+		long seq = claimed.getAndIncrement();
+
+		// ring full: wait for the writer to free this slot
+		while (seq - written >= CAPACITY) {
+			LockSupport.unpark(thread);
+			Thread.yield();
+		}
+
+		LogRecord r = ring[(int)(seq & mask)];
+		r.level = level;
+		r.category = category;
+		r.message = message;
+		r.sequence = seq; // publish
+
+		if(idle) {
+			LockSupport.unpark(thread);
+		}
+	}
+
+	// block until everything published so far has been printed
+	void flush() {
+		long target = claimed.get();
+		while (written < target) {
+			LockSupport.unpark(thread);
+			LockSupport.parkNanos(IDLE_PARK_NS);
+		}
+	}
+
+	@Override
+	public void run() {
+		StringBuilder out = new StringBuilder(BATCH_CHARS);
+		StringBuilder err = new StringBuilder();
+		long next = 0;
+
+		while (true) {
+			LogRecord r = ring[(int)(next & mask)];
+			if(r.sequence == next) {
+				StringBuilder sb = (r.level.ordinal() >= LogLevel.WARN.ordinal()) ? err : out;
+				sb.append(r.level.name());
+				for (int i = r.level.name().length(); i < 6; i++) {
+					sb.append(' ');
+				}
+				sb.append(r.category.name()).append(": ").append(r.message).append('\n');
+				r.message = null;
+				next++;
+
+				// keep batches bounded so the ring keeps moving
+				if(out.length() < BATCH_CHARS && err.length() < BATCH_CHARS) {
+					continue;
+				}
+			}
+
+			// nothing more ready (or batch full): print what we have
+			this._print(out, err);
+			written = next;
+
+			if(ring[(int)(next & mask)].sequence != next) {
+				idle = true;
+				if(ring[(int)(next & mask)].sequence != next) {
+					LockSupport.parkNanos(IDLE_PARK_NS);
+				}
+				idle = false;
+			}
+		}
+	}
+
+	private void _print(StringBuilder out, StringBuilder err) {
+		if(out.length() > 0) {
+			System.out.print(out);
+			System.out.flush();
+			out.setLength(0);
+		}
+		if(err.length() > 0) {
+			System.err.print(err);
+			System.err.flush();
+			err.setLength(0);
+		}
+	}
+}
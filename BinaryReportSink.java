@@ -0,0 +1,392 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map.Entry;
+
+/*
+ *  BinaryReportSink for Agent Based Modeling
+ *  @author Chad Holmes
+ *
+ *  MIT EM.426 Spring 2021 class
+ *
+ *  Writes the reports of every run of a sweep (or ensemble) into one
+ *  compact binary file instead of three text files per run.
+ *
+ *  Agent names are dictionary encoded: the first time a name is seen a
+ *  NAME record gives it the next id and every row after that uses the
+ *  id.  All integers are unsigned LEB128 varints (7 bits per byte, high
+ *  bit set on all but the last byte), so small counts take one byte.
+ *
+ *  File layout (all integers varints unless noted):
+ *    header        'E' 'M' 'R' 'P', version byte
+ *    NAME          'N' id length utf8-bytes
+ *    RUN           'R' run n_agents n_cycles n_init_demands prob_new_demand interax_lr
+ *    AGENTS        'A' n_rows  run[n_rows]  agent[n_rows]
+ *    INTERACTIONS  'I' n_rows  run[n_rows]  agent[n_rows]  other[n_rows]  count[n_rows]
+ *    COLLABS       'C' n_rows  run[n_rows]  agent[n_rows]  count[n_rows]
+ *    END           'E'
+ *  Each table block is column major and carries its own run-id column.
+ *  Rows keep the order of the text reports (see ReportExport).
+ *
+ *  A run is written as one unit (its new NAMEs, then RUN, AGENTS,
+ *  INTERACTIONS and COLLABS) when its final report comes in, and the
+ *  buffer is drained to the FileChannel right after, so a run is either
+ *  wholly in the file or not at all.  That lets a file be reopened for
+ *  appending: completed runs are read back, anything after the last
+ *  complete run (an interrupted write, the END record) is cut off, and
+ *  new runs go after it.
+ *
+ *  Methods are synchronized so runs on a pool can share a sink.
+ */
+
+public class BinaryReportSink implements IReportSink {
+
+	static final byte[] MAGIC = { 'E', 'M', 'R', 'P' };
+	static final byte VERSION = 1;
+	static final int HEADER_SIZE = MAGIC.length+1;
+
+	// record tags
+	static final byte NAME = 'N';
+	static final byte RUN = 'R';
+	static final byte AGENTS = 'A';
+	static final byte INTERACTIONS = 'I';
+	static final byte COLLABS = 'C';
+	static final byte END = 'E';
+
+	// number of parameters in a RUN record (after the run id)
+	static final int N_RUN_PARAMS = 5;
+
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final int MAX_VARINT = 5;
+
+	private final FileChannel channel;
+	private final ByteBuffer buf;
+
+	// name dictionary (name -> id)
+	private final HashMap<String,Integer> names;
+
+	// parameters of the runs in the file (run id -> RUN record parameters)
+	private final HashMap<Integer,int[]> runs;
+
+	// column scratch space for the table being written
+	private int[] col_agent;
+	private int[] col_other;
+	private int[] col_count;
+
+	private boolean closed;
+
+	/*
+	 * Constructors
+	 */
+	public BinaryReportSink(Path file) throws IOException {
+		this(file, false);
+	}
+
+	// append = true keeps the complete runs already in file
+	public BinaryReportSink(Path file, boolean append) throws IOException {
+		this.channel = FileChannel.open(file,
+										StandardOpenOption.CREATE,
+										StandardOpenOption.READ,
+										StandardOpenOption.WRITE);
+		this.buf = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		this.names = new HashMap<String,Integer>();
+		this.runs = new HashMap<Integer,int[]>();
+		this.col_agent = new int[64];
+		this.col_other = new int[64];
+		this.col_count = new int[64];
+		this.closed = false;
+
+		try {
+			long keep = 0;
+			if(append && channel.size() > 0) {
+				keep = this._recover();
+			}
+			channel.truncate(keep);
+			channel.position(keep);
+			if(keep == 0) {
+				this.buf.put(MAGIC);
+				this.buf.put(VERSION);
+			}
+		}
+		catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	@Override
+	public void writeAgents(SimEnvironment sim, List<Agent> agents) {
+		// written with the rest of the run in writeFinalReport
+	}
+
+	@Override
+	public synchronized void writeFinalReport(SimEnvironment sim, List<Agent> agents) throws IOException {
+		this._checkOpen();
+		int run = sim.getRunId();
+
+		// agents (any new names are written first)
+		int n = agents.size();
+		this._reserve(n);
+		for (int i = 0; i < n; i++) {
+			col_agent[i] = this._nameId(agents.get(i).getName());
+		}
+
+		// run parameters, so a sweep file describes itself
+		int[] params = { sim.getNumAgents(), sim.getNumCycles(), sim.getNumInitDemands(),
+						 sim.getProbNewDemand(), sim.getInteraxLR() };
+		this._tag(RUN);
+		this._varint(run);
+		this._column(params, N_RUN_PARAMS);
+
+		this._tag(AGENTS);
+		this._varint(n);
+		this._runColumn(run, n);
+		this._column(col_agent, n);
+
+		// interactions, in the same order as the text report
+		int m = 0;
+		for (Agent a : agents) {
+			int agent_id = this._nameId(a.getName());
+			for (Entry<String,Integer> e : a.interactions.entrySet()) {
+				this._reserve(m+1);
+				col_agent[m] = agent_id;
+				col_other[m] = this._nameId(e.getKey());
+				col_count[m] = e.getValue();
+				m++;
+			}
+		}
+
+		this._tag(INTERACTIONS);
+		this._varint(m);
+		this._runColumn(run, m);
+		this._column(col_agent, m);
+		this._column(col_other, m);
+		this._column(col_count, m);
+
+		// collaboration counts (the monte carlo report)
+		for (int i = 0; i < n; i++) {
+			Agent a = agents.get(i);
+			col_agent[i] = this._nameId(a.getName());
+			col_count[i] = a.getCollaborationCount();
+		}
+
+		this._tag(COLLABS);
+		this._varint(n);
+		this._runColumn(run, n);
+		this._column(col_agent, n);
+		this._column(col_count, n);
+
+		// the run is complete, get it onto disk
+		this._drain();
+		runs.put(run, params);
+	}
+
+	@Override
+	public void writeMonteCarloReport(SimEnvironment sim) {
+		// collaboration counts were already written run by run
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		if(closed) {
+			return;
+		}
+		try {
+			this._tag(END);
+			this._drain();
+		}
+		finally {
+			closed = true;
+			channel.close();
+		}
+	}
+
+	// is run already in the file?
+	public synchronized boolean hasRun(int run) {
+		return runs.containsKey(run);
+	}
+
+	// RUN record parameters of run (n_agents, n_cycles, n_init_demands,
+	// prob_new_demand, interax_lr), or null if it is not in the file
+	public synchronized int[] getRunParams(int run) {
+		int[] params = runs.get(run);
+		return params == null ? null : params.clone();
+	}
+
+	// read one varint from in
+	static int readVarint(ByteBuffer in) {
+		int v = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = in.get();
+			v |= (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		return v;
+	}
+
+	/*
+	 * Helper Functions
+	 */
+	// read back the complete runs of an existing file, returns where they end
+	private long _recover() throws IOException {
+		ByteBuffer in = ByteBuffer.allocate((int)Math.min(channel.size(), Integer.MAX_VALUE));
+		while (in.hasRemaining() && channel.read(in, in.position()) > 0) {
+			// read the whole file
+		}
+		in.flip();
+
+		for (byte b : MAGIC) {
+			if(!in.hasRemaining() || in.get() != b) {
+				throw new IOException("not a binary report file");
+			}
+		}
+		if(!in.hasRemaining() || in.get() != VERSION) {
+			throw new IOException("unsupported binary report version");
+		}
+
+		// names and run seen since the last complete run
+		ArrayList<String> new_names = new ArrayList<String>();
+		int run = -1;
+		int[] params = null;
+		long keep = HEADER_SIZE;
+
+		try {
+			while (in.hasRemaining()) {
+				byte tag = in.get();
+				if(tag == NAME) {
+					readVarint(in); // id (names are numbered in order)
+					byte[] bytes = new byte[readVarint(in)];
+					in.get(bytes);
+					new_names.add(new String(bytes, StandardCharsets.UTF_8));
+				}
+				else if(tag == RUN) {
+					run = readVarint(in);
+					params = new int[N_RUN_PARAMS];
+					for (int i = 0; i < N_RUN_PARAMS; i++) {
+						params[i] = readVarint(in);
+					}
+				}
+				else if(tag == AGENTS || tag == INTERACTIONS || tag == COLLABS) {
+					int ncols = (tag == AGENTS) ? 2 : (tag == INTERACTIONS ? 4 : 3);
+					int n = readVarint(in);
+					for (int i = 0; i < n*ncols; i++) {
+						readVarint(in);
+					}
+					if(tag == COLLABS && params != null) {
+						// last block of a run: everything so far is complete
+						for (String name : new_names) {
+							names.put(name, names.size());
+						}
+						new_names.clear();
+						runs.put(run, params);
+						params = null;
+						keep = in.position();
+					}
+				}
+				else {
+					// END record (or garbage): stop here
+					break;
+				}
+			}
+		}
+		catch (BufferUnderflowException e) {
+			// interrupted write, drop the partial run
+		}
+		return keep;
+	}
+
+	// id of a name, writing a NAME record the first time it is seen
+	private int _nameId(String name) throws IOException {
+		Integer id = names.get(name);
+		if(id != null) {
+			return id;
+		}
+
+		int new_id = names.size();
+		names.put(name, new_id);
+
+		byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+		this._tag(NAME);
+		this._varint(new_id);
+		this._varint(bytes.length);
+		if(bytes.length > buf.remaining()) {
+			this._drain();
+		}
+		if(bytes.length > buf.remaining()) {
+			// longer than the buffer, write it straight through
+			ByteBuffer big = ByteBuffer.wrap(bytes);
+			while (big.hasRemaining()) {
+				channel.write(big);
+			}
+		}
+		else {
+			buf.put(bytes);
+		}
+		return new_id;
+	}
+
+	private void _tag(byte tag) throws IOException {
+		if(!buf.hasRemaining()) {
+			this._drain();
+		}
+		buf.put(tag);
+	}
+
+	private void _varint(int v) throws IOException {
+		if(buf.remaining() < MAX_VARINT) {
+			this._drain();
+		}
+		while ((v & ~0x7F) != 0) {
+			buf.put((byte)((v & 0x7F) | 0x80));
+			v >>>= 7;
+		}
+		buf.put((byte)v);
+	}
+
+	private void _column(int[] col, int n) throws IOException {
+		for (int i = 0; i < n; i++) {
+			this._varint(col[i]);
+		}
+	}
+
+	private void _runColumn(int run, int n) throws IOException {
+		for (int i = 0; i < n; i++) {
+			this._varint(run);
+		}
+	}
+
+	// make sure the column scratch arrays hold at least n rows
+	private void _reserve(int n) {
+		if(n > col_agent.length) {
+			int len = Math.max(n, col_agent.length*2);
+			col_agent = Arrays.copyOf(col_agent, len);
+			col_other = Arrays.copyOf(col_other, len);
+			col_count = Arrays.copyOf(col_count, len);
+		}
+	}
+
+	// write everything buffered so far to the channel
+	private void _drain() throws IOException {
+		buf.flip();
+		while (buf.hasRemaining()) {
+			channel.write(buf);
+		}
+		buf.clear();
+	}
+
+	private void _checkOpen() throws IOException {
+		if(closed) {
+			throw new IOException("BinaryReportSink is closed");
+		}
+	}
+}
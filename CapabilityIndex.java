@@ -0,0 +1,172 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/*
+ *  CapabilityIndex for Agent Based Modeling
+ *  @author Chad Holmes
+ *  
+ *  MIT EM.426 Spring 2021 class
+ *  
+ *  The CapabilityIndex summarizes an Agent's Supplies as bitmasks so that
+ *  matching a Demand against them takes a few bitwise operations. There 
+ *  is one bit per (SupplyType, SupplyQuality) pair. A Supply of type T and 
+ *  quality Q sets the bits for T at every quality up to and including Q, so 
+ *  a requirement "type T of at least quality Q" is a single bit test.
+ *  
+ *  Two masks are kept:
+ *  supply mask = every Supply the Agent holds
+ *  usable mask = only Supplies that Supply.isUsable() would accept
+ *  
+ *  It also lists the positions of the Agent's Supplies by SupplyType (in
+ *  resources order), so finding the Supplies that can do a requirement 
+ *  does not scan all of them.
+ *  
+ *  Supplies invalidate the index when their type, quality, capacity, 
+ *  state, or replenishment changes; the masks are rebuilt lazily.
+ */
+
+public class CapabilityIndex {
+
+	public static final int N_QUALITY = SupplyQuality.values().length;
+	public static final int N_TYPE = SupplyType.values().length;
+	
+	// bit for a single (SupplyType, SupplyQuality) pair
+	public static long bit(SupplyType st, SupplyQuality sq) {
+		return bit(st.ordinal(), sq.ordinal());
+	}
+	
+	// bit for a single (SupplyType, SupplyQuality) pair given as ordinals
+	public static long bit(int st_ord, int sq_ord) {
+		return 1L << (st_ord*N_QUALITY + sq_ord);
+	}
+	
+	// bits for SupplyType st at every quality up to and including sq
+	public static long atLeastBits(SupplyType st, SupplyQuality sq) {
+		return ((1L << (sq.ordinal()+1)) - 1) << (st.ordinal()*N_QUALITY);
+	}
+	
+	// bits for SupplyType st at every quality
+	public static long typeBits(SupplyType st) {
+		return typeBits(st.ordinal());
+	}
+	
+	// bits for a SupplyType given as ordinal at every quality
+	public static long typeBits(int st_ord) {
+		return ((1L << N_QUALITY) - 1) << (st_ord*N_QUALITY);
+	}
+	
+	private ArrayList<Supply> resources;
+	private int n_indexed;
+	private boolean dirty;
+	
+	private long supply_mask;
+	private long usable_mask;
+	
+	// resources positions grouped by type: those of type t are
+	// by_type[type_start[t]] .. by_type[type_start[t+1]-1]
+	private int[] type_start;
+	private int[] by_type;
+	private int[] next_at; // where the next of each type goes (while indexing)
+	
+	// notified whenever the index is invalidated (e.g. by a DemandRouter)
+	private Runnable change_listener;
+	
+	/*
+	 * Constructor
+	 */
+	public CapabilityIndex(ArrayList<Supply> resources) {
+		this.resources = resources;
+		this.type_start = new int[N_TYPE+1];
+		this.by_type = new int[8];
+		this.next_at = new int[N_TYPE];
+		this.invalidate();
+	}
+	
+	// flag masks for rebuild on next use
+	public void invalidate() {
+		this.dirty = true;
+		if(this.change_listener != null) {
+			this.change_listener.run();
+		}
+	}
+	
+	public void setChangeListener(Runnable listener) {
+		this.change_listener = listener;
+	}
+	
+	public long getSupplyMask() {
+		this._refresh();
+		return supply_mask;
+	}
+	
+	public long getUsableMask() {
+		this._refresh();
+		return usable_mask;
+	}
+	
+	// first and (exclusive) last index into positionOf for SupplyType st
+	public int typeStart(SupplyType st) {
+		this._refresh();
+		return type_start[st.ordinal()];
+	}
+	
+	public int typeEnd(SupplyType st) {
+		this._refresh();
+		return type_start[st.ordinal()+1];
+	}
+	
+	// position in resources of the k-th Supply by type
+	public int positionOf(int k) {
+		return by_type[k];
+	}
+	
+	// rebuild masks if a Supply changed or resources were added
+	private void _refresh() {
+		if(!dirty && n_indexed == resources.size()) {
+			return;
+		}
+		
+		// catch supplies added straight to the resources list
+		if(n_indexed != resources.size() && this.change_listener != null) {
+			this.change_listener.run();
+		}
+		
+		supply_mask = 0;
+		usable_mask = 0;
+		for (int i = 0; i < resources.size(); i++) {
+			Supply s = resources.get(i);
+			
+			// ask Supply to report future changes here
+			s.capability = this;
+			
+			long bits = atLeastBits(s.getType(), s.getQuality());
+			supply_mask |= bits;
+			if(s.isUsableWithoutReplenish()) {
+				usable_mask |= bits;
+			}
+		}
+		this._indexTypes();
+		n_indexed = resources.size();
+		dirty = false;
+	}
+	
+	// group resources positions by type (counting sort, keeps resources order)
+	private void _indexTypes() {
+		int n = resources.size();
+		if(by_type.length < n) {
+			by_type = new int[2*n];
+		}
+		Arrays.fill(type_start, 0);
+		for (int i = 0; i < n; i++) {
+			type_start[resources.get(i).getType().ordinal()+1]++;
+		}
+		for (int t = 0; t < N_TYPE; t++) {
+			type_start[t+1] += type_start[t];
+		}
+		System.arraycopy(type_start, 0, next_at, 0, N_TYPE);
+		for (int i = 0; i < n; i++) {
+			int t = resources.get(i).getType().ordinal();
+			by_type[next_at[t]++] = i;
+		}
+	}
+}
@@ -0,0 +1,289 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+
+/*
+ *  CommitArchive for Agent Based Modeling
+ *  @author Chad Holmes
+ *
+ *  MIT EM.426 Spring 2021 class
+ *
+ *  Where Agents put their committed work, instead of each keeping a list
+ *  of every Demand it ever committed.  The archive keeps running totals
+ *  in memory (commits, effort and time spent, commits per DemandType)
+ *  and, if opened on a file, appends one fixed-size record per commit
+ *  to it through a memory-mapped window, so a long run's history costs
+ *  disk rather than heap.  The file can be read back after the run (see
+ *  read, or run this class on a file for a summary).
+ *
+ *  File layout (big-endian):
+ *    header  'E' 'M' 'C' 'A', version byte, 3 reserved bytes,
+ *            number of records (long, kept up to date when the window
+ *            moves on and when the archive is closed)
+ *    record  demand id (2 longs), agent id (2 longs), type and priority
+ *            ordinals (bytes), 2 reserved bytes, demand effort,
+ *            time at start, time at finish (ints)
+ *  The file grows a window at a time, so it can end in unused (zeroed)
+ *  space; readers only go as far as the record count.
+ *
+ *  Agents commit on AgentWorkPool threads but hold their records until
+ *  the simulation hands them over agent by agent (Agent.flushCommits),
+ *  so the file is the same however many threads a run uses.  Methods
+ *  are synchronized so totals can be read from any thread.
+ */
+
+public class CommitArchive {
+
+	static final byte[] MAGIC = { 'E', 'M', 'C', 'A' };
+	static final byte VERSION = 1;
+	static final int HEADER_SIZE = 16;
+	static final int RECORD_SIZE = 48;
+
+	private static final int COUNT_AT = 8;
+	private static final int WINDOW_RECORDS = 1 << 14;
+
+	private static final DemandType[] TYPES = DemandType.values();
+	private static final DemandPriority[] PRIORITIES = DemandPriority.values();
+
+	// called for each record read back from a file
+	public interface IRecordVisitor {
+		void visit(UUID demand, UUID agent, DemandType type, DemandPriority priority,
+				   int effort, int time_at_start, int time_at_finish);
+	}
+
+	// running totals
+	private long n_records;
+	private long total_effort;  // demand effort
+	private long time_spent;    // time at finish - time at start
+	private long[] by_type;     // commits per DemandType
+
+	// spill file (null if the archive is only kept in memory)
+	private Path file;
+	private FileChannel channel;
+	private MappedByteBuffer window;
+	private long n_written;     // records in the file
+
+	/*
+	 * Constructor
+	 */
+	public CommitArchive() {
+		this.by_type = new long[TYPES.length];
+	}
+
+	// start appending records to file (replacing anything in it)
+	public synchronized void open(Path file) throws IOException {
+		this.close();
+		FileChannel ch = FileChannel.open(file,
+										 StandardOpenOption.CREATE,
+										 StandardOpenOption.TRUNCATE_EXISTING,
+										 StandardOpenOption.READ,
+										 StandardOpenOption.WRITE);
+		try {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			header.put(MAGIC);
+			header.put(VERSION);
+			header.position(COUNT_AT);
+			header.putLong(0);
+			header.flip();
+			ch.write(header, 0);
+		}
+		catch (IOException e) {
+			ch.close();
+			throw e;
+		}
+		this.file = file;
+		this.channel = ch;
+		this.window = null;
+		this.n_written = 0;
+	}
+
+	// agent committed d, having worked on it from time_at_start to time_at_finish
+	public synchronized void record(Demand d, Agent a, int time_at_start, int time_at_finish) {
+		n_records++;
+		total_effort += d.getEffort();
+		time_spent += time_at_finish-time_at_start;
+		by_type[d.getType().ordinal()]++;
+
+		if(channel == null) {
+			return;
+		}
+		try {
+			if(window == null || !window.hasRemaining()) {
+				this._nextWindow();
+			}
+			window.putLong(d.getId().getMostSignificantBits());
+			window.putLong(d.getId().getLeastSignificantBits());
+			window.putLong(a.getId().getMostSignificantBits());
+			window.putLong(a.getId().getLeastSignificantBits());
+			window.put((byte)d.getType().ordinal());
+			window.put((byte)d.getPriority().ordinal());
+			window.putShort((short)0);
+			window.putInt(d.getEffort());
+			window.putInt(time_at_start);
+			window.putInt(time_at_finish);
+			n_written++;
+		}
+		catch (IOException e) {
+			// keep the totals, stop spilling
+			SimLog.error(LogCategory.SIM, "Failed to write commit archive {}: {}", file, e.getMessage());
+			this._release();
+		}
+	}
+
+	// write the record count and let go of the file (totals are kept)
+	public synchronized void close() {
+		if(channel == null) {
+			return;
+		}
+		try {
+			this._writeCount();
+		}
+		catch (IOException e) {
+			SimLog.error(LogCategory.SIM, "Failed to close commit archive {}: {}", file, e.getMessage());
+		}
+		this._release();
+	}
+
+	/*
+	 * read the records of an archive file back, in the order written;
+	 * returns the number of records
+	 */
+	public static long read(Path file, IRecordVisitor visitor) throws IOException {
+		try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+			MappedByteBuffer in = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+			try {
+				for (byte b : MAGIC) {
+					if(in.get() != b) {
+						throw new IOException("not a commit archive file");
+					}
+				}
+				if(in.get() != VERSION) {
+					throw new IOException("unsupported commit archive version");
+				}
+				long n = in.getLong(COUNT_AT);
+				if(n < 0 || n > (ch.size()-HEADER_SIZE)/RECORD_SIZE) {
+					throw new IOException("truncated commit archive file");
+				}
+				in.position(HEADER_SIZE);
+				for (long i = 0; i < n; i++) {
+					UUID demand = new UUID(in.getLong(), in.getLong());
+					UUID agent = new UUID(in.getLong(), in.getLong());
+					DemandType type = TYPES[in.get()];
+					DemandPriority priority = PRIORITIES[in.get()];
+					in.getShort();
+					visitor.visit(demand, agent, type, priority, in.getInt(), in.getInt(), in.getInt());
+				}
+				return n;
+			}
+			catch (BufferUnderflowException | ArrayIndexOutOfBoundsException e) {
+				throw new IOException("corrupt commit archive file");
+			}
+		}
+	}
+
+	// print a summary of an archive file
+	public static void main(String args[]) {
+
+		if(args.length != 1) {
+			System.err.println("usage: java CommitArchive commits.emca");
+			System.exit(1);
+		}
+
+		CommitArchive totals = new CommitArchive();
+		try {
+			read(Paths.get(args[0]), (demand, agent, type, priority, effort, start, finish) -> {
+				totals.n_records++;
+				totals.total_effort += effort;
+				totals.time_spent += finish-start;
+				totals.by_type[type.ordinal()]++;
+			});
+		}
+		catch (IOException e) {
+			System.err.println("Failed to read "+args[0]+": "+e.getMessage());
+			System.exit(1);
+		}
+
+		System.out.println("Commits: "+totals.getNumRecords());
+		System.out.println("Effort: "+totals.getTotalEffort());
+		System.out.println("Time spent: "+totals.getTimeSpent());
+		for (DemandType t : TYPES) {
+			System.out.println(t+": "+totals.getNumRecords(t));
+		}
+	}
+
+	/*
+	 * Getters and Setters
+	 */
+	public synchronized long getNumRecords() {
+		return n_records;
+	}
+
+	public synchronized long getNumRecords(DemandType type) {
+		return by_type[type.ordinal()];
+	}
+
+	public synchronized long getTotalEffort() {
+		return total_effort;
+	}
+
+	public synchronized long getTimeSpent() {
+		return time_spent;
+	}
+
+	public synchronized Path getFile() {
+		return file;
+	}
+
+	// totals, as saved by SimCheckpoint (n_records, effort, time, by type...)
+	synchronized long[] getTotals() {
+		long[] t = new long[3+by_type.length];
+		t[0] = n_records;
+		t[1] = total_effort;
+		t[2] = time_spent;
+		System.arraycopy(by_type, 0, t, 3, by_type.length);
+		return t;
+	}
+
+	synchronized void setTotals(long[] t) {
+		n_records = t[0];
+		total_effort = t[1];
+		time_spent = t[2];
+		System.arraycopy(t, 3, by_type, 0, by_type.length);
+	}
+
+	/*
+	 * Helper Functions
+	 */
+	// map the next window of records (after those written so far)
+	private void _nextWindow() throws IOException {
+		if(window != null) {
+			this._writeCount();
+		}
+		long at = HEADER_SIZE+n_written*RECORD_SIZE;
+		window = channel.map(FileChannel.MapMode.READ_WRITE, at, (long)WINDOW_RECORDS*RECORD_SIZE);
+	}
+
+	private void _writeCount() throws IOException {
+		ByteBuffer count = ByteBuffer.allocate(Long.BYTES);
+		count.putLong(n_written);
+		count.flip();
+		channel.write(count, COUNT_AT);
+	}
+
+	private void _release() {
+		try {
+			channel.close();
+		}
+		catch (IOException e) {
+			// nothing left to do with it
+		}
+		channel = null;
+		window = null;
+	}
+}
@@ -0,0 +1,103 @@
+import java.util.Arrays;
+
+/*
+ *  CommitQueue for Agent Based Modeling
+ *  @author Chad Holmes
+ *
+ *  MIT EM.426 Spring 2021 class
+ *
+ *  An Agent's completed (not yet committed) Demands ordered by the time
+ *  they finished, so committing up to a time only looks at the Demands
+ *  that commit (plus one) instead of the whole completed task list.  A
+ *  binary min-heap on (finish time, order added) packed into a long, so
+ *  Demands finishing at the same time come out in the order they went in.
+ *
+ *  Entries are not removed when a Demand is rolled back; the Agent checks
+ *  each one it polls against its completed task list and ledger.
+ */
+
+public class CommitQueue {
+
+	private long[] keys;      // (finish time, order added)
+	private Demand[] demands;
+	private int size;
+	private int n_added;
+
+	/*
+	 * Constructor
+	 */
+	public CommitQueue() {
+		this.keys = new long[16];
+		this.demands = new Demand[16];
+		this.size = 0;
+		this.n_added = 0;
+	}
+
+	// queue a Demand that finished at time_at_finish
+	public void add(Demand d, int time_at_finish) {
+		if(size == keys.length) {
+			keys = Arrays.copyOf(keys, 2*size);
+			demands = Arrays.copyOf(demands, 2*size);
+		}
+		long key = ((long)time_at_finish << 32) | (n_added++ & 0xFFFFFFFFL);
+		int i = size++;
+		while (i > 0) {
+			int parent = (i-1) >>> 1;
+			if(keys[parent] <= key) {
+				break;
+			}
+			keys[i] = keys[parent];
+			demands[i] = demands[parent];
+			i = parent;
+		}
+		keys[i] = key;
+		demands[i] = d;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	// finish time of the first Demand (queue must not be empty)
+	public int peekFinish() {
+		return (int)(keys[0] >> 32);
+	}
+
+	// remove and return the first Demand
+	public Demand poll() {
+		Demand first = demands[0];
+		long key = keys[--size];
+		Demand d = demands[size];
+		demands[size] = null;
+
+		int i = 0;
+		int half = size >>> 1;
+		while (i < half) {
+			int child = 2*i+1;
+			if(child+1 < size && keys[child+1] < keys[child]) {
+				child++;
+			}
+			if(key <= keys[child]) {
+				break;
+			}
+			keys[i] = keys[child];
+			demands[i] = demands[child];
+			i = child;
+		}
+		if(size > 0) {
+			keys[i] = key;
+			demands[i] = d;
+		}
+		return first;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public void clear() {
+		Arrays.fill(demands, 0, size, null);
+		size = 0;
+		n_added = 0;
+	}
+}
@@ -0,0 +1,196 @@
+import java.util.Arrays;
+import java.util.UUID;
+
+/*
+ *  CommittedLedger for Agent Based Modeling
+ *  @author Chad Holmes
+ *
+ *  MIT EM.426 Spring 2021 class
+ *
+ *  Compact form of an Agent's ledger entries for committed Demands.
+ *  Once committed, a Demand can no longer be rolled back, so all that is
+ *  left to look up is when it was started and finished.  Instead of a
+ *  LedgerEntry in a Hashtable, each one is folded into parallel
+ *  primitive arrays: an open-addressing hash table (linear probing) on
+ *  the two halves of the Demand's UUID, with the start and finish
+ *  times alongside.  The live ledger then only holds work that can still
+ *  be rolled back.
+ */
+
+public class CommittedLedger {
+
+	// slot states
+	private static final byte EMPTY = 0;
+	private static final byte USED = 1;
+	private static final byte REMOVED = 2;
+
+	private long[] msb;
+	private long[] lsb;
+	private int[] start;
+	private int[] finish;
+	private byte[] slots;
+	private int size;    // USED slots
+	private int n_taken; // USED or REMOVED slots
+
+	/*
+	 * Constructor
+	 */
+	public CommittedLedger() {
+		this._allocate(64);
+	}
+
+	// add (or replace) the times of a committed demand
+	public void add(UUID id, int time_at_start, int time_at_finish) {
+		int i = this._find(id);
+		if(i < 0) {
+			if(2*(n_taken+1) > slots.length) {
+				this._rehash(size+1 > slots.length/4 ? 2*slots.length : slots.length);
+			}
+			i = this._insertAt(id);
+		}
+		start[i] = time_at_start;
+		finish[i] = time_at_finish;
+	}
+
+	// forget a demand (e.g. it is in the live ledger again)
+	public void remove(UUID id) {
+		int i = this._find(id);
+		if(i >= 0) {
+			slots[i] = REMOVED;
+			size--;
+		}
+	}
+
+	public boolean contains(UUID id) {
+		return this._find(id) >= 0;
+	}
+
+	// times of a demand, or dflt if it is not here
+	public int getTimeAtStart(UUID id, int dflt) {
+		int i = this._find(id);
+		return i < 0 ? dflt : start[i];
+	}
+
+	public int getTimeAtFinish(UUID id, int dflt) {
+		int i = this._find(id);
+		return i < 0 ? dflt : finish[i];
+	}
+
+	public int getEffort(UUID id) {
+		int i = this._find(id);
+		return i < 0 ? 0 : finish[i]-start[i];
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public void clear() {
+		if(n_taken > 0) {
+			Arrays.fill(slots, EMPTY);
+			size = 0;
+			n_taken = 0;
+		}
+	}
+
+	// raw slot access for SimCheckpoint
+	int capacity() {
+		return slots.length;
+	}
+	
+	boolean isUsed(int slot) {
+		return slots[slot] == USED;
+	}
+	
+	UUID idAt(int slot) {
+		return new UUID(msb[slot], lsb[slot]);
+	}
+	
+	int startAt(int slot) {
+		return start[slot];
+	}
+	
+	int finishAt(int slot) {
+		return finish[slot];
+	}
+
+	/*
+	 * Helper Functions
+	 */
+	private void _allocate(int capacity) {
+		msb = new long[capacity];
+		lsb = new long[capacity];
+		start = new int[capacity];
+		finish = new int[capacity];
+		slots = new byte[capacity];
+		size = 0;
+		n_taken = 0;
+	}
+
+	private static int _hash(long hi, long lo) {
+		long h = hi ^ lo;
+		h ^= (h >>> 32);
+		h *= 0x9E3779B97F4A7C15L;
+		return (int)(h >>> 32);
+	}
+
+	// slot holding id, or -1
+	private int _find(UUID id) {
+		long hi = id.getMostSignificantBits();
+		long lo = id.getLeastSignificantBits();
+		int mask = slots.length-1;
+		for (int i = _hash(hi, lo) & mask; slots[i] != EMPTY; i = (i+1) & mask) {
+			if(slots[i] == USED && msb[i] == hi && lsb[i] == lo) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	// first free slot for id (id is known not to be here)
+	private int _insertAt(UUID id) {
+		long hi = id.getMostSignificantBits();
+		long lo = id.getLeastSignificantBits();
+		int mask = slots.length-1;
+		int i = _hash(hi, lo) & mask;
+		while (slots[i] == USED) {
+			i = (i+1) & mask;
+		}
+		if(slots[i] == EMPTY) {
+			n_taken++;
+		}
+		slots[i] = USED;
+		msb[i] = hi;
+		lsb[i] = lo;
+		size++;
+		return i;
+	}
+
+	// re-insert USED entries into new arrays (dropping REMOVED ones)
+	private void _rehash(int capacity) {
+		long[] o_msb = msb;
+		long[] o_lsb = lsb;
+		int[] o_start = start;
+		int[] o_finish = finish;
+		byte[] o_slots = slots;
+
+		this._allocate(capacity);
+		int mask = capacity-1;
+		for (int j = 0; j < o_slots.length; j++) {
+			if(o_slots[j] != USED) {
+				continue;
+			}
+			int i = _hash(o_msb[j], o_lsb[j]) & mask;
+			while (slots[i] != EMPTY) {
+				i = (i+1) & mask;
+			}
+			slots[i] = USED;
+			msb[i] = o_msb[j];
+			lsb[i] = o_lsb[j];
+			start[i] = o_start[j];
+			finish[i] = o_finish[j];
+			size++;
+			n_taken++;
+		}
+	}
+}
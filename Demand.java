@@ -1,16 +1,9 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.time.*; 
 import java.util.*;
 //import java.util.logging.Logger;
 
-import javafx.beans.property.BooleanProperty;
-import javafx.beans.property.IntegerProperty;
-import javafx.beans.property.ObjectProperty;
-import javafx.beans.property.SimpleBooleanProperty;
-import javafx.beans.property.SimpleIntegerProperty;
-import javafx.beans.property.SimpleObjectProperty;
-import javafx.beans.property.SimpleStringProperty;
-import javafx.beans.property.StringProperty;
-
 /*
  *  Demand Class for Agent Based Modeling
  *  @author Chad Holmes
@@ -26,6 +19,13 @@ import javafx.beans.property.StringProperty;
  *  
  *  Demand can have a creator if generated by an Agent
  *  
+ *  Attributes are plain fields (enums stored by ordinal); wrap a Demand
+ *  in an ObservableDemand when a UI needs to bind to it
+ *  
+ *  Agents take a Demand on with claim(), an atomic compare-and-set of 
+ *  the state from QUEUED or INCOMPLETE to ACTIVE, so of any number of 
+ *  agents trying at once exactly one gets it
+ *  
  */
 public class Demand implements IDemand {
 	private static final double COLLAB_FACTOR = 0.1;
@@ -36,6 +36,11 @@ public class Demand implements IDemand {
 	private static final int DEFAULT_EVERY = -1;
 	private static final int DEFAULT_UNTIL = -1;
 	
+	// cached enum values (values() clones on every call)
+	private static final DemandPriority[] PRIORITIES = DemandPriority.values();
+	private static final DemandType[] TYPES = DemandType.values();
+	private static final DemandState[] STATES = DemandState.values();
+	
 	/* 
 	 * Collaboration Demand factory
 	 */
@@ -153,7 +158,7 @@ public class Demand implements IDemand {
 		
 		this.ancillaryDemand = Optional.empty();
 		this.creator = Optional.empty();
-		this.partial = new Hashtable<SupplyType,Integer>();
+		this.partial = Demand.newPartial();
 	}
 	
 	// replicate a demand
@@ -180,26 +185,50 @@ public class Demand implements IDemand {
 	public UUID id; // universal unique id
 	
 	// human-readable identifier
-	private final StringProperty name = new SimpleStringProperty();
-	
-	// sets a priority level to the demand
-	private final ObjectProperty<DemandPriority> priority = new SimpleObjectProperty<DemandPriority>();
-	
-	// assigns a "type" to demand based on DemandType enumerated list
-	private final ObjectProperty<DemandType> type = new SimpleObjectProperty<DemandType>();
-	
-	// current status of demand based on enum DemandState
-	private final ObjectProperty<DemandState> state = new SimpleObjectProperty<DemandState>(); 
+	private String name;
+	
+	// sets a priority level to the demand (DemandPriority ordinal)
+	private byte priority;
+	
+	// assigns a "type" to demand based on DemandType enumerated list (ordinal)
+	private byte type;
+	
+	// current status of demand based on enum DemandState (ordinal),
+	// volatile and changed through STATE so claim() can compare-and-set
+	private volatile byte state; 
+	private static final VarHandle STATE;
+	
+	// number of Agent completed task list entries holding this demand, and
+	// of Agents that committed it (kept by ProgressCounters, possibly from
+	// several threads)
+	private volatile int completed_refs;
+	private volatile int committed_refs;
+	private static final VarHandle COMPLETED_REFS;
+	private static final VarHandle COMMITTED_REFS;
+	static {
+		try {
+			MethodHandles.Lookup lookup = MethodHandles.lookup();
+			STATE = lookup.findVarHandle(Demand.class, "state", byte.class);
+			COMPLETED_REFS = lookup.findVarHandle(Demand.class, "completed_refs", int.class);
+			COMMITTED_REFS = lookup.findVarHandle(Demand.class, "committed_refs", int.class);
+		}
+		catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+	private static final byte QUEUED = (byte)DemandState.QUEUED.ordinal();
+	private static final byte INCOMPLETE = (byte)DemandState.INCOMPLETE.ordinal();
+	private static final byte ACTIVE = (byte)DemandState.ACTIVE.ordinal();
 	
 	// demand time requirements (in hours)  
-	private final IntegerProperty effort = new SimpleIntegerProperty();  
+	private int effort;  
 	
 	// variables to manage recurring demands
-	private final IntegerProperty start = new SimpleIntegerProperty();
-	private final IntegerProperty stop  = new SimpleIntegerProperty();
-	private final BooleanProperty recur = new SimpleBooleanProperty();
-	private final IntegerProperty every = new SimpleIntegerProperty();
-	private final IntegerProperty until = new SimpleIntegerProperty();
+	private int start;
+	private int stop;
+	private boolean recur;
+	private int every;
+	private int until;
 	
 	// key milestone time stamps
 	private LocalDate startdate;
@@ -211,8 +240,18 @@ public class Demand implements IDemand {
 	// capture agent who created demand (if any)
 	public Optional<Agent> creator;
 	
-	// manage partial completeness of Demand 
-	public Hashtable<SupplyType,Integer> partial;
+	// manage partial completeness of Demand: effort put in per SupplyType
+	// (by ordinal, NO_WORK if none), shared with its collaboration Demand
+	public int[] partial;
+	public static final int NO_WORK = -1;
+	
+	// DemandList holding this Demand (if any), position within it, and the
+	// state and type partitions it is listed under (changed by the list
+	// only, under its lock; see DemandList.stateChanged)
+	DemandList owner;
+	int listIndex = -1;
+	byte listed_state;
+	byte listed_type;
 	
 	/* 
 	 * Getters and Setters	
@@ -222,25 +261,46 @@ public class Demand implements IDemand {
 	public void setId(UUID id) { this.id = id; }
 	
 	// NAME -----------------------------------
-	public StringProperty nameProperty() { return name; }
-	public String getName() { return name.get(); }
-	public void setName(String name) { this.name.set(name); }
+	public String getName() { return name; }
+	public void setName(String name) { this.name = name; }
 	
 	// PRIORITY -------------------------------
-	public ObjectProperty<DemandPriority> priorityProperty() { return priority; }
-	public DemandPriority getPriority() { return priority.get(); }
-	public void setPriority(DemandPriority priority) { this.priority.set(priority); }
+	public DemandPriority getPriority() { return PRIORITIES[priority]; }
+	public void setPriority(DemandPriority priority) { this.priority = (byte)priority.ordinal(); }
 	
 	// TYPE -----------------------------------
-	public ObjectProperty<DemandType> typeProperty() { return type; }	
-	public DemandType getType() { return type.get(); }
-	public void setType(DemandType type) { this.type.set(type); }
+	public DemandType getType() { return TYPES[type]; }
+	public void setType(DemandType type) {
+		if(owner != null) {
+			owner.checkWritable();
+		}
+		DemandType oldtype = TYPES[this.type];
+		this.type = (byte)type.ordinal();
+		
+		if(owner != null && oldtype != type) {
+			owner.typeChanged(this);
+		}
+	}
 	
 	// STATE ----------------------------------
-	public ObjectProperty<DemandState> stateProperty() { return state; }
-	public DemandState getState() { return state.get(); }
+	public DemandState getState() { return STATES[state]; }
 	public void setState(DemandState state) {
-		this.state.set(state);
+		
+		if(owner != null) {
+			owner.checkWritable();
+		}
+		
+		// swap in one atomic step, so a claim() at the same time is not lost
+		byte next = (byte)state.ordinal();
+		byte s;
+		do {
+			s = this.state;
+		} while (!STATE.compareAndSet(this, s, next));
+		
+		// keep demand list partitions current
+		if(owner != null && s != next) {
+			owner.stateChanged(this);
+		}
 		
 		// update dates at milestones
 		if(state == DemandState.COMPLETE) {
@@ -252,35 +312,29 @@ public class Demand implements IDemand {
 	}
 
 	// EFFORT ---------------------------------
-	public IntegerProperty effortProperty() { return effort; }
-	public int getEffort() {return effort.get(); }
-	public void setEffort(int effort) { this.effort.set(effort); }
+	public int getEffort() {return effort; }
+	public void setEffort(int effort) { this.effort = effort; }
 	
 	// START ----------------------------------
-	public IntegerProperty startProperty() { return start; }
-	public int getStart() { return start.get(); }
-	public void setStart(int start) { this.start.set(start); }
+	public int getStart() { return start; }
+	public void setStart(int start) { this.start = start; }
 	
 	// STOP -----------------------------------
-	public IntegerProperty stopProperty()  { return stop; }
-	public int getStop() { return stop.get(); }
-	public void setStop(int stop) { this.stop.set(stop); }
+	public int getStop() { return stop; }
+	public void setStop(int stop) { this.stop = stop; }
 	
 	// RECUR ----------------------------------
-	public BooleanProperty recurProperty() { return recur; }
-	public boolean getRecur() { return recur.get(); }
-	public void setRecur(boolean isRecurring) { this.recur.set(isRecurring); }
-	public boolean isRecur() { return recur.get(); }
+	public boolean getRecur() { return recur; }
+	public void setRecur(boolean isRecurring) { this.recur = isRecurring; }
+	public boolean isRecur() { return recur; }
 		
 	// EVERY ----------------------------------
-	public IntegerProperty everyProperty() { return every; }
-	public int getEvery() { return every.get(); }
-	public void setEvery(int every) { this.every.set(every); }
+	public int getEvery() { return every; }
+	public void setEvery(int every) { this.every = every; }
 
 	// UNTIL ----------------------------------
-	public IntegerProperty untilProperty() { return until; }
-	public int getUntil() { return until.get(); }
-	public void setUntil(int until) { this.until.set(until); }
+	public int getUntil() { return until; }
+	public void setUntil(int until) { this.until = until; }
 	
 	// STARTDATE ------------------------------
 	public LocalDate getStartdate() { return startdate; }
@@ -297,19 +351,30 @@ public class Demand implements IDemand {
 	public void setCreator(Agent a) { this.creator = Optional.of(a); }
 	
 	// PARTIAL --------------------------------
-	public Hashtable<SupplyType, Integer> getPartial() { return partial; }
-	public void setPartial(Hashtable<SupplyType, Integer> partial) { this.partial = partial; }
+	public int[] getPartial() { return partial; }
+	public void setPartial(int[] partial) { this.partial = partial; }
+	public boolean hasPartial(SupplyType st) { return partial[st.ordinal()] != NO_WORK; }
+	public int getPartialEffort(SupplyType st) { return Math.max(0, partial[st.ordinal()]); }
+	public void setPartialEffort(SupplyType st, int effort) { partial[st.ordinal()] = effort; }
+	public void clearPartial() { Arrays.fill(partial, NO_WORK); }
+	
+	// empty partial table
+	public static int[] newPartial() {
+		int[] p = new int[SupplyType.values().length];
+		Arrays.fill(p, NO_WORK);
+		return p;
+	}
 
 	/*
 	 *  Convenience Functions
 	 */
 	public double getEffortHrs() { 
 		// return effort in hours
-		return this.effort.get()/(60*60); 
+		return this.effort/(60*60); 
 	}
 	public void setEffortHrs(double _effort) { 
 		// set effort in hours as seconds
-		this.effort.set((int)(_effort*60*60)); 
+		this.effort = (int)(_effort*60*60); 
 	}
 	
 	// convenience functions for setting state
@@ -319,9 +384,45 @@ public class Demand implements IDemand {
 	public void setActive() {
 		this.setState(DemandState.ACTIVE);
 	}
+	
+	// take the demand on: QUEUED or INCOMPLETE -> ACTIVE in one atomic step,
+	// false if it is not open (e.g. another agent claimed it first)
+	public boolean claim() {
+		if(owner != null) {
+			owner.checkWritable();
+		}
+		while (true) {
+			byte s = this.state;
+			if(s != QUEUED && s != INCOMPLETE) {
+				return false;
+			}
+			if(STATE.compareAndSet(this, s, ACTIVE)) {
+				// same bookkeeping as setActive()
+				if(owner != null) {
+					owner.stateChanged(this);
+				}
+				this.setStartdate(LocalDate.now());
+				return true;
+			}
+		}
+	}
 	public void setComplete() {
 		this.setState(DemandState.COMPLETE);
 	}	
+	
+	// change the completed / committed entry counts, returning the new count
+	int addCompletedRefs(int delta) {
+		return (int)COMPLETED_REFS.getAndAdd(this, delta)+delta;
+	}
+	int addCommittedRefs(int delta) {
+		return (int)COMMITTED_REFS.getAndAdd(this, delta)+delta;
+	}
+	void clearCompletedRefs() {
+		this.completed_refs = 0;
+	}
+	int getCommittedRefs() {
+		return this.committed_refs;
+	}
 	public void setPartial() {
 		this.setState(DemandState.PARTIAL);
 	}
@@ -353,15 +454,15 @@ public class Demand implements IDemand {
 	// print all components of demand
 	public String toStringFull() { 
 		 return "Demand [\n id=" + id +
-				 ", \n name=" + name + ", \n priority=" + priority + ", \n type=" + type +
-				 ", \n state=" + state + ", \n effort=" + effort + ", \n start=" + start +
+				 ", \n name=" + name + ", \n priority=" + getPriority() + ", \n type=" + getType() +
+				 ", \n state=" + getState() + ", \n effort=" + effort + ", \n start=" + start +
 				 ", \n stop=" + stop + ", \n recur=" + recur + ", \n every=" + every +
 				 ", \n until=" + until + ", \n startdate=" + startdate + ", \n completedate="
 				 + completedate + "\n]\n"; }
 	 
 	@Override
 	public String toString() {
-		return "Demand [name=" + name.get() + ", priority=" + priority.get() + ", type=" + type.get() + ", effort=" + effort.get() + "]";
+		return "Demand [name=" + name + ", priority=" + getPriority() + ", type=" + getType() + ", effort=" + effort + "]";
 	}	
 
 	/*
@@ -0,0 +1,163 @@
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/*
+ *  DemandBacklog for Agent Based Modeling
+ *  @author Chad Holmes
+ *  
+ *  MIT EM.426 Spring 2021 class
+ *  
+ *  The DemandBacklog holds the Demands an Agent has yet to perform, kept in
+ *  priority order (highest priority first). Each DemandPriority has its own
+ *  bucket, and Demands within a bucket stay in the order they were added.
+ *  A hash index from Demand to its position gives O(1) membership checks
+ *  and O(1) removal, so the backlog never needs re-sorting.
+ *  
+ *  Walking the backlog is done with first() and next(d), which stay valid
+ *  while other Demands are added to or removed from the backlog.
+ */
+
+public class DemandBacklog implements Iterable<Demand> {
+
+	// doubly-linked list node within a priority bucket
+	private static class Node {
+		Demand demand;
+		Node prev;
+		Node next;
+		
+		Node(Demand d) {
+			this.demand = d;
+		}
+	}
+	
+	// bucket heads and tails, indexed by DemandPriority ordinal
+	private Node[] heads;
+	private Node[] tails;
+	
+	// look-up from Demand to its node
+	private HashMap<Demand, Node> index;
+	
+	/*
+	 * Constructor
+	 */
+	public DemandBacklog() {
+		heads = new Node[DemandPriority.values().length];
+		tails = new Node[DemandPriority.values().length];
+		index = new HashMap<Demand, Node>();
+	}
+	
+	/*
+	 * Convenience Functions
+	 */
+	// add Demand to the end of its priority bucket (ignored if already present)
+	public boolean add(Demand d) {
+		if(index.containsKey(d)) {
+			return false;
+		}
+		
+		Node n = new Node(d);
+		int p = d.getPriority().ordinal();
+		if(tails[p] == null) {
+			heads[p] = n;
+		}
+		else {
+			tails[p].next = n;
+			n.prev = tails[p];
+		}
+		tails[p] = n;
+		index.put(d, n);
+		return true;
+	}
+	
+	public boolean remove(Demand d) {
+		Node n = index.remove(d);
+		if(n == null) {
+			return false;
+		}
+		
+		int p = d.getPriority().ordinal();
+		if(n.prev == null) {
+			heads[p] = n.next;
+		}
+		else {
+			n.prev.next = n.next;
+		}
+		if(n.next == null) {
+			tails[p] = n.prev;
+		}
+		else {
+			n.next.prev = n.prev;
+		}
+		return true;
+	}
+	
+	public boolean contains(Demand d) {
+		return index.containsKey(d);
+	}
+	
+	public int size() {
+		return index.size();
+	}
+	
+	public boolean isEmpty() {
+		return index.isEmpty();
+	}
+	
+	public void clear() {
+		for (int p = 0; p < heads.length; p++) {
+			heads[p] = null;
+			tails[p] = null;
+		}
+		index.clear();
+	}
+	
+	// highest priority Demand (null if backlog is empty)
+	public Demand first() {
+		return firstBelow(heads.length);
+	}
+	
+	// Demand following d in priority order (null if d is last or not in backlog)
+	public Demand next(Demand d) {
+		Node n = index.get(d);
+		if(n == null) {
+			return null;
+		}
+		if(n.next != null) {
+			return n.next.demand;
+		}
+		return firstBelow(d.getPriority().ordinal());
+	}
+	
+	// helper function to find the first Demand in a bucket below priority ordinal p
+	private Demand firstBelow(int p) {
+		for (int b = p-1; b >= 0; b--) {
+			if(heads[b] != null) {
+				return heads[b].demand;
+			}
+		}
+		return null;
+	}
+	
+	/* 
+	 * implement Iterable (priority order)
+	 */
+	public Iterator<Demand> iterator() {
+		return new Iterator<Demand>() {
+			private Demand cursor = first();
+			
+			public boolean hasNext() {
+				return cursor != null;
+			}
+			
+			public Demand next() {
+				if(cursor == null) {
+					throw new NoSuchElementException();
+				}
+				Demand d = cursor;
+				cursor = DemandBacklog.this.next(d);
+				return d;
+			}
+		};
+	}
+}
@@ -1,46 +1,110 @@
-import java.beans.PropertyChangeListener;
-import java.beans.PropertyChangeSupport;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
 //import java.util.Collections;
 //import java.util.Comparator;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.UUID;
 
 public class DemandList implements Iterable<Demand> {
 
 	private ArrayList<Demand> demand_list;
-	private PropertyChangeSupport support;
+	private SimEventBus bus;
 	private SupplyDemandDictionary sd_dict; // map between demands and supplies
+	private SupplyDemandTable sd_table;     // compiled sd_dict, built on first use
+	
+	// look-up from UUID to Demand
+	private HashMap<UUID, Demand> id_index;
+	
+	// live partitions by [DemandState][DemandType]: bit i is set when 
+	// demand_list.get(i) is in that state and of that type
+	// 
+	// Changes to the list and partitions are synchronized (demands can 
+	// change state on several threads).  Reads are not: the partition 
+	// views and counts must not be read while demands change on another 
+	// thread.  The simulation keeps the list read-only while agents work 
+	// side by side (see setReadOnly and AgentWorkPool), and any change 
+	// made meanwhile throws an IllegalStateException.
+	private BitSet[][] partitions;
+	private int[] state_counts;
+	private volatile boolean read_only;
 
 	/* 
 	 * Constructors
 	 */
 	public DemandList() {
 		demand_list = new ArrayList<Demand>();
-		support = new PropertyChangeSupport(this);
+		bus = new SimEventBus();
 		sd_dict = new SupplyDemandDictionary();
+		id_index = new HashMap<UUID, Demand>();
+		partitions = new BitSet[DemandState.values().length][DemandType.values().length];
+		for (int s = 0; s < partitions.length; s++) {
+			for (int t = 0; t < partitions[s].length; t++) {
+				partitions[s][t] = new BitSet();
+			}
+		}
+		state_counts = new int[DemandState.values().length];
 	}
 	
 	/*
 	 * Convenience Functions
 	 */
-	public void addDemand(Demand d) {
+	public synchronized void addDemand(Demand d) {
+		this.checkWritable();
+		d.owner = this;
+		d.listIndex = getDemandlist().size();
+		d.listed_state = (byte)d.getState().ordinal();
+		d.listed_type = (byte)d.getType().ordinal();
 		getDemandlist().add(d);
+		id_index.put(d.getId(), d);
+		partitions[d.listed_state][d.listed_type].set(d.listIndex);
+		state_counts[d.listed_state]++;
 	}
 	
 	public void addIfUnseen(Demand d) {
-		if(!getDemandlist().contains(d)) {
+		if(!this.contains(d)) {
 			addDemand(d);
 		}
 	}
 	
+	public boolean contains(Demand d) {
+		return id_index.get(d.getId()) == d;
+	}
+	
+	public Demand getDemand(UUID id) {
+		return id_index.get(id);
+	}
+	
 	public void reset() {
+		this._clearDemands();
+		this.setEventBus(new SimEventBus());
+	}
+	
+	// helper function to drop all demands and partitions
+	private synchronized void _clearDemands() {
+		this.checkWritable();
+		for (Demand d : this.getDemandlist()) {
+			d.owner = null;
+		}
 		this.getDemandlist().clear();
-		this.setSupport(new PropertyChangeSupport(this));
+		this.id_index.clear();
+		for (int s = 0; s < partitions.length; s++) {
+			for (int t = 0; t < partitions[s].length; t++) {
+				partitions[s][t].clear();
+			}
+			state_counts[s] = 0;
+		}
 	}
 
 	public int getDemandCount() {
 		return this.getDemandlist().size();
 	}
+	
+	// number of demands currently in a given state
+	public int getStateCount(DemandState s) {
+		return state_counts[s.ordinal()];
+	}
 
 	public void addSupplyDemandPair(DemandType dt, SupplyType st) {
 		addSupplyDemandPair(dt, st, SupplyQuality.LOW);
@@ -48,10 +112,130 @@ public class DemandList implements Iterable<Demand> {
 	
 	public void addSupplyDemandPair(DemandType dt, SupplyType st, SupplyQuality sq) {
 		sd_dict.addSupplyDemand(dt, st, sq);
+		sd_table = null;
 	}
 	
 	public void printSupplyDemandMap() {
-		System.out.println(sd_dict.toString());
+		SimLog.info(LogCategory.SIM, "{}", sd_dict);
+	}
+	
+	/*
+	 * Partition maintenance (called by Demand after state/type transitions)
+	 * 
+	 * Each moves d from the partition it is listed under to the one for 
+	 * its current state and type, so when two transitions of d race the 
+	 * one that gets here last leaves d where it belongs.
+	 */
+	synchronized void stateChanged(Demand d) {
+		this.checkWritable();
+		int now = d.getState().ordinal();
+		int was = d.listed_state;
+		if(now == was) {
+			return;
+		}
+		partitions[was][d.listed_type].clear(d.listIndex);
+		partitions[now][d.listed_type].set(d.listIndex);
+		state_counts[was]--;
+		state_counts[now]++;
+		d.listed_state = (byte)now;
+	}
+	
+	synchronized void typeChanged(Demand d) {
+		this.checkWritable();
+		int now = d.getType().ordinal();
+		int was = d.listed_type;
+		if(now == was) {
+			return;
+		}
+		partitions[d.listed_state][was].clear(d.listIndex);
+		partitions[d.listed_state][now].set(d.listIndex);
+		d.listed_type = (byte)now;
+	}
+	
+	// while read-only (agents working side by side), demands may not be 
+	// added, removed or change state or type
+	public void setReadOnly(boolean read_only) {
+		this.read_only = read_only;
+	}
+	
+	public boolean isReadOnly() {
+		return read_only;
+	}
+	
+	// (Demand checks before it changes, so a rejected change never happens)
+	void checkWritable() {
+		if(read_only) {
+			throw new IllegalStateException("DemandList changed while read-only");
+		}
+	}
+	
+	/*
+	 * Partition views (insertion order, not synchronized: see partitions)
+	 */
+	// demands available for an agent to pick up (QUEUED or INCOMPLETE)
+	public Iterable<Demand> getOpenDemands() {
+		return getDemands(new DemandState[] {DemandState.QUEUED, DemandState.INCOMPLETE}, 
+						  DemandType.values());
+	}
+	
+	public Iterable<Demand> getOpenDemands(DemandType dt) {
+		return getDemands(new DemandState[] {DemandState.QUEUED, DemandState.INCOMPLETE}, 
+						  new DemandType[] {dt});
+	}
+	
+	// open demands of any of several types, still in insertion order
+	public Iterable<Demand> getOpenDemands(DemandType[] types) {
+		return getDemands(new DemandState[] {DemandState.QUEUED, DemandState.INCOMPLETE}, types);
+	}
+	
+	public Iterable<Demand> getDemands(DemandState s) {
+		return getDemands(new DemandState[] {s}, DemandType.values());
+	}
+	
+	public Iterable<Demand> getDemands(DemandState[] states, DemandType[] types) {
+		BitSet[] sets = new BitSet[states.length*types.length];
+		int k = 0;
+		for (DemandState s : states) {
+			for (DemandType t : types) {
+				sets[k++] = partitions[s.ordinal()][t.ordinal()];
+			}
+		}
+		return () -> new PartitionIterator(sets);
+	}
+	
+	// walks the union of several partitions in insertion order
+	private class PartitionIterator implements Iterator<Demand> {
+		private BitSet[] sets;
+		private int next;
+		
+		PartitionIterator(BitSet[] sets) {
+			this.sets = sets;
+			this.next = nextIndex(0);
+		}
+		
+		private int nextIndex(int from) {
+			int min = -1;
+			for (BitSet b : sets) {
+				int i = b.nextSetBit(from);
+				if(i >= 0 && (min < 0 || i < min)) {
+					min = i;
+				}
+			}
+			return min;
+		}
+		
+		public boolean hasNext() {
+			return next >= 0;
+		}
+		
+		public Demand next() {
+			if(next < 0) {
+				throw new NoSuchElementException();
+			}
+			Demand d = demand_list.get(next);
+			next = nextIndex(next+1);
+			return d;
+		}
 	}
 	
 	/*
@@ -62,31 +246,32 @@ public class DemandList implements Iterable<Demand> {
 	}
 
 	public void setDemandlist(ArrayList<Demand> demand_list) {
-		this.demand_list = demand_list;
+		ArrayList<Demand> newlist = new ArrayList<Demand>(demand_list);
+		this._clearDemands();
+		for (Demand d : newlist) {
+			this.addDemand(d);
+		}
 	}
 	
 	public SupplyDemandDictionary getSupplyDemandDict() {
 		return sd_dict;
 	}
-
-	public PropertyChangeSupport getSupport() {
-		return support;
+	
+	// immutable compiled form of the dictionary, rebuilt only after a new pair is added
+	public SupplyDemandTable getSupplyDemandTable() {
+		if(sd_table == null) {
+			sd_table = sd_dict.compile();
+		}
+		return sd_table;
 	}
 
-	public void setSupport(PropertyChangeSupport support) {
-		this.support = support;
+	public SimEventBus getEventBus() {
+		return bus;
 	}
-	
-    /* 
-     * PropertyChangeListener Functions
-     */
-    public void addPropertyChangeListener(PropertyChangeListener pcl) {
-        support.addPropertyChangeListener(pcl);
-    }
 
-    public void removePropertyChangeListener(PropertyChangeListener pcl) {
-        support.removePropertyChangeListener(pcl);
-    }
+	public void setEventBus(SimEventBus bus) {
+		this.bus = bus;
+	}
 	
     /* 
      * implement Iterable
@@ -105,12 +290,12 @@ public class DemandList implements Iterable<Demand> {
     	
     	// add demand to the demand list
     	d.setQueued();
-        this.demand_list.add(d);
+        this.addDemand(d);
     	
     	// signal the demand list has changed
         if(alert_agents) {
-        	System.out.println("***DemandList triggering a new demand notification***");
-        	support.firePropertyChange("newdemand", this, d);
+        	SimLog.trace(LogCategory.DEMAND, "***DemandList triggering a new demand notification***");
+        	bus.fire(SimEventType.NEW_DEMAND, d);
         }
     }
 }
@@ -0,0 +1,159 @@
+import java.util.ArrayList;
+
+/*
+ *  DemandRouter for Agent Based Modeling
+ *  @author Chad Holmes
+ *  
+ *  MIT EM.426 Spring 2021 class
+ *  
+ *  The DemandRouter sits between the DemandList and the Agents. Instead of
+ *  every Agent hearing about every new Demand, the router keeps a list of
+ *  capable Agents per DemandType (built from the SupplyDemandTable 
+ *  and each Agent's Supplies) and only passes a new Demand on to those.
+ *  COLLABORATE demands are routed by the type of the demand they support,
+ *  and are always passed back to the Agent that asked for help.
+ *  
+ *  An Agent is listed for a DemandType when it holds a Supply meeting any 
+ *  of that type's requirements. Agents still make the final call on 
+ *  whether to take on the Demand. Lists are rebuilt only when an Agent's
+ *  Supplies change type or quality.
+ */
+
+public class DemandRouter implements ISimEventListener {
+
+	// routing record for one Agent
+	private static class Route {
+		Agent agent;
+		long mask;       // supply mask used for the current routing lists
+		boolean pending; // capabilities may have changed since last check
+		
+		Route(Agent a) {
+			this.agent = a;
+		}
+	}
+	
+	private SupplyDemandTable sd_table;
+	private ArrayList<Route> routes;   // registration order
+	private ArrayList<Route> pending;  // agents to re-check before routing
+	
+	// capable agents per DemandType, indexed by ordinal
+	private ArrayList<ArrayList<Agent>> capable;
+	private boolean stale;
+	
+	/*
+	 * Constructor
+	 */
+	public DemandRouter(SimEventBus bus, SupplyDemandTable sd_table) {
+		this.sd_table = sd_table;
+		this.routes = new ArrayList<Route>();
+		this.pending = new ArrayList<Route>();
+		this.capable = new ArrayList<ArrayList<Agent>>();
+		for (int t = 0; t < DemandType.values().length; t++) {
+			this.capable.add(new ArrayList<Agent>());
+		}
+		this.stale = true;
+		
+		// new demands come through the router
+		bus.subscribe(SimEventType.NEW_DEMAND, this);
+	}
+	
+	// start routing new demands to an Agent
+	public void addAgent(Agent a) {
+		Route r = new Route(a);
+		r.mask = a.capabilities.getSupplyMask();
+		routes.add(r);
+		
+		// re-check this agent whenever its supplies change 
+		// (agents may change supplies on AgentWorkPool threads)
+		a.capabilities.setChangeListener(() -> {
+			synchronized (pending) {
+				if(!r.pending) {
+					r.pending = true;
+					pending.add(r);
+				}
+			}
+		});
+		stale = true;
+	}
+	
+	public int getNumAgents() {
+		return routes.size();
+	}
+	
+	// agents in the order they were added
+	public ArrayList<Agent> getAgents() {
+		ArrayList<Agent> agents = new ArrayList<Agent>(routes.size());
+		for (Route r : routes) {
+			agents.add(r.agent);
+		}
+		return agents;
+	}
+	
+	// agents that may be able to work on a DemandType
+	public ArrayList<Agent> getCapableAgents(DemandType dt) {
+		this._refresh();
+		return capable.get(dt.ordinal());
+	}
+	
+	// re-check changed agents, rebuilding routing lists if needed
+	private void _refresh() {
+		synchronized (pending) {
+			for (int i = 0; i < pending.size(); i++) {
+				Route r = pending.get(i);
+				r.pending = false;
+				long mask = r.agent.capabilities.getSupplyMask();
+				if(mask != r.mask) {
+					r.mask = mask;
+					stale = true;
+				}
+			}
+			pending.clear();
+		}
+		
+		if(!stale) {
+			return;
+		}
+		
+		for (DemandType dt : DemandType.values()) {
+			ArrayList<Agent> al = capable.get(dt.ordinal());
+			al.clear();
+			long req = sd_table.getRequirementMask(dt);
+			for (Route r : routes) {
+				if((r.mask & req) != 0) {
+					al.add(r.agent);
+				}
+			}
+		}
+		stale = false;
+	}
+	
+	/*
+	 * ISimEventListener interface functions
+	 */
+	@Override
+	public void handleEvent(SimEventType type, int time, Demand d, Agent a) {
+		if(type != SimEventType.NEW_DEMAND) {
+			SimLog.error(LogCategory.SIM, "DemandRouter does not know how to manage event {}", type);
+			return;
+		}
+		
+		boolean collab = (d.getType() == DemandType.COLLABORATE);
+		DemandType dt = collab ? d.ancillaryDemand.get().getType() : d.getType();
+		Agent creator = (collab && d.creator.isPresent()) ? d.creator.get() : null;
+		
+		ArrayList<Agent> al = this.getCapableAgents(dt);
+		int n = al.size();
+		for (int i = 0; i < n; i++) {
+			Agent target = al.get(i);
+			if(target == creator) {
+				creator = null;
+			}
+			target.handleEvent(type, time, d, a);
+		}
+		
+		// requesting agent always hears about its own collaboration demand
+		if(creator != null) {
+			creator.handleEvent(type, time, d, a);
+		}
+	}
+}
@@ -1,6 +1,5 @@
-import java.beans.PropertyChangeListener;
 /*
- *  EngineerAgent is a engineer Agent with a PropertyChangeListener 
+ *  EngineerAgent is a engineer Agent with an ISimEventListener 
  *  for use in Agent Based Modeling
  *  @author Chad Holmes
  *
@@ -9,7 +8,7 @@ import java.beans.PropertyChangeListener;
  *  The EngineerAgent class ... is an Engineer Agent
  *  
  */
-public class EngineerAgent extends Agent implements PropertyChangeListener {
+public class EngineerAgent extends Agent implements ISimEventListener {
 
 	/*
 	 * Constructors
@@ -27,6 +26,16 @@ public class EngineerAgent extends Agent implements PropertyChangeListener {
 		initialize();
 	}
 	
+	// with its own random number stream (see SimEnvironment.createAgents)
+	public EngineerAgent(String name, SimRandom rand) {
+		this(name, 95, rand);
+	}
+	
+	public EngineerAgent(String name, int efficiency, SimRandom rand) {
+		super(name, efficiency, rand);
+		initialize();
+	}
+	
 	/* 
 	 * Helper functions
 	 */
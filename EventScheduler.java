@@ -0,0 +1,269 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/*
+ *  EventScheduler for Agent Based Modeling
+ *  @author Chad Holmes
+ *
+ *  MIT EM.426 Spring 2021 class
+ *
+ *  Discrete-event alternative to cycle stepping (see
+ *  SimEnvironment.setEventDriven).  Instead of every agent getting a
+ *  FINISH_TASK each cycle, agents wait in a priority queue keyed on
+ *  (agentTime, turn) and each step only the agents at the global
+ *  minimum time get one.  Agents that cannot do anything right now are
+ *  parked instead of being polled:
+ *
+ *  - WAITING (for a collaborator) agents get a timed wake-up at the step
+ *    their wait would run out, with the steps they skipped credited to
+ *    stepsSinceLastActive
+ *  - agents that made no progress (nothing they can start) get a timed
+ *    wake-up after Agent.SYNC_BACKLOG_EVERY steps, so they still ask
+ *    for a backlog refresh
+ *
+ *  Either kind wakes early when its time, state, backlog or urgent count
+ *  changes (e.g. a collaborator finishing the demand it waited on, or a
+ *  new demand routed to it); the agent reports those changes through its
+ *  schedule listener.  Ties are broken by turn (the order agents were
+ *  handed in), so runs stay reproducible.
+ *
+ *  Queue entries are never updated in place: a changed agent gets a new
+ *  entry and a new version, and stale entries are skipped when polled.
+ *  A Slot keeps the key of its current entry, so checking whether a
+ *  changed agent needs re-keying does not search the queue.  Changes can
+ *  be reported from several threads at once (backlog refreshes run on
+ *  the AgentWorkPool), so collecting them is synchronized.
+ */
+
+public class EventScheduler {
+
+	// where an agent is
+	private static final int QUEUED = 0;
+	private static final int RUNNING = 1;
+	private static final int WAITING = 2;
+	private static final int IDLE = 3;
+
+	// scheduling record for one Agent
+	private static class Slot {
+		Agent agent;
+		int turn;
+		int mode;
+		int version;   // bumped whenever the agent is re-scheduled
+		int key;       // key of the current queue entry (QUEUED only)
+		int parked_at; // step the agent was parked at (WAITING or IDLE)
+		boolean dirty; // changed since the last check
+
+		Slot(Agent a, int turn) {
+			this.agent = a;
+			this.turn = turn;
+		}
+	}
+
+	// (key, turn) entry for a Slot in a queue, valid while versions match
+	private static class Entry implements Comparable<Entry> {
+		final int key;
+		final Slot slot;
+		final int version;
+
+		Entry(int key, Slot slot) {
+			this.key = key;
+			this.slot = slot;
+			this.version = slot.version;
+		}
+
+		boolean isCurrent() {
+			return version == slot.version;
+		}
+
+		@Override
+		public int compareTo(Entry e) {
+			if(key != e.key) {
+				return key < e.key ? -1 : 1;
+			}
+			return Integer.compare(slot.turn, e.slot.turn);
+		}
+	}
+
+	private final ArrayList<Slot> slots;
+	private final PriorityQueue<Entry> queue;  // runnable agents by agentTime
+	private final PriorityQueue<Entry> timers; // parked agents by wake-up step
+	private final ArrayList<Slot> dirty;       // changed agents (guarded by this)
+
+	private int global_time;
+	private long n_dispatched;
+
+	/*
+	 * Constructor: schedule agents (turn order = list order) from global_time
+	 */
+	public EventScheduler(List<Agent> agents, int global_time) {
+		this.slots = new ArrayList<Slot>(agents.size());
+		this.queue = new PriorityQueue<Entry>();
+		this.timers = new PriorityQueue<Entry>();
+		this.dirty = new ArrayList<Slot>();
+		this.global_time = global_time;
+		this.n_dispatched = 0;
+
+		for (int i = 0; i < agents.size(); i++) {
+			Slot s = new Slot(agents.get(i), i);
+			s.agent.setScheduleListener(() -> this._changed(s));
+			slots.add(s);
+			this._enqueue(s);
+		}
+	}
+
+	/*
+	 * one step: wake agents that are due, then give a FINISH_TASK to each
+	 * agent at the global minimum time; false if every agent is parked
+	 */
+	public boolean step(int step) {
+
+		// timed wake-ups
+		while (!timers.isEmpty() && timers.peek().key <= step) {
+			Entry e = timers.poll();
+			if(e.isCurrent()) {
+				this._wake(e.slot, step);
+			}
+		}
+		this._checkChanged(step);
+
+		Entry first = this._peek();
+		if(first == null) {
+			// everyone is parked
+			return false;
+		}
+		int now = first.key;
+
+		Entry e;
+		while ((e = this._peek()) != null && e.key == now) {
+			queue.poll();
+			this._dispatch(e.slot, step);
+			this._checkChanged(step);
+		}
+
+		// global time never runs backwards (an agent woken behind it
+		// simply catches up)
+		e = this._peek();
+		if(e != null) {
+			global_time = Math.max(global_time, e.key);
+		}
+		else {
+			global_time = Math.max(global_time, now);
+		}
+		return true;
+	}
+
+	// move global time on to time (e.g. while every agent is parked)
+	public void advanceTo(int time) {
+		global_time = Math.max(global_time, time);
+	}
+
+	// stop listening to the agents
+	public void detach() {
+		for (Slot s : slots) {
+			s.agent.setScheduleListener(null);
+		}
+	}
+
+	/*
+	 * Getters and Setters
+	 */
+	public int getGlobalTime() {
+		return global_time;
+	}
+
+	public long getNumDispatched() {
+		return n_dispatched;
+	}
+
+	/*
+	 * Helper Functions
+	 */
+	private void _dispatch(Slot s, int step) {
+		Agent a = s.agent;
+		int time = a.getAgentTime();
+		AgentState state = a.getState();
+		int backlog = a.backlog_tasks.size();
+
+		s.mode = RUNNING;
+		a.handleEvent(SimEventType.FINISH_TASK, 0, null, null);
+		n_dispatched++;
+
+		if(a.getState() == AgentState.WAITING && a.getNumUrgent() <= 0) {
+			// wait for a collaborator, at most until the wait runs out
+			int left = a.getMaxWaitCycles().get()-a.getStepsSinceLastActive();
+			this._park(s, WAITING, step, step+Math.max(1, left));
+		}
+		else if(a.getAgentTime() == time && a.getState() == state && a.backlog_tasks.size() == backlog) {
+			// nothing it can do for now
+			this._park(s, IDLE, step, step+Agent.SYNC_BACKLOG_EVERY);
+		}
+		else {
+			this._enqueue(s);
+		}
+	}
+
+	private void _enqueue(Slot s) {
+		s.mode = QUEUED;
+		s.version++;
+		s.key = s.agent.getAgentTime();
+		queue.add(new Entry(s.key, s));
+	}
+
+	private void _park(Slot s, int mode, int step, int wake_at) {
+		s.mode = mode;
+		s.parked_at = step;
+		s.version++;
+		timers.add(new Entry(wake_at, s));
+	}
+
+	// put a parked agent back in the queue, crediting the steps it skipped
+	// (the FINISH_TASK it gets next counts one more)
+	private void _wake(Slot s, int step) {
+		Agent a = s.agent;
+		int skipped = Math.max(0, step-s.parked_at-1);
+		if(s.mode == WAITING) {
+			a.setStepsSinceLastActive(a.getStepsSinceLastActive()+skipped);
+		}
+		else if(s.mode == IDLE) {
+			a.setCyclesSinceSync(a.getCyclesSinceSync()+skipped);
+		}
+		this._enqueue(s);
+	}
+
+	// the agent changed (time, state, backlog or urgent count); agents
+	// refreshing their backlogs on AgentWorkPool threads report at once
+	private synchronized void _changed(Slot s) {
+		if(s.mode != RUNNING && !s.dirty) {
+			s.dirty = true;
+			dirty.add(s);
+		}
+	}
+
+	// (in any order: each agent is re-keyed or woken on its own)
+	private synchronized void _checkChanged(int step) {
+		for (int i = 0; i < dirty.size(); i++) {
+			Slot s = dirty.get(i);
+			s.dirty = false;
+			if(s.mode == QUEUED) {
+				// re-key if its time moved
+				if(s.key != s.agent.getAgentTime()) {
+					this._enqueue(s);
+				}
+			}
+			else if(s.mode == WAITING || s.mode == IDLE) {
+				this._wake(s, step);
+			}
+		}
+		dirty.clear();
+	}
+
+	// first current entry in the queue (dropping stale ones)
+	private Entry _peek() {
+		Entry e;
+		while ((e = queue.peek()) != null && !e.isCurrent()) {
+			queue.poll();
+		}
+		return e;
+	}
+}
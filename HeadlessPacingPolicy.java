@@ -0,0 +1,22 @@
+/*
+ *  HeadlessPacingPolicy for Agent Based Modeling
+ *  @author Chad Holmes
+ *  
+ *  MIT EM.426 Spring 2021 class
+ *  
+ *  Pacing policy used when no UI is attached: the simulation runs
+ *  its cycle loop flat-out with no pauses.
+ */
+
+public class HeadlessPacingPolicy implements IPacingPolicy {
+
+	@Override
+	public void pauseAfterProgress() {
+		// nobody is watching, keep going
+	}
+
+	@Override
+	public void pauseBetweenRuns() {
+		// nobody is watching, keep going
+	}
+}
@@ -0,0 +1,45 @@
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.StringProperty;
+
+/*
+ * IObservableDemand Interface
+ * @author Chad Holmes
+ * 
+ */
+
+public interface IObservableDemand extends IDemand {
+	// A property, from JavaFX, allows the attributes to be observable (and bindable)
+	// These are only needed when a UI is attached, see ObservableDemand
+	
+	// NAME -------------------------------------
+	public StringProperty nameProperty();
+	
+	// PRIORITY ---------------------------------
+	public ObjectProperty<DemandPriority> priorityProperty();
+	
+	// TYPE -------------------------------------
+	public ObjectProperty<DemandType> typeProperty();
+	
+	// STATE ------------------------------------
+	public ObjectProperty<DemandState> stateProperty();
+	
+	// EFFORT -----------------------------------
+	public IntegerProperty effortProperty();
+	
+	// START ------------------------------------
+	public IntegerProperty startProperty();
+	
+	// STOP -------------------------------------
+	public IntegerProperty stopProperty();
+	
+	// RECUR ------------------------------------
+	public BooleanProperty recurProperty();
+	
+	// EVERY ------------------------------------
+	public IntegerProperty everyProperty();
+	
+	// UNTIL ------------------------------------
+	public IntegerProperty untilProperty();
+}
@@ -0,0 +1,51 @@
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.LongProperty;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.StringProperty;
+
+/*
+ * IObservableSupply Interface
+ * @author Chad Holmes
+ *
+ */
+
+public interface IObservableSupply extends ISupply {
+/* 
+ * JavaFX property accessors for a Supply, only needed when a UI is attached
+ * (see ObservableSupply)
+ * 
+ */
+	// NAME -------------------------------------
+	public StringProperty nameProperty();
+
+	// TYPE -------------------------------------
+	public ObjectProperty<SupplyType> typeProperty();
+	
+	// STATE ------------------------------------
+	public ObjectProperty<SupplyState> stateProperty();
+
+	// CAPACITY ---------------------------------
+	public IntegerProperty capacityProperty();
+	
+	// AMOUNT -----------------------------------
+	public IntegerProperty amountProperty();
+	
+	// QUALITY ----------------------------------
+	public ObjectProperty<SupplyQuality> qualityProperty();
+	
+	// EFFICIENCY -------------------------------
+	public IntegerProperty efficiencyProperty();
+
+	// REPLENISH --------------------------------
+	public BooleanProperty replenishProperty();
+	
+	// (REPLENISH) EVERY ------------------------
+	public IntegerProperty everyProperty();
+	
+	// (REPLENISH) UNTIL-------------------------
+	public LongProperty untilProperty();
+	
+	// LIFESPAN ---------------------------------
+	public IntegerProperty lifespanProperty();
+}
@@ -0,0 +1,19 @@
+/*
+ * IPacingPolicy Interface
+ * @author Chad Holmes
+ *
+ */
+
+public interface IPacingPolicy {
+/* 
+ * interface for controlling how quickly a SimEnvironment steps through its
+ * cycles. A headless run never pauses, while a JavaFX front end can slow the
+ * simulation down so charts and text fields have time to redraw.
+ * 
+ */
+	// called after each progress update within a run
+	public void pauseAfterProgress();
+	
+	// called between Monte Carlo runs
+	public void pauseBetweenRuns();
+}
@@ -0,0 +1,31 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/*
+ * IReportSink Interface
+ * @author Chad Holmes
+ *
+ */
+
+public interface IReportSink extends Closeable {
+/*
+ * interface for wherever a SimEnvironment writes its reports. A run
+ * writes its agents once they are created and its interactions and
+ * collaboration counts in the final progress report; the monte carlo
+ * report is written once all runs are done.
+ *
+ * Rows are keyed by SimEnvironment.getRunId(), so one sink can be
+ * shared by every run of a sweep or ensemble (implementations must
+ * then be thread safe). The sink is closed by whoever created it.
+ *
+ */
+	// names of the agents of a run
+	public void writeAgents(SimEnvironment sim, List<Agent> agents) throws IOException;
+
+	// agent-to-agent interaction counts and collaboration counts of a run
+	public void writeFinalReport(SimEnvironment sim, List<Agent> agents) throws IOException;
+
+	// collaboration counts of every run merged into sim (one row per run)
+	public void writeMonteCarloReport(SimEnvironment sim) throws IOException;
+}
@@ -0,0 +1,21 @@
+/*
+ * ISimEventListener Interface
+ * @author Chad Holmes
+ *
+ */
+
+public interface ISimEventListener {
+/* 
+ * interface for anything that listens on a SimEventBus. Payloads are passed
+ * as plain arguments so firing an event does not allocate; arguments that 
+ * do not apply to an event type are 0 or null:
+ * 
+ *  NEW_DEMAND      : d = new Demand
+ *  FINISH_TASK     : (no payload)
+ *  COMMIT_UNTIL    : time = commit time
+ *  COLLABORATE     : d = Demand needing help, a = requesting Agent
+ *  REFRESH_BACKLOG : a = requesting Agent
+ * 
+ */
+	public void handleEvent(SimEventType type, int time, Demand d, Agent a);
+}
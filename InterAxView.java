@@ -249,6 +249,10 @@ public class InterAxView extends BorderPane {
     }
     
     public void startSim() {
+    	// UI is attached, so pace the simulation for redraws
+    	if(simenv.isNotNull().get())
+    		simenv.get().setPacingPolicy(new UIPacingPolicy());
+    	
     	Runnable task = new Runnable() {
     		public void run() {
     			if(simenv.isNotNull().get())
@@ -1,6 +1,7 @@
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 import java.util.function.UnaryOperator;
 
 import javafx.beans.property.SimpleBooleanProperty;
@@ -281,10 +282,29 @@ public class InterAxViewMC extends BorderPane {
     
     public void startSim() {
     	
+    	// UI is attached, so pace the simulation for redraws
+    	if(simenv.isNotNull().get())
+    		simenv.get().setPacingPolicy(new UIPacingPolicy());
+    	
     	Runnable task = new Runnable() {
     		public void run() {
-	    			if(simenv.isNotNull().get())
-	    				simenv.get().start();
+	    			if(simenv.isNotNull().get()) {
+	    				if(simenv.get().getNumMCRuns() > 1) {
+	    					// run realizations concurrently
+	    					try {
+	    						new MonteCarloEnsemble(simenv.get()).run();
+	    					}
+	    					catch (InterruptedException e) {
+	    						// do nothing
+	    					}
+	    					catch (ExecutionException e) {
+	    						SimLog.error(LogCategory.SIM, "{}: {}", e.getMessage(), e.getCause());
+	    					}
+	    				}
+	    				else {
+	    					simenv.get().start();
+	    				}
+	    			}
     		}	
     	};
     	
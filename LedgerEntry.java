@@ -1,5 +1,3 @@
-import java.util.ArrayList;
-
 /*
  *  LedgerEntry Class for Agent Based Modeling
  *  @author Chad Holmes
@@ -10,13 +8,16 @@ import java.util.ArrayList;
 public class LedgerEntry {
 	int timeAtStart;
 	int timeAtFinish;
-	ArrayList<SupplyImage> si;
 	
-	public LedgerEntry(int timeAtStart, int effort, ArrayList<SupplyImage> si) {
+	// where the Supply states from before the task are in the agent's 
+	// SupplyUndoLog (undo_len = 0 once committed, or if none were needed)
+	int undo_at;
+	int undo_len;
+	
+	public LedgerEntry(int timeAtStart, int effort) {
 		super();
 		this.timeAtStart = timeAtStart;
 		this.timeAtFinish = timeAtStart+effort;
-		this.si = si;
 	}
 	
 	public int getEffort() {
@@ -35,10 +36,7 @@ public class LedgerEntry {
 	public void setTimeAtFinish(int timeAtFinish) {
 		this.timeAtFinish = timeAtFinish;
 	}
-	public ArrayList<SupplyImage> getSi() {
-		return si;
-	}
-	public void setSi(ArrayList<SupplyImage> si) {
-		this.si = si;
+	public int getUndoLength() {
+		return undo_len;
 	}
 }
@@ -0,0 +1,20 @@
+/*
+ *  LogCategory for Agent Based Modeling
+ *  @author Chad Holmes
+ *  
+ *  MIT EM.426 Spring 2021 class
+ *  
+ *  Enumerated list of SimLog categories, each with its own level:
+ *  SIM    = simulation set-up, cycle loop and event handling
+ *  DEMAND = demand creation and notification
+ *  AGENT  = agent life cycle and backlog
+ *  TASK   = work on a demand (start, effort, failure, roll-back)
+ *  COLLAB = collaboration requests and waiting
+ *  SUPPLY = supply changes (e.g. learning)
+ *  REPORT = progress reports
+ *  SWEEP  = parameter sweep progress
+ */
+
+public enum LogCategory {
+	SIM, DEMAND, AGENT, TASK, COLLAB, SUPPLY, REPORT, SWEEP
+}
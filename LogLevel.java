@@ -0,0 +1,13 @@
+/*
+ *  LogLevel for Agent Based Modeling
+ *  @author Chad Holmes
+ *  
+ *  MIT EM.426 Spring 2021 class
+ *  
+ *  Severity of a SimLog record, lowest to highest.  Setting a
+ *  category's level to OFF silences it entirely
+ */
+
+public enum LogLevel {
+	TRACE, DEBUG, INFO, WARN, ERROR, OFF
+}
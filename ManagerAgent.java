@@ -1,6 +1,5 @@
-import java.beans.PropertyChangeListener;
 /*
- *  ManagerAgent is a manager Agent with a PropertyChangeListener 
+ *  ManagerAgent is a manager Agent with an ISimEventListener 
  *  for use in Agent Based Modeling
  *  @author Chad Holmes
  *
@@ -10,7 +9,7 @@ import java.beans.PropertyChangeListener;
  *  
  */
 
-public class ManagerAgent extends Agent implements PropertyChangeListener {
+public class ManagerAgent extends Agent implements ISimEventListener {
 
 	/*
 	 * Constructors
@@ -28,6 +27,16 @@ public class ManagerAgent extends Agent implements PropertyChangeListener {
 		initialize();
 	}
 	
+	// with its own random number stream (see SimEnvironment.createAgents)
+	public ManagerAgent(String name, SimRandom rand) {
+		this(name, 85, rand);
+	}
+	
+	public ManagerAgent(String name, int efficiency, SimRandom rand) {
+		super(name, efficiency, rand);
+		initialize();
+	}
+	
 	/* 
 	 * Helper functions
 	 */
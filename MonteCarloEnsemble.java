@@ -0,0 +1,130 @@
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/*
+ *  MonteCarloEnsemble for Agent Based Modeling
+ *  @author Chad Holmes
+ *  
+ *  MIT EM.426 Spring 2021 class
+ *  
+ *  The MonteCarloEnsemble runs independent realizations (replicates) of a
+ *  SimEnvironment concurrently on a bounded thread pool. The template 
+ *  environment supplies the simulation parameters and the number of runs; 
+ *  each replicate gets its own SimEnvironment and its own seed drawn from 
+ *  a master seed. Replicates share no mutable state. Once all replicates
+ *  finish, their results are merged back into the template in replicate
+ *  order, so the monte carlo report is the same regardless of which 
+ *  replicate finished first.
+ *  
+ *  Replicates write to the template's report sink, as runs 
+ *  template.getRunId()+index.
+ *  
+ *  If a replicate fails, the others still run to the end, but the 
+ *  monte carlo report is not written (it would be missing rows) and run()
+ *  throws, naming the failed replicates.
+ */
+
+public class MonteCarloEnsemble {
+
+	private SimEnvironment template;
+	private int n_threads;
+	private long master_seed;
+	
+	/*
+	 * Constructors
+	 */
+	public MonteCarloEnsemble(SimEnvironment template) {
+		this(template, Runtime.getRuntime().availableProcessors(), SimEnvironment.DEFAULT_SEED);
+	}
+	
+	public MonteCarloEnsemble(SimEnvironment template, int n_threads, long master_seed) {
+		this.template = template;
+		this.n_threads = Math.max(1, n_threads);
+		this.master_seed = master_seed;
+	}
+	
+	// build an independent replicate of the template environment
+	private SimEnvironment createReplicate(int index, long seed) {
+		SimEnvironment replicate = new SimEnvironment();
+		replicate.copySettings(this.template);
+		replicate.setNumMCRuns(1);
+		replicate.setSeed(seed);
+		replicate.setReportTag(this.template.getReportTag()+"_r"+index);
+		replicate.setReportSink(this.template.getReportSink());
+		replicate.setRunId(this.template.getRunId()+index);
+		replicate.setPacingPolicy(new HeadlessPacingPolicy());
+		return replicate;
+	}
+	
+	/*
+	 * run all replicates, merge results into the template, 
+	 * and write the monte carlo report
+	 */
+	public void run() throws InterruptedException, ExecutionException {
+		
+		int n_runs = this.template.getNumMCRuns();
+		
+		// draw one seed per replicate up front so results do not depend on scheduling
+		SplittableRandom seeder = new SplittableRandom(this.master_seed);
+		ArrayList<SimEnvironment> replicates = new ArrayList<SimEnvironment>();
+		for (int r = 0; r < n_runs; r++) {
+			replicates.add(this.createReplicate(r, seeder.nextLong()));
+		}
+		
+		ExecutorService pool = Executors.newFixedThreadPool(Math.min(this.n_threads, Math.max(1, n_runs)));
+		ArrayList<Future<?>> futures = new ArrayList<Future<?>>();
+		ArrayList<Integer> failed = new ArrayList<Integer>();
+		Throwable first_failure = null;
+		try {
+			for (SimEnvironment replicate : replicates) {
+				futures.add(pool.submit(() -> replicate.runOnce()));
+			}
+			
+			// merge in replicate order
+			for (int r = 0; r < n_runs; r++) {
+				try {
+					futures.get(r).get();
+					this.template.getMcRxTimeseries().addAll(replicates.get(r).getMcRxTimeseries());
+				}
+				catch (ExecutionException e) {
+					SimLog.error(LogCategory.SIM, "Monte Carlo replicate {} failed: {}", r, e.getCause());
+					failed.add(r);
+					if(first_failure == null) {
+						first_failure = e.getCause();
+					}
+				}
+				this.template.setProgress((r+1)/(double)n_runs);
+			}
+		}
+		finally {
+			pool.shutdownNow();
+		}
+		
+		if(!failed.isEmpty()) {
+			SimLog.flush();
+			throw new ExecutionException("Monte Carlo replicates "+failed+" of "+n_runs+
+										 " failed, no monte carlo report written", first_failure);
+		}
+		
+		this.template.writeMonteCarloReport();
+		this.template.setFinished(true);
+		SimLog.flush();
+	}
+	
+	/*
+	 * Getters and Setters
+	 */
+	public int getNumThreads() { return n_threads; }
+	public void setNumThreads(int n_threads) {
+		this.n_threads = Math.max(1, n_threads);
+	}
+	
+	public long getMasterSeed() { return master_seed; }
+	public void setMasterSeed(long master_seed) {
+		this.master_seed = master_seed;
+	}
+}
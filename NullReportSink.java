@@ -0,0 +1,27 @@
+import java.util.List;
+
+/*
+ *  NullReportSink for Agent Based Modeling
+ *  @author Chad Holmes
+ *
+ *  MIT EM.426 Spring 2021 class
+ *
+ *  Drops every report, for runs whose results are read straight from
+ *  the SimEnvironment (benchmarks, tests) and should leave no files
+ *  behind.  Holds no state, so one instance can serve any number of runs.
+ */
+
+public class NullReportSink implements IReportSink {
+
+	@Override
+	public void writeAgents(SimEnvironment sim, List<Agent> agents) {}
+
+	@Override
+	public void writeFinalReport(SimEnvironment sim, List<Agent> agents) {}
+
+	@Override
+	public void writeMonteCarloReport(SimEnvironment sim) {}
+
+	@Override
+	public void close() {}
+}
@@ -0,0 +1,148 @@
+import java.util.UUID;
+
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+
+/*
+ *  ObservableDemand Class for Agent Based Modeling
+ *  @author Chad Holmes
+ *
+ *  For MIT EM.426 Spring 2021 class
+ *
+ *  ObservableDemand wraps a core Demand with JavaFX properties so a
+ *  view can observe and bind to it.  Only create one when a UI is
+ *  attached; the simulation itself works on the plain Demand.
+ *
+ *  Edits made through the properties (e.g. a bound text field) are
+ *  written through to the Demand.  Changes the simulation makes to the
+ *  Demand are picked up by calling refresh(), e.g. on a progress update.
+ *
+ */
+public class ObservableDemand implements IObservableDemand {
+
+	// wrapped core Demand
+	private final Demand demand;
+
+	// set while copying from the Demand, so listeners don't write it back
+	private boolean refreshing;
+
+	private final StringProperty name = new SimpleStringProperty();
+	private final ObjectProperty<DemandPriority> priority = new SimpleObjectProperty<DemandPriority>();
+	private final ObjectProperty<DemandType> type = new SimpleObjectProperty<DemandType>();
+	private final ObjectProperty<DemandState> state = new SimpleObjectProperty<DemandState>();
+	private final IntegerProperty effort = new SimpleIntegerProperty();
+	private final IntegerProperty start = new SimpleIntegerProperty();
+	private final IntegerProperty stop  = new SimpleIntegerProperty();
+	private final BooleanProperty recur = new SimpleBooleanProperty();
+	private final IntegerProperty every = new SimpleIntegerProperty();
+	private final IntegerProperty until = new SimpleIntegerProperty();
+
+	/*
+	 * Constructor
+	 */
+	public ObservableDemand(Demand d) {
+		this.demand = d;
+		this.refresh();
+
+		// write UI edits through to the core Demand
+		name.addListener((obs,oldV,newV) -> { if(!refreshing) demand.setName(newV); });
+		priority.addListener((obs,oldV,newV) -> { if(!refreshing) demand.setPriority(newV); });
+		type.addListener((obs,oldV,newV) -> { if(!refreshing) demand.setType(newV); });
+		state.addListener((obs,oldV,newV) -> { if(!refreshing) demand.setState(newV); });
+		effort.addListener((obs,oldV,newV) -> { if(!refreshing) demand.setEffort(newV.intValue()); });
+		start.addListener((obs,oldV,newV) -> { if(!refreshing) demand.setStart(newV.intValue()); });
+		stop.addListener((obs,oldV,newV) -> { if(!refreshing) demand.setStop(newV.intValue()); });
+		recur.addListener((obs,oldV,newV) -> { if(!refreshing) demand.setRecur(newV); });
+		every.addListener((obs,oldV,newV) -> { if(!refreshing) demand.setEvery(newV.intValue()); });
+		until.addListener((obs,oldV,newV) -> { if(!refreshing) demand.setUntil(newV.intValue()); });
+	}
+
+	// copy current values from the core Demand into the properties
+	public void refresh() {
+		refreshing = true;
+		name.set(demand.getName());
+		priority.set(demand.getPriority());
+		type.set(demand.getType());
+		state.set(demand.getState());
+		effort.set(demand.getEffort());
+		start.set(demand.getStart());
+		stop.set(demand.getStop());
+		recur.set(demand.getRecur());
+		every.set(demand.getEvery());
+		until.set(demand.getUntil());
+		refreshing = false;
+	}
+
+	public Demand getDemand() { return demand; }
+
+	/*
+	 * Getters and Setters (setters go to the Demand, then refresh)
+	 */
+	// ID -------------------------------------
+	public UUID getId() { return demand.getId(); }
+	public void setId(UUID id) { demand.setId(id); }
+
+	// NAME -----------------------------------
+	public StringProperty nameProperty() { return name; }
+	public String getName() { return demand.getName(); }
+	public void setName(String name) { demand.setName(name); this.refresh(); }
+
+	// PRIORITY -------------------------------
+	public ObjectProperty<DemandPriority> priorityProperty() { return priority; }
+	public DemandPriority getPriority() { return demand.getPriority(); }
+	public void setPriority(DemandPriority priority) { demand.setPriority(priority); this.refresh(); }
+
+	// TYPE -----------------------------------
+	public ObjectProperty<DemandType> typeProperty() { return type; }
+	public DemandType getType() { return demand.getType(); }
+	public void setType(DemandType type) { demand.setType(type); this.refresh(); }
+
+	// STATE ----------------------------------
+	public ObjectProperty<DemandState> stateProperty() { return state; }
+	public DemandState getState() { return demand.getState(); }
+	public void setState(DemandState state) { demand.setState(state); this.refresh(); }
+
+	// EFFORT ---------------------------------
+	public IntegerProperty effortProperty() { return effort; }
+	public int getEffort() {return demand.getEffort(); }
+	public void setEffort(int effort) { demand.setEffort(effort); this.refresh(); }
+	public double getEffortHrs() { return demand.getEffortHrs(); }
+	public void setEffortHrs(double _effort) { demand.setEffortHrs(_effort); this.refresh(); }
+
+	// START ----------------------------------
+	public IntegerProperty startProperty() { return start; }
+	public int getStart() { return demand.getStart(); }
+	public void setStart(int start) { demand.setStart(start); this.refresh(); }
+
+	// STOP -----------------------------------
+	public IntegerProperty stopProperty()  { return stop; }
+	public int getStop() { return demand.getStop(); }
+	public void setStop(int stop) { demand.setStop(stop); this.refresh(); }
+
+	// RECUR ----------------------------------
+	public BooleanProperty recurProperty() { return recur; }
+	public boolean getRecur() { return demand.getRecur(); }
+	public void setRecur(boolean isRecurring) { demand.setRecur(isRecurring); this.refresh(); }
+	public boolean isRecur() { return demand.isRecur(); }
+
+	// EVERY ----------------------------------
+	public IntegerProperty everyProperty() { return every; }
+	public int getEvery() { return demand.getEvery(); }
+	public void setEvery(int every) { demand.setEvery(every); this.refresh(); }
+
+	// UNTIL ----------------------------------
+	public IntegerProperty untilProperty() { return until; }
+	public int getUntil() { return demand.getUntil(); }
+	public void setUntil(int until) { demand.setUntil(until); this.refresh(); }
+
+	@Override
+	public String toString() {
+		return demand.toString();
+	}
+}
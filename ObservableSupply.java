@@ -0,0 +1,156 @@
+import java.util.UUID;
+
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.LongProperty;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleLongProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+
+/*
+ *  ObservableSupply Class for Agent Based Modeling
+ *  @author Chad Holmes
+ *
+ *  For MIT EM.426 Spring 2021 class
+ *
+ *  ObservableSupply wraps a core Supply with JavaFX properties so a
+ *  view can observe and bind to it.  Only create one when a UI is
+ *  attached; Agents work on the plain Supply.
+ *
+ *  Edits made through the properties are written through to the
+ *  Supply.  Changes made during the simulation (amount, quality from
+ *  learning, ...) are picked up by calling refresh().
+ *
+ */
+public class ObservableSupply implements IObservableSupply {
+
+	// wrapped core Supply
+	private final Supply supply;
+
+	// set while copying from the Supply, so listeners don't write it back
+	private boolean refreshing;
+
+	private final StringProperty name = new SimpleStringProperty();
+	private final ObjectProperty<SupplyType> type = new SimpleObjectProperty<SupplyType>();
+	private final ObjectProperty<SupplyState> state = new SimpleObjectProperty<SupplyState>();
+	private final IntegerProperty capacity = new SimpleIntegerProperty();
+	private final IntegerProperty amount = new SimpleIntegerProperty();
+	private final ObjectProperty<SupplyQuality> quality = new SimpleObjectProperty<SupplyQuality>();
+	private final IntegerProperty efficiency = new SimpleIntegerProperty();
+	private final BooleanProperty replenish = new SimpleBooleanProperty();
+	private final IntegerProperty every     = new SimpleIntegerProperty();
+	private final LongProperty until        = new SimpleLongProperty();
+	private final IntegerProperty lifespan = new SimpleIntegerProperty();
+
+	/*
+	 * Constructor
+	 */
+	public ObservableSupply(Supply s) {
+		this.supply = s;
+		this.refresh();
+
+		// write UI edits through to the core Supply
+		name.addListener((obs,oldV,newV) -> { if(!refreshing) supply.setName(newV); });
+		type.addListener((obs,oldV,newV) -> { if(!refreshing) supply.setType(newV); });
+		state.addListener((obs,oldV,newV) -> { if(!refreshing) supply.setState(newV); });
+		capacity.addListener((obs,oldV,newV) -> { if(!refreshing) supply.setCapacity(newV.intValue()); });
+		amount.addListener((obs,oldV,newV) -> { if(!refreshing) supply.setAmount(newV.intValue()); });
+		quality.addListener((obs,oldV,newV) -> { if(!refreshing) supply.setQuality(newV); });
+		efficiency.addListener((obs,oldV,newV) -> { if(!refreshing) supply.setEfficiency(newV.intValue()); });
+		replenish.addListener((obs,oldV,newV) -> { if(!refreshing) supply.setReplenish(newV); });
+		every.addListener((obs,oldV,newV) -> { if(!refreshing) supply.setEvery(newV.intValue()); });
+		until.addListener((obs,oldV,newV) -> { if(!refreshing) supply.setUntil(newV.longValue()); });
+		lifespan.addListener((obs,oldV,newV) -> { if(!refreshing) supply.setLifespan(newV.intValue()); });
+	}
+
+	// copy current values from the core Supply into the properties
+	public void refresh() {
+		refreshing = true;
+		name.set(supply.getName());
+		type.set(supply.getType());
+		state.set(supply.getState());
+		capacity.set(supply.getCapacity());
+		amount.set(supply.getAmount());
+		quality.set(supply.getQuality());
+		efficiency.set(supply.getEfficiency());
+		replenish.set(supply.getReplenish());
+		every.set(supply.getEvery());
+		until.set(supply.getUntil());
+		lifespan.set(supply.getLifespan());
+		refreshing = false;
+	}
+
+	public Supply getSupply() { return supply; }
+
+	/*
+	 * Getters and Setters (setters go to the Supply, then refresh)
+	 */
+	// UNIQUE IDENTIFIER ----------------------
+	public UUID getId() { return supply.getId(); }
+	public void setId(UUID id) { supply.setId(id); }
+
+	// NAME -----------------------------------
+	public StringProperty nameProperty() { return name; }
+	public String getName() { return supply.getName(); }
+	public void setName(String name) { supply.setName(name); this.refresh(); }
+
+	// TYPE -----------------------------------
+	public ObjectProperty<SupplyType> typeProperty() { return type; }
+	public SupplyType getType() { return supply.getType(); }
+	public void setType(SupplyType type) { supply.setType(type); this.refresh(); }
+
+	// STATE ----------------------------------
+	public ObjectProperty<SupplyState> stateProperty() { return state; }
+	public SupplyState getState() { return supply.getState(); }
+	public void setState(SupplyState state) { supply.setState(state); this.refresh(); }
+
+	// CAPACITY ---------------------------------
+	public IntegerProperty capacityProperty() { return capacity; }
+	public int getCapacity() { return supply.getCapacity(); }
+	public void setCapacity(int capacity) { supply.setCapacity(capacity); this.refresh(); }
+
+	// AMOUNT -----------------------------------
+	public IntegerProperty amountProperty() { return amount; }
+	public int getAmount() { return supply.getAmount(); }
+	public void setAmount(int amount) { supply.setAmount(amount); this.refresh(); }
+
+	// QUALITY ----------------------------------
+	public ObjectProperty<SupplyQuality> qualityProperty() { return quality; }
+	public SupplyQuality getQuality() { return supply.getQuality(); }
+	public void setQuality(SupplyQuality quality) { supply.setQuality(quality); this.refresh(); }
+
+	// EFFICIENCY -------------------------------
+	public IntegerProperty efficiencyProperty() { return efficiency; }
+	public int getEfficiency() { return supply.getEfficiency(); }
+	public void setEfficiency(int efficiency) { supply.setEfficiency(efficiency); this.refresh(); }
+
+	// LIFESPAN -------------------------------
+	public IntegerProperty lifespanProperty() { return lifespan; }
+	public int getLifespan() { return supply.getLifespan(); }
+	public void setLifespan(int lifespan) { supply.setLifespan(lifespan); this.refresh(); }
+
+	// REPLENISH --------------------------------
+	public BooleanProperty replenishProperty() { return replenish; }
+	public boolean getReplenish() { return supply.getReplenish(); }
+	public void setReplenish(boolean isReplenishing) { supply.setReplenish(isReplenishing); this.refresh(); }
+	public boolean isReplenishing() { return supply.isReplenishing(); }
+
+	// EVERY ------------------------------------
+	public IntegerProperty everyProperty() { return every; }
+	public int getEvery() { return supply.getEvery(); }
+	public void setEvery(int every) { supply.setEvery(every); this.refresh(); }
+
+	// UNTIL ------------------------------------
+	public LongProperty untilProperty() { return until; }
+	public long getUntil() { return supply.getUntil(); }
+	public void setUntil(long until) { supply.setUntil(until); this.refresh(); }
+
+	@Override
+	public String toString() {
+		return supply.toString();
+	}
+}
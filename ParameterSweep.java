@@ -0,0 +1,203 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ *  ParameterSweep for Agent Based Modeling
+ *  @author Chad Holmes
+ *
+ *  MIT EM.426 Spring 2021 class
+ *
+ *  The ParameterSweep runs every (configuration x replicate) of a list
+ *  of SimEnvironment configurations (e.g. a grid() over n_agents,
+ *  n_cycles, n_init_demands, prob_new_demand and interax_lr) on a
+ *  work-stealing pool and writes all of them into one consolidated
+ *  BinaryReportSink store.
+ *
+ *  Every job has a fixed run id (configuration index * n_replicates +
+ *  replicate) and a seed drawn up front from the master seed in the
+ *  same order, so results do not depend on scheduling and a sweep can
+ *  be resumed: runs whose ids are already complete in the store are
+ *  skipped.  A store written by a different sweep is rejected rather
+ *  than mixed in.
+ */
+
+public class ParameterSweep {
+
+	private List<SimEnvironment> configs;
+	private int n_replicates;
+	private int n_threads;
+	private long master_seed;
+
+	// progress of the current sweep
+	private final AtomicInteger n_done = new AtomicInteger();
+	private int n_jobs;
+
+	/*
+	 * Constructors
+	 */
+	public ParameterSweep(List<SimEnvironment> configs, int n_replicates) {
+		this(configs, n_replicates, Runtime.getRuntime().availableProcessors(), SimEnvironment.DEFAULT_SEED);
+	}
+
+	public ParameterSweep(List<SimEnvironment> configs, int n_replicates, int n_threads, long master_seed) {
+		this.configs = configs;
+		this.n_replicates = Math.max(1, n_replicates);
+		this.n_threads = Math.max(1, n_threads);
+		this.master_seed = master_seed;
+	}
+
+	// every combination of the given values, n_agents varying slowest
+	public static ArrayList<SimEnvironment> grid(int[] n_agents, int[] n_cycles, int[] n_init_demands,
+												 int[] prob_new_demand, int[] interax_lr) {
+		ArrayList<SimEnvironment> grid = new ArrayList<SimEnvironment>();
+		for (int a : n_agents) {
+			for (int c : n_cycles) {
+				for (int d : n_init_demands) {
+					for (int p : prob_new_demand) {
+						for (int lr : interax_lr) {
+							SimEnvironment config = new SimEnvironment();
+							config.setNumAgents(a);
+							config.setNumCycles(c);
+							config.setNumInitDemands(d);
+							config.setProbNewDemand(p);
+							config.setInteraxLR(lr);
+							grid.add(config);
+						}
+					}
+				}
+			}
+		}
+		return grid;
+	}
+
+	/*
+	 * run the sweep into store (appending to it if it exists),
+	 * returns the number of runs done (skipped runs not included)
+	 */
+	public int run(Path store) throws IOException, InterruptedException {
+
+		try (BinaryReportSink sink = new BinaryReportSink(store, true)) {
+
+			// draw every seed up front so resumed sweeps reuse them
+			int n_total = this.configs.size()*this.n_replicates;
+			SplittableRandom seeder = new SplittableRandom(this.master_seed);
+			long[] seeds = new long[n_total];
+			for (int i = 0; i < n_total; i++) {
+				seeds[i] = seeder.nextLong();
+			}
+
+			// run ids that still need running
+			ArrayList<Integer> jobs = new ArrayList<Integer>();
+			for (int run = 0; run < n_total; run++) {
+				if(!this.isDone(run, sink)) {
+					jobs.add(run);
+				}
+			}
+
+			this.n_jobs = jobs.size();
+			this.n_done.set(0);
+			SimLog.info(LogCategory.SWEEP, "Sweep: {} configurations x {} replicates, {} runs to do",
+						this.configs.size(), this.n_replicates, this.n_jobs);
+			if(this.n_jobs == 0) {
+				return 0;
+			}
+
+			ExecutorService pool = Executors.newWorkStealingPool(Math.min(this.n_threads, this.n_jobs));
+			ArrayList<Future<?>> futures = new ArrayList<Future<?>>();
+			int n_failed = 0;
+			try {
+				long starttime = System.currentTimeMillis();
+				for (int run : jobs) {
+					// each job builds its own SimEnvironment, so finished runs can be collected
+					futures.add(pool.submit(() -> {
+						this.createJob(run, seeds[run], sink).runOnce();
+						this.reportProgress(starttime);
+					}));
+				}
+
+				for (int j = 0; j < futures.size(); j++) {
+					try {
+						futures.get(j).get();
+					}
+					catch (ExecutionException e) {
+						n_failed++;
+						SimLog.error(LogCategory.SWEEP, "Sweep run {} failed.", jobs.get(j));
+						e.getCause().printStackTrace();
+					}
+				}
+			}
+			finally {
+				pool.shutdownNow();
+			}
+
+			SimLog.flush();
+			return this.n_jobs-n_failed;
+		}
+	}
+
+	// build the SimEnvironment for one run (configuration run/n_replicates)
+	private SimEnvironment createJob(int run, long seed, IReportSink sink) {
+		SimEnvironment job = new SimEnvironment();
+		job.copySettings(this.configs.get(run/this.n_replicates));
+		job.setNumMCRuns(1);
+		job.setSeed(seed);
+		job.setRunId(run);
+		job.setReportSink(sink);
+		job.setPacingPolicy(new HeadlessPacingPolicy());
+		return job;
+	}
+
+	// is run already complete in the store? (fails if the store disagrees)
+	private boolean isDone(int run, BinaryReportSink sink) throws IOException {
+		int[] stored = sink.getRunParams(run);
+		if(stored == null) {
+			return false;
+		}
+		SimEnvironment config = this.configs.get(run/this.n_replicates);
+		int[] params = { config.getNumAgents(), config.getNumCycles(), config.getNumInitDemands(),
+						 config.getProbNewDemand(), config.getInteraxLR() };
+		if(!Arrays.equals(stored, params)) {
+			throw new IOException("run "+run+" in the store was made with other parameters "+
+								  Arrays.toString(stored)+", is this the same sweep?");
+		}
+		return true;
+	}
+
+	private void reportProgress(long starttime) {
+		int done = this.n_done.incrementAndGet();
+		long elapsed = System.currentTimeMillis()-starttime;
+		SimLog.info(LogCategory.SWEEP, "Sweep: {}/{} runs done, about {} s left", done, this.n_jobs,
+					(elapsed*(this.n_jobs-done)/done)/1000);
+	}
+
+	/*
+	 * Getters and Setters
+	 */
+	public double getProgress() {
+		return this.n_jobs == 0 ? 1.0 : this.n_done.get()/(double)this.n_jobs;
+	}
+
+	public int getNumReplicates() { return n_replicates; }
+	public void setNumReplicates(int n_replicates) {
+		this.n_replicates = Math.max(1, n_replicates);
+	}
+
+	public int getNumThreads() { return n_threads; }
+	public void setNumThreads(int n_threads) {
+		this.n_threads = Math.max(1, n_threads);
+	}
+
+	public long getMasterSeed() { return master_seed; }
+	public void setMasterSeed(long master_seed) {
+		this.master_seed = master_seed;
+	}
+}
@@ -0,0 +1,109 @@
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ *  ProgressCounters for Agent Based Modeling
+ *  @author Chad Holmes
+ *
+ *  MIT EM.426 Spring 2021 class
+ *
+ *  Running totals for progress reports, kept up to date by the Agents
+ *  as they complete, roll back and commit Demands and collaborate, so a
+ *  report does not have to rescan every agent's task lists:
+ *
+ *  - completed: Demands in at least one agent's completed (not yet
+ *    committed) task list
+ *  - committed: Demands committed by at least one agent
+ *  - collaborations: agent interactions (each collaboration is noted by
+ *    both agents, so this is half of them)
+ *
+ *  A Demand may be listed by more than one agent (both sides of a
+ *  collaboration list it), so each Demand counts its list entries (and
+ *  commits) and is only counted here while it has any.  Agents commit on AgentWorkPool
+ *  threads, hence the atomics.
+ */
+
+public class ProgressCounters {
+
+	private final AtomicInteger n_completed;
+	private final AtomicInteger n_committed;
+	private final AtomicInteger n_interactions;
+
+	/*
+	 * Constructor
+	 */
+	public ProgressCounters() {
+		this.n_completed = new AtomicInteger();
+		this.n_committed = new AtomicInteger();
+		this.n_interactions = new AtomicInteger();
+	}
+
+	/*
+	 * Agent task list changes
+	 */
+	// d was added to a completed task list
+	public void completed(Demand d) {
+		if(d.addCompletedRefs(1) == 1) {
+			n_completed.incrementAndGet();
+		}
+	}
+
+	// d was removed from a completed task list (rolled back)
+	public void uncompleted(Demand d) {
+		if(d.addCompletedRefs(-1) == 0) {
+			n_completed.decrementAndGet();
+		}
+	}
+
+	// d was moved from a completed to a committed task list
+	public void committed(Demand d) {
+		this.uncompleted(d);
+		if(d.addCommittedRefs(1) == 1) {
+			n_committed.incrementAndGet();
+		}
+	}
+
+	// an agent noted an interaction with a collaborator
+	public void interacted() {
+		n_interactions.incrementAndGet();
+	}
+
+	// recount completed demands and interactions (e.g. after agents were 
+	// restored from a checkpoint); committed demands are archived rather 
+	// than listed, so that total is restored with setNumCommitted
+	public void rebuild(List<Agent> agents) {
+		n_completed.set(0);
+		n_interactions.set(0);
+		for (Agent a : agents) {
+			for (Demand d : a.getCompletedtasks()) {
+				d.clearCompletedRefs();
+			}
+		}
+		for (Agent a : agents) {
+			for (Demand d : a.getCompletedtasks()) {
+				this.completed(d);
+			}
+			n_interactions.addAndGet(a.getCollaborationCount());
+		}
+	}
+
+	/*
+	 * Getters
+	 */
+	public int getNumCompleted() {
+		return n_completed.get();
+	}
+
+	public int getNumCommitted() {
+		return n_committed.get();
+	}
+
+	void setNumCommitted(int n) {
+		n_committed.set(n);
+	}
+
+	// collaborations are noted by both agents
+	public int getNumCollaborations() {
+		return n_interactions.get()/2;
+	}
+}
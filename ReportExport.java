@@ -0,0 +1,199 @@
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.TreeMap;
+
+/*
+ *  ReportExport for Agent Based Modeling
+ *  @author Chad Holmes
+ *
+ *  MIT EM.426 Spring 2021 class
+ *
+ *  Converts a BinaryReportSink file back into the comma-separated text
+ *  reports written by TextReportSink: an agent_report and an
+ *  interaction_report per run, and a montecarlo_report per parameter
+ *  set with one line per run (in run id order).  Per-run file names end
+ *  in _run<id>.
+ *
+ *  usage: java ReportExport report.emr [output_dir]
+ */
+
+public class ReportExport {
+
+	// parameters and rows of one run, as read from the file
+	private static class RunReport {
+		String params; // agents_cycles_demands_prob
+		StringBuilder agents = new StringBuilder();
+		StringBuilder interactions = new StringBuilder();
+		StringBuilder collabs = new StringBuilder();
+	}
+
+	private final ArrayList<String> names = new ArrayList<String>();
+	private final TreeMap<Integer,RunReport> runs = new TreeMap<Integer,RunReport>(); // by run id
+
+	public static void main(String args[]) {
+
+		if(args.length < 1 || args.length > 2) {
+			System.err.println("usage: java ReportExport report.emr [output_dir]");
+			System.exit(1);
+		}
+
+		try {
+			ReportExport export = new ReportExport();
+			export.read(Paths.get(args[0]));
+			export.write(Paths.get(args.length > 1 ? args[1] : "."));
+		}
+		catch (IOException e) {
+			System.err.println("Failed to export "+args[0]+": "+e.getMessage());
+			System.exit(1);
+		}
+	}
+
+	// decode a binary report file
+	public void read(Path file) throws IOException {
+		try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+			MappedByteBuffer in = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+
+			try {
+				for (byte b : BinaryReportSink.MAGIC) {
+					if(in.get() != b) {
+						throw new IOException("not a binary report file");
+					}
+				}
+				if(in.get() != BinaryReportSink.VERSION) {
+					throw new IOException("unsupported binary report version");
+				}
+				this._readRecords(in);
+			}
+			catch (BufferUnderflowException e) {
+				throw new IOException("truncated binary report file");
+			}
+		}
+	}
+
+	// read records up to the END record
+	private void _readRecords(ByteBuffer in) throws IOException {
+		while (in.hasRemaining()) {
+			byte tag = in.get();
+			switch(tag) {
+			case BinaryReportSink.NAME:
+				int id = _varint(in);
+				byte[] bytes = new byte[_varint(in)];
+				in.get(bytes);
+				if(id != names.size()) {
+					throw new IOException("name ids out of order");
+				}
+				names.add(new String(bytes, StandardCharsets.UTF_8));
+				break;
+			case BinaryReportSink.RUN:
+				RunReport rr = this._run(_varint(in));
+				rr.params = _varint(in)+"_"+_varint(in)+"_"+_varint(in)+"_"+_varint(in);
+				_varint(in); // interaction learning rate
+				break;
+			case BinaryReportSink.AGENTS:
+				this._readAgents(in);
+				break;
+			case BinaryReportSink.INTERACTIONS:
+				this._readInteractions(in);
+				break;
+			case BinaryReportSink.COLLABS:
+				this._readCollabs(in);
+				break;
+			case BinaryReportSink.END:
+				return;
+			default:
+				throw new IOException("unknown record '"+(char)tag+"'");
+			}
+		}
+		throw new IOException("truncated binary report file");
+	}
+
+	// write the text reports into dir
+	public void write(Path dir) throws IOException {
+		LinkedHashMap<String,StringBuilder> montecarlo = new LinkedHashMap<String,StringBuilder>();
+
+		for (Integer run : runs.keySet()) {
+			RunReport rr = runs.get(run);
+			String suffix = rr.params+"_run"+run+".txt";
+			_writeFile(dir.resolve("agent_report_"+suffix), rr.agents);
+			_writeFile(dir.resolve("interaction_report_"+suffix), rr.interactions);
+			montecarlo.computeIfAbsent(rr.params, k -> new StringBuilder()).append(rr.collabs).append("\n");
+		}
+		for (String params : montecarlo.keySet()) {
+			_writeFile(dir.resolve("montecarlo_report_"+params+".txt"), montecarlo.get(params));
+		}
+	}
+
+	/*
+	 * Helper Functions
+	 */
+	private void _readAgents(ByteBuffer in) throws IOException {
+		int n = _varint(in);
+		int[] run = _column(in, n);
+		int[] agent = _column(in, n);
+		for (int i = 0; i < n; i++) {
+			this._run(run[i]).agents.append(this._name(agent[i])).append("\n");
+		}
+	}
+
+	private void _readInteractions(ByteBuffer in) throws IOException {
+		int n = _varint(in);
+		int[] run = _column(in, n);
+		int[] agent = _column(in, n);
+		int[] other = _column(in, n);
+		int[] count = _column(in, n);
+		for (int i = 0; i < n; i++) {
+			this._run(run[i]).interactions.append(this._name(agent[i])).append(",")
+										  .append(this._name(other[i])).append(",")
+										  .append(count[i]).append("\n");
+		}
+	}
+
+	private void _readCollabs(ByteBuffer in) throws IOException {
+		int n = _varint(in);
+		int[] run = _column(in, n);
+		_column(in, n); // agent
+		int[] count = _column(in, n);
+		for (int i = 0; i < n; i++) {
+			this._run(run[i]).collabs.append(count[i]).append(",");
+		}
+	}
+
+	private RunReport _run(int run) {
+		return runs.computeIfAbsent(run, k -> new RunReport());
+	}
+
+	private String _name(int id) throws IOException {
+		if(id < 0 || id >= names.size()) {
+			throw new IOException("unknown name id "+id);
+		}
+		return names.get(id);
+	}
+
+	private static int[] _column(ByteBuffer in, int n) {
+		int[] col = new int[n];
+		for (int i = 0; i < n; i++) {
+			col[i] = _varint(in);
+		}
+		return col;
+	}
+
+	private static int _varint(ByteBuffer in) {
+		return BinaryReportSink.readVarint(in);
+	}
+
+	private static void _writeFile(Path file, CharSequence text) throws IOException {
+		try (FileWriter w = new FileWriter(file.toFile())) {
+			w.append(text);
+		}
+	}
+}
@@ -1,6 +1,5 @@
-import java.beans.PropertyChangeListener;
 /*
- *  ScienceAgent is a scientist Agent with a PropertyChangeListener 
+ *  ScienceAgent is a scientist Agent with an ISimEventListener 
  *  for use in Agent Based Modeling
  *  @author Chad Holmes
  *
@@ -9,7 +8,7 @@ import java.beans.PropertyChangeListener;
  *  The ScienceAgent class ... is a Scientist Agent
  *  
  */
-public class ScienceAgent extends Agent implements PropertyChangeListener {
+public class ScienceAgent extends Agent implements ISimEventListener {
 
 	/*
 	 * Constructors
@@ -26,6 +25,16 @@ public class ScienceAgent extends Agent implements PropertyChangeListener {
 		super(name, efficiency);
 		initialize();
 	}
+	
+	// with its own random number stream (see SimEnvironment.createAgents)
+	public ScienceAgent(String name, SimRandom rand) {
+		this(name, 90, rand);
+	}
+	
+	public ScienceAgent(String name, int efficiency, SimRandom rand) {
+		super(name, efficiency, rand);
+		initialize();
+	}
 
 	/* 
 	 * Helper functions
@@ -0,0 +1,196 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutionException;
+
+/*
+ *  SimBatchRunner for Agent Based Modeling
+ *  @author Chad Holmes
+ *  
+ *  MIT EM.426 Spring 2021 class
+ *  
+ *  Headless entry point for the simulation. Runs a SimEnvironment
+ *  without any JavaFX front end, so the cycle loop is never paused 
+ *  for UI redraws. Report files are written to the working directory
+ *  just like a UI-driven run.
+ *  
+ *  When more than one monte carlo run is requested, the runs are
+ *  executed concurrently by a MonteCarloEnsemble.
+ *  
+ *  usage: java SimBatchRunner n_agents n_cycles n_init_demands prob_new_demand 
+ *                             [interax_lr [n_runs [n_threads]]]
+ *  
+ *  Console logging is controlled by SimLog system properties, e.g.
+ *  -Dsim.log.level=OFF for a silent run or -Dsim.log.task=DEBUG
+ *  
+ *  -Dsim.report=binary writes every run into a single BinaryReportSink
+ *  file (sim_report_*.emr) instead of the text reports; ReportExport
+ *  turns it back into text.
+ *  
+ *  -Dsim.seed=N sets the master seed (default 43) that every random
+ *  number stream of the run(s) is split from.
+ *  
+ *  -Dsim.parallel=N runs the agent-local phases of each cycle of a single
+ *  run on N threads (see AgentWorkPool); results do not change.
+ *  
+ *  -Dsim.engine=event steps agents as discrete events (see 
+ *  SimEnvironment.runEvents) instead of in cycles (-Dsim.engine=cycle,
+ *  the default); results differ between the two.
+ *  
+ *  -Dsim.archive=true writes each run's committed work to a CommitArchive
+ *  file (commit_archive_*_run<id>.emca).
+ *  
+ *  -Dsim.checkpoint.every=N saves a single run to a SimCheckpoint every
+ *  N cycles (to -Dsim.checkpoint.file, default sim_checkpoint_*.emck).
+ *  -Dsim.restore=file continues a saved run instead of starting a new
+ *  one; the arguments are then optional and ignored.
+ */
+
+public class SimBatchRunner {
+
+	public static void main(String args[]) {
+		
+		// continue a checkpointed run
+		String restore = System.getProperty("sim.restore");
+		if(restore != null) {
+			resume(Paths.get(restore));
+			return;
+		}
+		
+		if(args.length < 4 || args.length > 7) {
+			System.err.println("usage: java SimBatchRunner n_agents n_cycles n_init_demands prob_new_demand "+
+							   "[interax_lr [n_runs [n_threads]]]");
+			System.exit(1);
+		}
+		
+		/****** CREATE ENVIRONMENT ******/
+		SimEnvironment sim = new SimEnvironment();
+		int n_threads = Runtime.getRuntime().availableProcessors();
+		
+		try {
+			sim.setNumAgents(Integer.parseInt(args[0]));
+			sim.setNumCycles(Integer.parseInt(args[1]));
+			sim.setNumInitDemands(Integer.parseInt(args[2]));
+			sim.setProbNewDemand(Integer.parseInt(args[3]));
+			if(args.length > 4) {
+				sim.setInteraxLR(Integer.parseInt(args[4]));
+			}
+			if(args.length > 5) {
+				sim.setNumMCRuns(Integer.parseInt(args[5]));
+			}
+			if(args.length > 6) {
+				n_threads = Integer.parseInt(args[6]);
+			}
+		}
+		catch (NumberFormatException e) {
+			System.err.println("SimBatchRunner arguments must be integers: "+e.getMessage());
+			System.exit(1);
+		}
+		
+		sim.setSeed(Long.getLong("sim.seed", SimEnvironment.DEFAULT_SEED));
+		sim.setParallelism(Integer.getInteger("sim.parallel", 1));
+		
+		// pick the engine
+		String engine = System.getProperty("sim.engine", "cycle");
+		if(engine.equalsIgnoreCase("event")) {
+			sim.setEventDriven(true);
+		}
+		else if(!engine.equalsIgnoreCase("cycle")) {
+			System.err.println("sim.engine must be cycle or event, not "+engine);
+			System.exit(1);
+		}
+		
+		// keep committed work on disk (if asked to)
+		sim.setArchiveCommits(Boolean.getBoolean("sim.archive"));
+		
+		// no UI attached, run flat-out
+		sim.setPacingPolicy(new HeadlessPacingPolicy());
+		
+		// pick the report format
+		String format = System.getProperty("sim.report", "text");
+		if(format.equalsIgnoreCase("binary")) {
+			try {
+				sim.setReportSink(new BinaryReportSink(Paths.get(sim.reportFileName("sim_report", false, ".emr"))));
+			}
+			catch (IOException e) {
+				System.err.println("Cannot open binary report: "+e.getMessage());
+				System.exit(1);
+			}
+		}
+		else if(!format.equalsIgnoreCase("text")) {
+			System.err.println("sim.report must be text or binary, not "+format);
+			System.exit(1);
+		}
+		
+		// checkpoint a single run every so often (if asked to)
+		int every = Integer.getInteger("sim.checkpoint.every", 0);
+		if(every > 0) {
+			if(sim.getNumMCRuns() > 1) {
+				System.err.println("sim.checkpoint.every applies to a single run, ignored");
+			}
+			else {
+				sim.setCheckpoint(every, Paths.get(System.getProperty("sim.checkpoint.file", 
+										sim.reportFileName("sim_checkpoint", false, ".emck"))));
+			}
+		}
+		
+		/****** RUN SIMULATION ******/
+		long starttime = System.currentTimeMillis();
+		if(sim.getNumMCRuns() > 1) {
+			try {
+				new MonteCarloEnsemble(sim, n_threads, sim.getSeed()).run();
+			}
+			catch (InterruptedException e) {
+				System.err.println("Monte Carlo ensemble interrupted.");
+				closeReport(sim);
+				return;
+			}
+			catch (ExecutionException e) {
+				System.err.println(e.getMessage()+": "+e.getCause());
+				closeReport(sim);
+				System.exit(1);
+			}
+		}
+		else {
+			sim.start();
+		}
+		
+		closeReport(sim);
+		
+		SimLog.flush();
+		System.out.println("Headless simulation finished in "+
+						   (System.currentTimeMillis()-starttime)+" ms");
+	}
+	
+	// restore a SimCheckpoint and run it to the end (text reports)
+	private static void resume(Path file) {
+		SimEnvironment sim = null;
+		try {
+			sim = SimCheckpoint.read(file);
+		}
+		catch (IOException e) {
+			System.err.println("Cannot restore checkpoint: "+e.getMessage());
+			System.exit(1);
+		}
+		sim.setPacingPolicy(new HeadlessPacingPolicy());
+		sim.setParallelism(Integer.getInteger("sim.parallel", 1));
+		
+		long starttime = System.currentTimeMillis();
+		sim.resume();
+		closeReport(sim);
+		
+		SimLog.flush();
+		System.out.println("Restored simulation finished in "+
+						   (System.currentTimeMillis()-starttime)+" ms");
+	}
+	
+	// close the report sink (writes out whatever is still buffered)
+	private static void closeReport(SimEnvironment sim) {
+		try {
+			sim.getReportSink().close();
+		}
+		catch (IOException e) {
+			System.err.println("Failed to close report: "+e.getMessage());
+		}
+	}
+}
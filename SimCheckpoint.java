@@ -0,0 +1,724 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Hashtable;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.UUID;
+
+import javafx.collections.ObservableList;
+import javafx.scene.chart.XYChart.Data;
+
+/*
+ *  SimCheckpoint for Agent Based Modeling
+ *  @author Chad Holmes
+ *
+ *  MIT EM.426 Spring 2021 class
+ *
+ *  Saves a running SimEnvironment to a binary snapshot and restores it,
+ *  so a long run can be resumed (see SimEnvironment.setCheckpoint and
+ *  runCycles).  A restored run continues exactly as the original would
+ *  have: the snapshot holds the DemandList, every Agent (backlog, task
+ *  lists, ledger, interactions, resources, times and state), pending
+ *  requests, progress time series, CommitArchive totals and the random
+ *  number generator states.  Committed Demands are only in the archive,
+ *  so they are not saved (just how many each agent committed); a
+ *  restored run does not write an archive file.
+ *
+ *  Demands are written once and referred to by index everywhere else,
+ *  so links between objects (Demand.ancillaryDemand, Demand.creator,
+ *  a collaboration Demand sharing its partial table with the original,
+ *  the same Demand in several lists) come back as links to the same
+ *  objects.  UUIDs are shared the same way.  Agents are re-created from their class name
+ *  and then given the saved state; Demand and Supply dates and times
+ *  are restored as saved.
+ *
+ *  Not saved: the pacing policy, report sink and checkpoint settings of
+ *  the environment (restored runs get the defaults), and state private
+ *  to an Agent subclass (none of the simulation's agents have any).
+ *
+ *  Snapshots are written to a temporary file and moved into place, so
+ *  a crash while writing leaves the previous snapshot intact.
+ */
+
+public final class SimCheckpoint {
+
+	private static final int MAGIC = 0x454D434B; // "EMCK"
+	private static final int VERSION = 6;
+	private static final int NONE = -1;
+	private static final long NO_DATE = Long.MIN_VALUE;
+
+	private static final DemandPriority[] PRIORITIES = DemandPriority.values();
+	private static final DemandType[] DEMAND_TYPES = DemandType.values();
+	private static final DemandState[] DEMAND_STATES = DemandState.values();
+	private static final SupplyType[] SUPPLY_TYPES = SupplyType.values();
+	private static final SupplyState[] SUPPLY_STATES = SupplyState.values();
+	private static final SupplyQuality[] QUALITIES = SupplyQuality.values();
+	private static final AgentState[] AGENT_STATES = AgentState.values();
+
+	// object <-> index tables for the snapshot being written or read
+	private final IdentityHashMap<Demand,Integer> demand_ids = new IdentityHashMap<Demand,Integer>();
+	private final ArrayList<Demand> demands = new ArrayList<Demand>();
+	private final IdentityHashMap<Agent,Integer> agent_ids = new IdentityHashMap<Agent,Integer>();
+	private final ArrayList<Agent> agents = new ArrayList<Agent>();
+	private final IdentityHashMap<int[],Integer> partial_ids = new IdentityHashMap<int[],Integer>();
+	private final ArrayList<int[]> partials = new ArrayList<int[]>();
+	private final HashMap<UUID,UUID> uuids = new HashMap<UUID,UUID>();
+
+	private SimCheckpoint() {}
+
+	/*
+	 * write a snapshot of sim to file (between cycles)
+	 */
+	public static void write(SimEnvironment sim, Path file) throws IOException {
+		Path tmp = file.resolveSibling(file.getFileName()+".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+			new SimCheckpoint()._write(sim, out);
+		}
+		try {
+			Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (AtomicMoveNotSupportedException e) {
+			Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/*
+	 * read a snapshot into a new SimEnvironment, ready for runCycles()
+	 */
+	public static SimEnvironment read(Path file) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+			return new SimCheckpoint()._read(in);
+		}
+	}
+
+	/*
+	 * Writing
+	 */
+	private void _write(SimEnvironment sim, DataOutputStream out) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+
+		// settings
+		out.writeInt(sim.getNumAgents());
+		out.writeInt(sim.getNumCycles());
+		out.writeInt(sim.getNumInitDemands());
+		out.writeInt(sim.getProbNewDemand());
+		out.writeInt(sim.getInteraxLR());
+		out.writeInt(sim.getNumSciAgents().get());
+		out.writeInt(sim.getNumEngAgents().get());
+		out.writeInt(sim.getNumMgrAgents().get());
+		out.writeInt(sim.getNumMCRuns());
+		out.writeUTF(sim.getReportTag());
+		out.writeInt(sim.getRunId());
+
+		// progress
+		out.writeInt(sim.getCycle());
+		out.writeInt(sim.getLastReportTime());
+		out.writeInt(sim.getGlobalTime().get());
+		out.writeDouble(sim.getProgress().get());
+		out.writeInt(sim.getNumCollaborations());
+		out.writeInt(sim.getNumCompleted());
+		out.writeInt(sim.getNumCommitted());
+		out.writeInt(sim.getProgressCounters().getNumCommitted());
+		long[] totals = sim.getCommitArchive().getTotals();
+		out.writeInt(totals.length);
+		for (long t : totals) {
+			out.writeLong(t);
+		}
+		out.writeBoolean(sim.isFinished());
+		out.writeLong(sim.getSeed());
+		for (SimRandom r : sim.getRandomStreams()) {
+			this._writeRandom(out, r);
+		}
+		this._writeTimeseries(out, sim.getCompleteTimeseries());
+		this._writeTimeseries(out, sim.getCommitTimeseries());
+		this._writeTimeseries(out, sim.getCollabTimeseries());
+		out.writeInt(sim.getMcRxTimeseries().size());
+		for (ArrayList<Integer> al : sim.getMcRxTimeseries()) {
+			out.writeInt(al.size());
+			for (Integer i : al) {
+				out.writeInt(i);
+			}
+		}
+
+		// number every object first, so links can be written as indices
+		for (Agent a : sim.getRegisteredAgents()) {
+			agent_ids.put(a, agents.size());
+			agents.add(a);
+		}
+		for (Demand d : sim.getDemandList()) {
+			this._addDemand(d);
+		}
+		int n_listed = demands.size();
+		for (Agent a : agents) {
+			this._addDemands(a.completed_tasks);
+			this._addDemands(a.abandoned_tasks);
+			this._addDemands(a.backlog_tasks);
+			a.getCurrenttask().ifPresent(this::_addDemand);
+			a.getBackup().ifPresent(this::_addDemand);
+		}
+		this._addDemands(sim.getCollabDemands());
+		for (int i = 0; i < demands.size(); i++) {
+			// follow links (the list grows as new demands are found)
+			Demand d = demands.get(i);
+			d.ancillaryDemand.ifPresent(this::_addDemand);
+			if(!partial_ids.containsKey(d.getPartial())) {
+				partial_ids.put(d.getPartial(), partials.size());
+				partials.add(d.getPartial());
+			}
+		}
+
+		// agents (type and identity)
+		out.writeInt(agents.size());
+		for (Agent a : agents) {
+			out.writeUTF(a.getClass().getName());
+			this._writeUUID(out, a.getId());
+			out.writeUTF(a.getName());
+			out.writeInt(a.getEfficiency());
+		}
+
+		// partial tables
+		out.writeInt(partials.size());
+		for (int[] p : partials) {
+			out.writeInt(p.length);
+			for (int effort : p) {
+				out.writeInt(effort);
+			}
+		}
+
+		// demands (those in the DemandList first, in list order)
+		out.writeInt(demands.size());
+		out.writeInt(n_listed);
+		for (Demand d : demands) {
+			this._writeDemand(out, d);
+		}
+
+		// agent state
+		for (Agent a : agents) {
+			this._writeAgent(out, a);
+		}
+
+		// environment lists
+		this._writeAgentRefs(out, sim.getAgentList());
+		this._writeDemandRefs(out, sim.getCollabDemands());
+		this._writeAgentRefs(out, sim.getCollabAgents());
+		this._writeAgentRefs(out, sim.getResyncRequests());
+	}
+
+	private void _writeDemand(DataOutputStream out, Demand d) throws IOException {
+		this._writeUUID(out, d.getId());
+		out.writeUTF(d.getName());
+		out.writeByte(d.getPriority().ordinal());
+		out.writeByte(d.getType().ordinal());
+		out.writeByte(d.getState().ordinal());
+		out.writeInt(d.getEffort());
+		out.writeInt(d.getStart());
+		out.writeInt(d.getStop());
+		out.writeBoolean(d.getRecur());
+		out.writeInt(d.getEvery());
+		out.writeInt(d.getUntil());
+		out.writeLong(d.getStartdate() == null ? NO_DATE : d.getStartdate().toEpochDay());
+		out.writeLong(d.getCompletedate() == null ? NO_DATE : d.getCompletedate().toEpochDay());
+		out.writeInt(d.ancillaryDemand.isPresent() ? demand_ids.get(d.ancillaryDemand.get()) : NONE);
+		out.writeInt(d.creator.isPresent() ? this._agentId(d.creator.get()) : NONE);
+		out.writeInt(partial_ids.get(d.getPartial()));
+		out.writeInt(d.getCommittedRefs());
+	}
+
+	private void _writeAgent(DataOutputStream out, Agent a) throws IOException {
+		out.writeByte(a.getState().ordinal());
+		out.writeInt(a.getMaxWaitCycles().get());
+		out.writeInt(a.getCyclesSinceSync());
+		out.writeInt(a.getNumUrgent());
+		out.writeInt(a.getBackup().isPresent() ? demand_ids.get(a.getBackup().get()) : NONE);
+		out.writeInt(a.getCurrenttask().isPresent() ? demand_ids.get(a.getCurrenttask().get()) : NONE);
+		out.writeInt(a.getAgentTime());
+		out.writeInt(a.getWaitTime());
+		out.writeInt(a.getStepsSinceLastActive());
+		this._writeRandom(out, a.rand);
+		out.writeDouble(a.getInteraxLearningRate());
+
+		out.writeInt(a.resources.size());
+		for (Supply s : a.resources) {
+			this._writeSupply(out, s);
+		}
+
+		out.writeInt(a.n_committed);
+		this._writeDemandRefs(out, a.completed_tasks);
+		this._writeDemandRefs(out, a.abandoned_tasks);
+		this._writeDemandRefs(out, a.backlog_tasks);
+
+		out.writeInt(a.ledger.size());
+		for (Entry<UUID,LedgerEntry> e : a.ledger.entrySet()) {
+			LedgerEntry le = e.getValue();
+			this._writeUUID(out, e.getKey());
+			out.writeInt(le.getTimeAtStart());
+			out.writeInt(le.getTimeAtFinish());
+			out.writeInt(le.undo_len);
+			for (int j = le.undo_at; j < le.undo_at+le.undo_len; j++) {
+				out.writeInt(a.undo.get(j));
+			}
+		}
+		
+		out.writeInt(a.committed_ledger.size());
+		for (int i = 0; i < a.committed_ledger.capacity(); i++) {
+			if(a.committed_ledger.isUsed(i)) {
+				this._writeUUID(out, a.committed_ledger.idAt(i));
+				out.writeInt(a.committed_ledger.startAt(i));
+				out.writeInt(a.committed_ledger.finishAt(i));
+			}
+		}
+
+		// in iteration order, which the reports follow
+		out.writeInt(a.interactions.size());
+		for (Entry<String,Integer> e : a.interactions.entrySet()) {
+			out.writeUTF(e.getKey());
+			out.writeInt(e.getValue());
+		}
+	}
+
+	private void _writeSupply(DataOutputStream out, Supply s) throws IOException {
+		this._writeUUID(out, s.getId());
+		out.writeUTF(s.getName());
+		out.writeByte(s.getType().ordinal());
+		out.writeByte(s.getState().ordinal());
+		out.writeInt(s.getCapacity());
+		out.writeInt(s.getAmount());
+		out.writeByte(s.getQuality().ordinal());
+		out.writeInt(s.getEfficiency());
+		out.writeBoolean(s.getReplenish());
+		out.writeInt(s.getEvery());
+		out.writeLong(s.getUntil());
+		out.writeInt(s.getLifespan());
+		out.writeLong(s.getStarttime());
+		out.writeLong(s.getExpirytime());
+		out.writeLong(s.getLastreplenish());
+		out.writeInt(s.getLearningthreshold());
+		out.writeInt(s.getLearningcounter());
+	}
+
+	private void _writeRandom(DataOutputStream out, SimRandom r) throws IOException {
+		out.writeLong(r.getState());
+		out.writeLong(r.getGamma());
+	}
+
+	private void _writeTimeseries(DataOutputStream out, ObservableList<Data<Number,Number>> ts) throws IOException {
+		out.writeInt(ts.size());
+		for (Data<Number,Number> d : ts) {
+			out.writeInt(d.getXValue().intValue());
+			out.writeInt(d.getYValue().intValue());
+		}
+	}
+
+	private void _writeDemandRefs(DataOutputStream out, Iterable<Demand> ds) throws IOException {
+		int n = 0;
+		for (Iterator<Demand> it = ds.iterator(); it.hasNext(); it.next()) {
+			n++;
+		}
+		out.writeInt(n);
+		for (Demand d : ds) {
+			out.writeInt(demand_ids.get(d));
+		}
+	}
+
+	private void _writeAgentRefs(DataOutputStream out, ArrayList<Agent> as) throws IOException {
+		out.writeInt(as.size());
+		for (Agent a : as) {
+			out.writeInt(this._agentId(a));
+		}
+	}
+
+	private void _writeUUID(DataOutputStream out, UUID id) throws IOException {
+		out.writeLong(id.getMostSignificantBits());
+		out.writeLong(id.getLeastSignificantBits());
+	}
+
+	private void _addDemand(Demand d) {
+		if(!demand_ids.containsKey(d)) {
+			demand_ids.put(d, demands.size());
+			demands.add(d);
+		}
+	}
+
+	private void _addDemands(Iterable<Demand> ds) {
+		for (Demand d : ds) {
+			this._addDemand(d);
+		}
+	}
+
+	private int _agentId(Agent a) throws IOException {
+		Integer id = agent_ids.get(a);
+		if(id == null) {
+			throw new IOException("agent "+a.getName()+" is not part of the simulation");
+		}
+		return id;
+	}
+
+	/*
+	 * Reading
+	 */
+	private SimEnvironment _read(DataInputStream in) throws IOException {
+		if(in.readInt() != MAGIC) {
+			throw new IOException("not a simulation checkpoint");
+		}
+		if(in.readInt() != VERSION) {
+			throw new IOException("unsupported checkpoint version");
+		}
+
+		SimEnvironment sim = new SimEnvironment();
+
+		// settings
+		sim.setNumAgents(in.readInt());
+		sim.setNumCycles(in.readInt());
+		sim.setNumInitDemands(in.readInt());
+		sim.setProbNewDemand(in.readInt());
+		sim.setInteraxLR(in.readInt());
+		sim.setNumSciAgents(in.readInt());
+		sim.setNumEngAgents(in.readInt());
+		sim.setNumMgrAgents(in.readInt());
+		sim.setNumMCRuns(in.readInt());
+		sim.setReportTag(in.readUTF());
+		sim.setRunId(in.readInt());
+
+		// progress (applied once the run is rebuilt)
+		int cycle = in.readInt();
+		int last_report_time = in.readInt();
+		int global_time = in.readInt();
+		double progress = in.readDouble();
+		int n_collab = in.readInt();
+		int n_comp = in.readInt();
+		int n_comm = in.readInt();
+		int n_counted = in.readInt();
+		long[] totals = new long[in.readInt()];
+		if(totals.length != sim.getCommitArchive().getTotals().length) {
+			throw new IOException("commit archive totals do not match");
+		}
+		for (int i = 0; i < totals.length; i++) {
+			totals[i] = in.readLong();
+		}
+		boolean finished = in.readBoolean();
+		long seed = in.readLong();
+		SimRandom[] streams = new SimRandom[3];
+		for (int i = 0; i < streams.length; i++) {
+			streams[i] = new SimRandom();
+			this._readRandom(in, streams[i]);
+		}
+		ArrayList<Data<Number,Number>> complete_ts = this._readTimeseries(in);
+		ArrayList<Data<Number,Number>> commit_ts = this._readTimeseries(in);
+		ArrayList<Data<Number,Number>> collab_ts = this._readTimeseries(in);
+		int n_mc = in.readInt();
+		ArrayList<ArrayList<Integer>> mc = new ArrayList<ArrayList<Integer>>();
+		for (int r = 0; r < n_mc; r++) {
+			int n = in.readInt();
+			ArrayList<Integer> al = new ArrayList<Integer>(n);
+			for (int i = 0; i < n; i++) {
+				al.add(in.readInt());
+			}
+			mc.add(al);
+		}
+
+		// agents (type and identity)
+		int n_agents = in.readInt();
+		for (int i = 0; i < n_agents; i++) {
+			String cls = in.readUTF();
+			UUID id = this._readUUID(in);
+			String name = in.readUTF();
+			int efficiency = in.readInt();
+			Agent a = this._newAgent(cls, name, efficiency);
+			a.setId(id);
+			agents.add(a);
+		}
+
+		// partial tables
+		int n_partials = in.readInt();
+		for (int i = 0; i < n_partials; i++) {
+			int[] p = Demand.newPartial();
+			if(in.readInt() != p.length) {
+				throw new IOException("partial table does not match SupplyType");
+			}
+			for (int j = 0; j < p.length; j++) {
+				p[j] = in.readInt();
+			}
+			partials.add(p);
+		}
+
+		// demands (links resolved once all are read)
+		int n_demands = in.readInt();
+		int n_listed = in.readInt();
+		int[] ancillary = new int[n_demands];
+		for (int i = 0; i < n_demands; i++) {
+			demands.add(this._readDemand(in, ancillary, i));
+		}
+		for (int i = 0; i < n_demands; i++) {
+			if(ancillary[i] != NONE) {
+				demands.get(i).setAncillaryDemand(this._demand(ancillary[i]));
+			}
+		}
+
+		// agent state
+		for (Agent a : agents) {
+			this._readAgent(in, a);
+		}
+
+		// environment
+		ArrayList<Agent> ordered = this._readAgentRefs(in);
+		sim.restoreRun(new ArrayList<Demand>(demands.subList(0, n_listed)), agents, ordered);
+		sim.getProgressCounters().setNumCommitted(n_counted);
+		sim.getCommitArchive().setTotals(totals);
+		sim.getCollabDemands().addAll(this._readDemandRefs(in));
+		sim.getCollabAgents().addAll(this._readAgentRefs(in));
+		sim.getResyncRequests().addAll(this._readAgentRefs(in));
+
+		sim.setCycle(cycle);
+		sim.setLastReportTime(last_report_time);
+		sim.setGlobalTime(global_time);
+		sim.setProgress(progress);
+		sim.setNumCollaborations(n_collab);
+		sim.setNumCompleted(n_comp);
+		sim.setNumCommitted(n_comm);
+		sim.setFinished(finished);
+		sim.setSeed(seed);
+		SimRandom[] sim_streams = sim.getRandomStreams();
+		for (int i = 0; i < streams.length; i++) {
+			sim_streams[i].setState(streams[i].getState(), streams[i].getGamma());
+		}
+		sim.getCompleteTimeseries().addAll(complete_ts);
+		sim.getCommitTimeseries().addAll(commit_ts);
+		sim.getCollabTimeseries().addAll(collab_ts);
+		sim.setMcRxTimeseries(mc);
+		return sim;
+	}
+
+	private Demand _readDemand(DataInputStream in, int[] ancillary, int i) throws IOException {
+		UUID id = this._readUUID(in);
+		String name = in.readUTF();
+		DemandPriority priority = PRIORITIES[in.readUnsignedByte()];
+		DemandType type = DEMAND_TYPES[in.readUnsignedByte()];
+		DemandState state = DEMAND_STATES[in.readUnsignedByte()];
+		int effort = in.readInt();
+		int start = in.readInt();
+		int stop = in.readInt();
+		boolean recur = in.readBoolean();
+		int every = in.readInt();
+		int until = in.readInt();
+
+		Demand d = new Demand(id, name, priority, type, state, effort, start, stop, recur, every, until);
+
+		long startdate = in.readLong();
+		long completedate = in.readLong();
+		d.setStartdate(startdate == NO_DATE ? null : LocalDate.ofEpochDay(startdate));
+		d.setCompletedate(completedate == NO_DATE ? null : LocalDate.ofEpochDay(completedate));
+
+		ancillary[i] = in.readInt();
+		int creator = in.readInt();
+		if(creator != NONE) {
+			d.setCreator(this._agent(creator));
+		}
+		int partial = in.readInt();
+		if(partial < 0 || partial >= partials.size()) {
+			throw new IOException("bad partial table reference "+partial);
+		}
+		d.setPartial(partials.get(partial));
+		d.addCommittedRefs(in.readInt());
+		return d;
+	}
+
+	private void _readAgent(DataInputStream in, Agent a) throws IOException {
+		a.setState(AGENT_STATES[in.readUnsignedByte()]);
+		a.setMaxWaitCycles(in.readInt());
+		a.setCyclesSinceSync(in.readInt());
+		a.setNumUrgent(in.readInt());
+		a.setBackup(this._optionalDemand(in.readInt()));
+		a.setCurrenttask(this._optionalDemand(in.readInt()));
+		a.setAgentTime(in.readInt());
+		a.setWaitTime(in.readInt());
+		a.setStepsSinceLastActive(in.readInt());
+		this._readRandom(in, a.rand);
+		a.setInteraxLearningRate(in.readDouble());
+
+		int n_supplies = in.readInt();
+		ArrayList<Supply> resources = new ArrayList<Supply>(n_supplies);
+		for (int i = 0; i < n_supplies; i++) {
+			resources.add(this._readSupply(in));
+		}
+		a.setResources(resources);
+
+		a.n_committed = in.readInt();
+		a.completed_tasks.clear();
+		a.completed_tasks.addAll(this._readDemandRefs(in));
+		a.new_completed.clear();
+		a.new_completed.addAll(a.completed_tasks);
+		a.commit_queue.clear();
+		a.abandoned_tasks.clear();
+		a.abandoned_tasks.addAll(this._readDemandRefs(in));
+		a.backlog_tasks = new DemandBacklog();
+		for (Demand d : this._readDemandRefs(in)) {
+			a.backlog_tasks.add(d);
+		}
+
+		a.ledger.clear();
+		a.undo.clear();
+		int n_ledger = in.readInt();
+		for (int i = 0; i < n_ledger; i++) {
+			UUID id = this._readUUID(in);
+			int start = in.readInt();
+			int finish = in.readInt();
+			int n_undo = in.readInt();
+			int mark = a.undo.mark();
+			for (int j = 0; j < n_undo; j++) {
+				a.undo.add(in.readInt());
+			}
+			LedgerEntry le = new LedgerEntry(start, finish-start);
+			a.undo.attach(le, mark);
+			a.ledger.put(id, le);
+		}
+		
+		a.committed_ledger.clear();
+		int n_committed = in.readInt();
+		for (int i = 0; i < n_committed; i++) {
+			UUID id = this._readUUID(in);
+			int start = in.readInt();
+			a.committed_ledger.add(id, start, in.readInt());
+		}
+
+		a.interactions = this._readInteractions(in);
+	}
+
+	private Supply _readSupply(DataInputStream in) throws IOException {
+		UUID id = this._readUUID(in);
+		String name = in.readUTF();
+		SupplyType type = SUPPLY_TYPES[in.readUnsignedByte()];
+		SupplyState state = SUPPLY_STATES[in.readUnsignedByte()];
+		int capacity = in.readInt();
+		int amount = in.readInt();
+		SupplyQuality quality = QUALITIES[in.readUnsignedByte()];
+		int efficiency = in.readInt();
+		boolean replenish = in.readBoolean();
+		int every = in.readInt();
+		long until = in.readLong();
+		int lifespan = in.readInt();
+
+		Supply s = new Supply(id, name, type, capacity, quality, efficiency, lifespan, replenish, every, until);
+		s.setState(state);
+		s.setAmount(amount);
+		s.setStarttime(in.readLong());
+		s.setExpirytime(in.readLong());
+		s.setLastreplenish(in.readLong());
+		s.setLearningthreshold(in.readInt());
+		s.setLearningcounter(in.readInt());
+		return s;
+	}
+
+	/*
+	 * a Hashtable iterates by bucket, so to get the saved iteration order
+	 * back, start from the capacity the original had grown to and put the
+	 * entries in reverse (each new entry goes to the front of its bucket)
+	 */
+	private Hashtable<String,Integer> _readInteractions(DataInputStream in) throws IOException {
+		int n = in.readInt();
+		String[] keys = new String[n];
+		int[] values = new int[n];
+		for (int i = 0; i < n; i++) {
+			keys[i] = in.readUTF();
+			values[i] = in.readInt();
+		}
+
+		// Hashtable growth from the default capacity (11, load factor 0.75)
+		int capacity = 11;
+		int threshold = (int)(capacity*0.75f);
+		for (int count = 0; count < n; count++) {
+			if(count >= threshold) {
+				capacity = (capacity << 1)+1;
+				threshold = (int)(capacity*0.75f);
+			}
+		}
+
+		Hashtable<String,Integer> interactions = new Hashtable<String,Integer>(capacity);
+		for (int i = n-1; i >= 0; i--) {
+			interactions.put(keys[i], values[i]);
+		}
+		return interactions;
+	}
+
+	private void _readRandom(DataInputStream in, SimRandom r) throws IOException {
+		long state = in.readLong();
+		r.setState(state, in.readLong());
+	}
+
+	private ArrayList<Data<Number,Number>> _readTimeseries(DataInputStream in) throws IOException {
+		int n = in.readInt();
+		ArrayList<Data<Number,Number>> ts = new ArrayList<Data<Number,Number>>(n);
+		for (int i = 0; i < n; i++) {
+			int x = in.readInt();
+			int y = in.readInt();
+			ts.add(new Data<Number,Number>(x, y));
+		}
+		return ts;
+	}
+
+	private ArrayList<Demand> _readDemandRefs(DataInputStream in) throws IOException {
+		int n = in.readInt();
+		ArrayList<Demand> ds = new ArrayList<Demand>(n);
+		for (int i = 0; i < n; i++) {
+			ds.add(this._demand(in.readInt()));
+		}
+		return ds;
+	}
+
+	private ArrayList<Agent> _readAgentRefs(DataInputStream in) throws IOException {
+		int n = in.readInt();
+		ArrayList<Agent> as = new ArrayList<Agent>(n);
+		for (int i = 0; i < n; i++) {
+			as.add(this._agent(in.readInt()));
+		}
+		return as;
+	}
+
+	// read a UUID, sharing one instance per value
+	private UUID _readUUID(DataInputStream in) throws IOException {
+		UUID id = new UUID(in.readLong(), in.readLong());
+		UUID shared = uuids.putIfAbsent(id, id);
+		return shared == null ? id : shared;
+	}
+
+	private Optional<Demand> _optionalDemand(int ref) throws IOException {
+		return ref == NONE ? Optional.empty() : Optional.of(this._demand(ref));
+	}
+
+	private Demand _demand(int ref) throws IOException {
+		if(ref < 0 || ref >= demands.size()) {
+			throw new IOException("bad demand reference "+ref);
+		}
+		return demands.get(ref);
+	}
+
+	private Agent _agent(int ref) throws IOException {
+		if(ref < 0 || ref >= agents.size()) {
+			throw new IOException("bad agent reference "+ref);
+		}
+		return agents.get(ref);
+	}
+
+	// re-create an agent of the saved class (state is filled in afterwards)
+	private Agent _newAgent(String cls, String name, int efficiency) throws IOException {
+		try {
+			Class<? extends Agent> type = Class.forName(cls).asSubclass(Agent.class);
+			return type.getConstructor(String.class, int.class).newInstance(name, efficiency);
+		}
+		catch (ReflectiveOperationException | ClassCastException e) {
+			throw new IOException("cannot re-create agent "+name+" of type "+cls, e);
+		}
+	}
+}
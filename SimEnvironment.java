@@ -1,16 +1,11 @@
-import java.beans.PropertyChangeEvent;
-import java.beans.PropertyChangeListener;
-import java.beans.PropertyChangeSupport;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.HashSet;
-import java.util.Iterator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.function.Consumer;
 import java.lang.Math;
-import java.util.Random;
-import java.util.UUID;
 
 import javafx.beans.property.SimpleListProperty;
 import javafx.beans.property.SimpleBooleanProperty;
@@ -38,7 +33,9 @@ import java.lang.Integer;
  *  ... the magic of Agents handling Demands happens on its own 
  */
 
-public class SimEnvironment implements PropertyChangeListener {
+public class SimEnvironment implements ISimEventListener {
+
+	public static final long DEFAULT_SEED = 43;
 
 	/****** CONTROLS ******/
 	public SimpleIntegerProperty n_sci_agents;
@@ -53,21 +50,58 @@ public class SimEnvironment implements PropertyChangeListener {
 
 	// allow monte carlo
 	public ArrayList<ArrayList<Integer>> mc_rx_timeseries;
-	private final int MC_NUM_RUNS = 1;
+	private int mc_num_runs;
+	
+	// appended to per-run report file names (e.g. to keep replicates apart)
+	private String report_tag;
+	
+	// where reports go (text files by default), and this run's id in them
+	private IReportSink report_sink;
+	private int run_id;
+	
+	// position in the current run (fields so a run can be checkpointed)
+	private int cycle;            // next cycle to simulate
+	private int last_report_time; // global time at the last progress report
+	
+	// save the run to checkpoint_file every checkpoint_every cycles (0 = never)
+	private int checkpoint_every;
+	private Path checkpoint_file;
+	
+	// step agents as discrete events instead of in cycles (see runEvents)
+	private boolean event_driven;
+	
+	// write each run's committed work to a CommitArchive file
+	private boolean archive_commits;
 	
 	/* 
 	 * Member variables for simulation environment
 	 */
 	private DemandList demand_list; // list of demands
-	private Random rand;
+	
+	// random number streams, all split from one master seed (see setSeed)
+	private long seed;
+	private SimRandom seeds;        // root stream, one split per agent
+	private SimRandom demand_rand;  // type, priority and effort of new demands
+	private SimRandom arrival_rand; // whether a new demand arrives
+	
+	// controls pauses in the cycle loop (none unless a UI is attached)
+	private IPacingPolicy pacing;
+	
+	// runs the agent-local phases of a cycle (on one thread unless asked)
+	private AgentWorkPool workers;
 		
 	// keep track of Agents here so they don't get garbage collected
 	private ArrayList<Agent> agent_list;
-	private PropertyChangeSupport support;
+	private AgentOrder agent_order; // keeps agent_list sorted by local time
+	private ProgressCounters counters; // run totals, kept up to date by the agents
+	private CommitArchive archive;     // committed work of the run
+	private SimEventBus bus;
+	private DemandRouter router; // routes new demands to capable agents
 	
-	// to manage requests for collaboration
-	private ArrayList<PropertyChangeEvent> collab_requests;
-	private ArrayList<PropertyChangeEvent> resync_requests;
+	// to manage requests for collaboration (demand needing help, requesting agent)
+	private ArrayList<Demand> collab_demands;
+	private ArrayList<Agent> collab_agents;
+	private ArrayList<Agent> resync_requests;
 	
 	// properties for JavaFX interface
 	public SimpleIntegerProperty global_time;
@@ -84,18 +118,8 @@ public class SimEnvironment implements PropertyChangeListener {
 	// helper function to ensure underutilized agents float to top
 	void sortAgents() {
 		
-        // sort Agents by local time
-    	Collections.sort(this.agent_list, new Comparator<Agent>() {
-    		public int compare(Agent a1, Agent a2) {
-    			if(a1.getAgentTime() < a2.getAgentTime()) {
-    				return -1;
-    			}
-    			if(a1.getAgentTime() == a2.getAgentTime()) {
-    				return 0;
-    			}
-    			return 1;
-    		}
-    	});
+        // order Agents by local time (only re-placing the ones that moved)
+		this.agent_order.sort(this.agent_list);
 	}
 	
 	/* 
@@ -105,9 +129,16 @@ public class SimEnvironment implements PropertyChangeListener {
 	
 		mc_rx_timeseries = new ArrayList<ArrayList<Integer>>();
 		
-		// random number generator
-		rand = new Random();
-		rand.setSeed(43);
+		// random number streams
+		this.setSeed(SimEnvironment.DEFAULT_SEED);
+		
+		// run flat-out by default
+		pacing = new HeadlessPacingPolicy();
+		workers = new AgentWorkPool();
+		
+		// comma-separated report files by default
+		report_sink = new TextReportSink();
+		run_id = 0;
 		
 		// simulation parameters
 		n_agents = new SimpleIntegerProperty();         // number of agents in simulation
@@ -127,8 +158,10 @@ public class SimEnvironment implements PropertyChangeListener {
 		n_mgr_agents = new SimpleIntegerProperty();     // number of ManagerAgents in the sim
 		
 		agent_list = new ArrayList<Agent>();
-		collab_requests = new ArrayList<PropertyChangeEvent>();
-		resync_requests = new ArrayList<PropertyChangeEvent>();
+		agent_order = new AgentOrder();
+		collab_demands = new ArrayList<Demand>();
+		collab_agents = new ArrayList<Agent>();
+		resync_requests = new ArrayList<Agent>();
 		
 		complete_timeseries = new SimpleListProperty<Data<Number,Number>>(FXCollections.observableArrayList());
 		commit_timeseries   = new SimpleListProperty<Data<Number,Number>>(FXCollections.observableArrayList());
@@ -138,6 +171,8 @@ public class SimEnvironment implements PropertyChangeListener {
 		this.setNumCycles(200);
 		this.setNumInitDemands(20);
 		this.setProbNewDemand(0);
+		this.setNumMCRuns(1);
+		this.setReportTag("");
 
 		// list of all demands in simulation
 		demand_list = new DemandList();
@@ -189,12 +224,22 @@ public class SimEnvironment implements PropertyChangeListener {
 		
 		// list of all agents in simulation
 		agent_list.clear();
+		counters = new ProgressCounters();
+		if(archive != null) {
+			archive.close();
+		}
+		archive = new CommitArchive();
 		
-		// PropertyChangeListener set-up
-		support = new PropertyChangeSupport(this);
+		// event bus set-up, shared with demand list and agents
+		bus = new SimEventBus();
+		bus.subscribe(SimEventType.COLLABORATE, this);
+		bus.subscribe(SimEventType.REFRESH_BACKLOG, this);
+		demand_list.setEventBus(bus);
+		router = new DemandRouter(bus, demand_list.getSupplyDemandTable());
 		
 		// no requests for collaboration yet
-		collab_requests.clear();
+		collab_demands.clear();
+		collab_agents.clear();
 		
 		// no resync requests yet
 		resync_requests.clear();
@@ -213,12 +258,24 @@ public class SimEnvironment implements PropertyChangeListener {
 		collab_timeseries.clear();
 	}
 
+	// copy simulation parameters (not state) from another environment
+	public void copySettings(SimEnvironment other) {
+		this.setNumAgents(other.getNumAgents());
+		this.setNumCycles(other.getNumCycles());
+		this.setNumInitDemands(other.getNumInitDemands());
+		this.setProbNewDemand(other.getProbNewDemand());
+		this.setInteraxLR(other.getInteraxLR());
+		this.setNumMCRuns(other.getNumMCRuns());
+		this.setEventDriven(other.isEventDriven());
+		this.setArchiveCommits(other.isArchiveCommits());
+	}
+
 	// generate demands for demand_list
 	public void createDemand(boolean alert_agents) {
 		// RANDOMNESS/UNCERTAINTY
 		
 		// number of demand types
-		int dtype = rand.nextInt(DemandType.values().length);
+		int dtype = demand_rand.nextInt(DemandType.values().length);
 		
 		// don't allow collaboration demands to be created here
 		if(this.getNumAgents()==2) {
@@ -227,20 +284,20 @@ public class SimEnvironment implements PropertyChangeListener {
 		}
 		else {
 			while (dtype == DemandType.COLLABORATE.ordinal())
-				dtype = rand.nextInt(DemandType.values().length);
+				dtype = demand_rand.nextInt(DemandType.values().length);
 		}
 		
-		int dprior = rand.nextInt(DemandPriority.values().length);
+		int dprior = demand_rand.nextInt(DemandPriority.values().length);
 		// don't allow urgent demands to be created here (save those for collaboration)
 		while (dprior == DemandPriority.URGENT.ordinal())
-			dprior = rand.nextInt(DemandPriority.values().length);
+			dprior = demand_rand.nextInt(DemandPriority.values().length);
 		
 		Demand newdemand = new Demand("Demand"+String.valueOf(demand_list.getDemandCount()),
 				DemandPriority.values()[dprior], 
 				DemandType.values()[dtype], 
-				rand.nextInt(25)+1);  // demand effort between 1 and 25
+				demand_rand.nextInt(25)+1);  // demand effort between 1 and 25
 		
-		System.out.println("+D Simulation created new demand: "+newdemand.toString());
+		SimLog.debug(LogCategory.DEMAND, "Simulation created new demand: {}", newdemand);
 		
 		// add demand to demand_list (which triggers an event)
 		demand_list.newDemand(newdemand, alert_agents);
@@ -250,7 +307,7 @@ public class SimEnvironment implements PropertyChangeListener {
 	public void createRandomDemand() {
 		
 		// RANDOMNESS/UNCERTAINTY
-		if(rand.nextInt(100)<this.getProbNewDemand()) {
+		if(arrival_rand.nextInt(100)<this.getProbNewDemand()) {
 			createDemand(true);
 		}
 	}
@@ -266,19 +323,19 @@ public class SimEnvironment implements PropertyChangeListener {
 		// validation test with 1 agent
 		if(!(this.getNumAgents()>1)) {
 			// validation test with 1 agent
-			Agent supAgent = new SuperAgent("Super1");
+			Agent supAgent = new SuperAgent("Super1", seeds.split());
 			agent_list.add(supAgent);
 		}
 		else if(!(this.getNumAgents()>2)) {
 			// validation test with 2 agents
-			Agent yinAgent = new YinAgent("AgentA");
-			Agent yangAgent = new YangAgent("AgentB");
+			Agent yinAgent = new YinAgent("AgentA", seeds.split());
+			Agent yangAgent = new YangAgent("AgentB", seeds.split());
 			agent_list.add(yinAgent);
 			agent_list.add(yangAgent);
 		}
 		else {
 			for ( int e = 0; e < this.getNumEngAgents().get(); e++) {
-				Agent engAgent = new EngineerAgent("Engineer"+(e+1));
+				Agent engAgent = new EngineerAgent("Engineer"+(e+1), seeds.split());
 				
 				// make engineers impatient for waiting
 				engAgent.setMaxWaitCycles(4);
@@ -287,7 +344,7 @@ public class SimEnvironment implements PropertyChangeListener {
 			}
 		
 			for ( int s = 0; s < this.getNumSciAgents().get(); s++) {
-				Agent sciAgent = new ScienceAgent("Scientist"+(s+1));
+				Agent sciAgent = new ScienceAgent("Scientist"+(s+1), seeds.split());
 				
 				// make scientists tolerant of waiting
 				sciAgent.setMaxWaitCycles(5);
@@ -296,7 +353,7 @@ public class SimEnvironment implements PropertyChangeListener {
 			}
 			
 			for ( int m = 0; m < this.getNumMgrAgents().get(); m++) {
-				Agent mgrAgent = new ManagerAgent("Manager"+(m+1));
+				Agent mgrAgent = new ManagerAgent("Manager"+(m+1), seeds.split());
 				
 				// make managers mildly tolerant of waiting
 				mgrAgent.setMaxWaitCycles(3);
@@ -305,109 +362,82 @@ public class SimEnvironment implements PropertyChangeListener {
 			}
 		}
 		
-		FileWriter agentWriter = null;
-		try {
-			agentWriter = new FileWriter("agent_report_"+
-										 this.getNumAgents()+"_"+
-										 this.getNumCycles()+"_"+
-										 this.getNumInitDemands()+"_"+
-										 this.getProbNewDemand()+".txt");
-		}
-		catch (Exception e) {
-			e.printStackTrace();
-		}
-			
 		for (Agent a : agent_list) {
 			
 			// update interaction rate
 			a.setInteraxLearningRate(this.getInteraxLR()/100.0);
 			
 			// give agent the supply-demand map
-			a.setSupplyDemandDictionary(demand_list.getSupplyDemandDict());
-			
-			// bind agents to property change supports
-			demand_list.addPropertyChangeListener(a);
-			support.addPropertyChangeListener(a);
-			a.addPropertyChangeListener(this);
-			
-			// have the agent pre-populate backlog from initial demands
-			a.start(demand_list);
+			a.setSupplyDemandTable(demand_list.getSupplyDemandTable());
 			
-			// log this agent exists
-			if(agentWriter != null) {
-				try {
-					agentWriter.write(a.getName()+"\n");
-				}
-				catch (Exception e) {
-					e.printStackTrace();
-				}
-			}
+			// bind agents to the simulation event bus
+			a.joinEventBus(bus);
+			a.setProgressCounters(counters);
+			a.setCommitArchive(archive);
+			router.addAgent(a);
 		}
 		
-		if(agentWriter != null) {
-			try {
-				agentWriter.close();
-			}
-			catch (Exception e) {
-				e.printStackTrace();
-			}
-		}	
+		// have the agents pre-populate backlogs from initial demands
+		this._forEachAgent(agent_list, a -> a.start(demand_list));
+		
+		// log these agents exist
+		try {
+			this.report_sink.writeAgents(this, agent_list);
+		}
+		catch (Exception e) {
+			e.printStackTrace();
+		}
 	}
 	
-	// helper function to get all unique ids
-	void _addDemandsToSet(HashSet<UUID> hs,ArrayList<Demand> al) {
-		for (Demand d : al) {
-			hs.add(d.getId());
-		}
+	// helper function to build report file names from simulation parameters
+	String reportFileName(String prefix, boolean tagged) {
+		return this.reportFileName(prefix, tagged, ".txt");
+	}
+	String reportFileName(String prefix, boolean tagged, String extension) {
+		return prefix+"_"+
+			   this.getNumAgents()+"_"+
+			   this.getNumCycles()+"_"+
+			   this.getNumInitDemands()+"_"+
+			   this.getProbNewDemand()+
+			   (tagged ? this.getReportTag() : "")+extension;
 	}
 	
-	// print progress update to console
+	// print progress update to console (totals are kept up to date by the 
+	// agents, see ProgressCounters, so this does not rescan their tasks)
 	public void progressReport(boolean finalreport) {
 		
 		try{
-			FileWriter interaxWriter = null;
-			ArrayList<Integer> collabList = null;
-			if(finalreport) {
-				interaxWriter = new FileWriter("interaction_report_"+
-												  this.getNumAgents()+"_"+
-												  this.getNumCycles()+"_"+
-												  this.getNumInitDemands()+"_"+
-												  this.getProbNewDemand()+".txt");
-				collabList = new ArrayList<Integer>();
-				System.out.println("------Final Progress Report-------");
+			boolean logreport = SimLog.isEnabled(LogLevel.INFO, LogCategory.REPORT);
+			if(logreport) {
+				SimLog.info(LogCategory.REPORT, finalreport ? "------Final Progress Report-------" : "------Progress Report-------");
+				SimLog.info(LogCategory.REPORT, "Simulation Time: {}\n\n", this.getGlobalTime().get());
 			}
-			else {
-				System.out.println("------Progress Report-------");
-			}
-			System.out.println("Simulation Time: "+this.getGlobalTime().get()+"\n\n");
-			
-			int col=0, comp=0, comm=0;
-
-			HashSet<UUID> unique_comp = new HashSet<UUID>();
-			HashSet<UUID> unique_comm = new HashSet<UUID>();
 			
-			for (Agent a : agent_list) {
-				col += a.getCollaborationCount();
-				this._addDemandsToSet(unique_comp,a.getCompletedtasks());
-				this._addDemandsToSet(unique_comm,a.getCommittedtasks());
-				if(finalreport) {
-					collabList.add(a.getCollaborationCount());
-					a.reportInteractions(interaxWriter);				
-				}
-				System.out.println(a.toProgressString()+"\n");
+			// every agent's progress for the final report (or if asked for)
+			if(finalreport || SimLog.isEnabled(LogLevel.DEBUG, LogCategory.REPORT)) {
+				this.detailedReport();
 			}
 			
 			if(finalreport) {
+				ArrayList<Integer> collabList = new ArrayList<Integer>();
+				for (Agent a : agent_list) {
+					collabList.add(a.getCollaborationCount());
+				}
 				this.mc_rx_timeseries.add(collabList);
-				interaxWriter.close();
+				this.report_sink.writeFinalReport(this, agent_list);
 			}
-			System.out.println("--------End Report---------");
 			
-			comp = unique_comp.size();
-			comm = unique_comm.size();
+			int col = counters.getNumCollaborations();
+			int comp = counters.getNumCompleted();
+			int comm = counters.getNumCommitted();
+			
+			if(logreport) {
+				SimLog.info(LogCategory.REPORT, "Completed: {} demands\nCommitted: {} demands\nCollaborations: {}", comp, comm, col);
+			}
+			SimLog.info(LogCategory.REPORT, "--------End Report---------");
 			
-			// collaborations will be noted 2x
-			n_collaborations.set(col/2);
+			// collaborations are noted 2x (halved by the counters)
+			n_collaborations.set(col);
 			
 			// includes collaboration demands and regular ones
 			n_completed.set(comp);
@@ -421,7 +451,7 @@ public class SimEnvironment implements PropertyChangeListener {
 			   (collab_timeseries.get().get(index).getXValue().intValue() != this.getGlobalTime().get())) {
 				commit_timeseries.get().add(new Data<Number,Number>(this.getGlobalTime().get(),comm));
 				complete_timeseries.get().add(new Data<Number,Number>(this.getGlobalTime().get(),comp));
-				collab_timeseries.get().add(new Data<Number,Number>(this.getGlobalTime().get(),(col/2)));
+				collab_timeseries.get().add(new Data<Number,Number>(this.getGlobalTime().get(),col));
 			}
 			
 //			if(finalreport) {
@@ -430,73 +460,120 @@ public class SimEnvironment implements PropertyChangeListener {
 		}
 		catch (IOException e) {
 			// fail gracefully
-			System.err.println("Failed while writing progress report to file.");
+			SimLog.error(LogCategory.REPORT, "Failed while writing progress report to file.");
 			e.printStackTrace();
 		}
 	}
 	
+	// log every agent's progress (walks all agents and their interactions)
+	public void detailedReport() {
+		if(!SimLog.isEnabled(LogLevel.INFO, LogCategory.REPORT)) {
+			return;
+		}
+		for (Agent a : agent_list) {
+			SimLog.info(LogCategory.REPORT, a.toProgressString()+"\n");
+		}
+	}
+	
 	@Override
-	public void propertyChange(PropertyChangeEvent evt) {
-		if(evt.getPropertyName() == "collaborate") {
+	public void handleEvent(SimEventType type, int time, Demand d, Agent a) {
+		switch(type) {
+		case COLLABORATE:
 			// agent needs help to complete demand
 			// store collaboration request (captures who sent it)
-			this.collab_requests.add(evt);
-		}
-		else if(evt.getPropertyName() == "refresh_backlog") {
-			this.resync_requests.add(evt);
-		}
-		else {
-			System.err.println("SimEnvironment does not know how to manage event "+evt.getPropertyName());
+			this.collab_demands.add(d);
+			this.collab_agents.add(a);
+			break;
+		case REFRESH_BACKLOG:
+			this.resync_requests.add(a);
+			break;
+		default:
+			SimLog.error(LogCategory.SIM, "SimEnvironment does not know how to manage event {}", type);
 		}
  	}
 	
 	// manage various requests from the agents
 	public void manageRequests() {
-		while(!this.collab_requests.isEmpty()) {
+		for (int i = 0; i < this.collab_demands.size(); i++) {
 			
 			// check if calling demand is a new/cloned demand
-			demand_list.addIfUnseen((Demand)collab_requests.get(0).getOldValue());
+			demand_list.addIfUnseen(collab_demands.get(i));
 			
 			// generate a new Demand
-			demand_list.newDemand(Demand.createCollaborationDemand((Demand)(collab_requests.get(0).getOldValue()),
-																   (Agent)(collab_requests.get(0).getNewValue())));
-			
-			// reset collab_request
-			collab_requests.remove(0);
+			demand_list.newDemand(Demand.createCollaborationDemand(collab_demands.get(i),
+																   collab_agents.get(i)));
 		}
+		collab_demands.clear();
+		collab_agents.clear();
 		
-		// manage resync requests for demandlist
-		while(!this.resync_requests.isEmpty()) {
-			Agent a = (Agent)(resync_requests.get(0).getNewValue());
-			a.refreshBacklog(this.demand_list);
-			resync_requests.remove(0);
+		// manage resync requests for demandlist side by side: agents read
+		// the (read-only) demand list and change their own backlogs, and
+		// report backlog changes to the EventScheduler, if any, which 
+		// collects them under a lock
+		ArrayList<Agent> requesters = new ArrayList<Agent>();
+		IdentityHashMap<Agent,Integer> n_requests = new IdentityHashMap<Agent,Integer>();
+		for (Agent a : this.resync_requests) {
+			if(n_requests.merge(a, 1, Integer::sum) == 1) {
+				requesters.add(a);
+			}
+		}
+		this._forEachAgent(requesters, a -> {
+			for (int i = n_requests.get(a); i > 0; i--) {
+				a.refreshBacklog(this.demand_list);
+			}
+		});
+		resync_requests.clear();
+	}
+	
+	// agent-local work on the worker pool, with the demand list read-only
+	// meanwhile (agents only read shared demands, see DemandList.setReadOnly)
+	private <T> void _forEachAgent(List<T> items, Consumer<? super T> work) {
+		this.demand_list.setReadOnly(true);
+		try {
+			this.workers.forEach(items, work);
+		}
+		finally {
+			this.demand_list.setReadOnly(false);
+		}
+	}
+	
+	// commit completed tasks up to time (agent-local, see AgentWorkPool),
+	// then record the commits in the archive agent by agent in bus order
+	private void commitUntil(int time) {
+		ArrayList<ISimEventListener> listeners = bus.getListeners(SimEventType.COMMIT_UNTIL);
+		if(this.workers.isParallel()) {
+			this._forEachAgent(listeners, 
+							   l -> l.handleEvent(SimEventType.COMMIT_UNTIL, time, null, null));
+		}
+		else {
+			bus.fire(SimEventType.COMMIT_UNTIL, time);
+		}
+		for (int i = 0; i < listeners.size(); i++) {
+			if(listeners.get(i) instanceof Agent) {
+				((Agent)listeners.get(i)).flushCommits();
+			}
 		}
 	}
 
 	// Time management signals
     public void syncGlobalTime() {
     	
-    	// tell agents to finish up their tasks
-        support.firePropertyChange("finishtask", 0, 1);
-    	
-    	int  min_time = Integer.MAX_VALUE;
+    	// tell agents to finish up their tasks (in turn: agents compete 
+    	// for demands and collaborate, so this is never parallel)
+        bus.fire(SimEventType.FINISH_TASK);
     	
     	// order agents by utilization (local time)
     	this.sortAgents();
-   	
-    	// check all agents to identify min local time
-		for (Agent a : this.agent_list) {
-			if(a.getAgentTime() < min_time) {
-				min_time = a.getAgentTime();
-			}
-			
-			// remove and add again to change agent order in support
-	    	support.removePropertyChangeListener(a);
-			support.addPropertyChangeListener(a);
-		}
+    	
+    	// first agent has the min local time
+    	int min_time = this.agent_list.isEmpty() ? Integer.MAX_VALUE : this.agent_list.get(0).getAgentTime();
+    	
+    	// agents take their turn on the bus in that order
+    	bus.reorder(SimEventType.FINISH_TASK, this.agent_list);
+    	bus.reorder(SimEventType.COMMIT_UNTIL, this.agent_list);
     	
     	// update all agents to solidify completed tasks
-        support.firePropertyChange("commituntil", null, min_time);
+        this.commitUntil(min_time);
         
         // update global time stamp
 		this.setGlobalTime(min_time);
@@ -505,23 +582,28 @@ public class SimEnvironment implements PropertyChangeListener {
 	// Time management signals
     public void finalizeGlobalTime() {
     	
-    	// collect all local times and sort in ascending order
-    	ArrayList<Integer> agent_times = new ArrayList<Integer>();
-    	for (Agent a : this.agent_list) {
-    		agent_times.add(a.getAgentTime());
-    	}
-    	Collections.sort(agent_times);
-    	
-    	// pop minimum (should be current global time)
-    	agent_times.remove(0);
+    	// local times in ascending order
+    	this.sortAgents();
     	
-    	// cycle through remaining times and loop until 
-    	// all completed demands are also committed
-    	for (Integer gt : agent_times) {
-    		support.firePropertyChange("commituntil", null, gt);
+    	// skip minimum (should be current global time), then cycle 
+    	// through remaining times and loop until all completed demands 
+    	// are also committed
+    	for (int i = 1; i < this.agent_list.size(); i++) {
+    		int gt = this.agent_list.get(i).getAgentTime();
+    		if(gt < this.getGlobalTime().get()) {
+    			// (an event-driven run can end past idle agents)
+    			continue;
+    		}
+    		this.commitUntil(gt);
     		this.setGlobalTime(gt);
     	}
     	this.progressReport(true);
+    	
+    	// everything is committed now
+    	if(this.archive.getFile() != null) {
+    		SimLog.info(LogCategory.SIM, "Archived {} commits to {}", this.archive.getNumRecords(), this.archive.getFile());
+    		this.archive.close();
+    	}
     }
     
 	public void start() {
@@ -531,99 +613,235 @@ public class SimEnvironment implements PropertyChangeListener {
 		 */
 
 		int sim_cnt = 0;
+		int first_run = this.getRunId();
 		while(true) {
 			
-			/****** CREATE SOME DEMANDS ******/
-			for (int nd = 0; nd < this.getNumInitDemands(); nd++) {
-				this.createDemand(false);
+			this.setRunId(first_run+sim_cnt);
+			this.runOnce();
+			
+			// reinitialize for next sim
+			if(++sim_cnt >= this.getNumMCRuns()) {
+				break;
+			}
+			else {
+				
+				// pause so the UI can catch up (if any)
+				this.pacing.pauseBetweenRuns();
+	        	
+				initialize();
 			}
+		}
+		
+		// write final monte carlo results to file
+		this.writeMonteCarloReport();
+		this.workers.shutdown();
+		SimLog.flush();
+	}
+	
+	// finish a run restored by SimCheckpoint, then any monte carlo runs left
+	public void resume() {
+
+		this.runCycles();
+
+		// one collaboration series per finished run
+		while (this.mc_rx_timeseries.size() < this.getNumMCRuns()) {
+
+			// pause so the UI can catch up (if any)
+			this.pacing.pauseBetweenRuns();
+
+			initialize();
+			this.setRunId(this.getRunId()+1);
+			this.runOnce();
+		}
+
+		// write final monte carlo results to file
+		this.writeMonteCarloReport();
+		this.workers.shutdown();
+		SimLog.flush();
+	}
+
+	// run a single realization of the simulation
+	public void runOnce() {
+		
+		this.prepareRun();
+		
+		SimLog.info(LogCategory.SIM, "Max number of cycles: {}", this.getNumCycles());
+		
+		this.runCycles();
+	}
 	
-			/****** DEFINE AGENTS ******/
-			// establish a 2:2:1 ratio between agents
-			this.setNumSciAgents(Math.max(1,(int)(Math.floor(this.getNumAgents()*0.4))));
-			this.setNumEngAgents(Math.max(1,(int)(Math.floor(this.getNumAgents()*0.4))));
-			this.setNumMgrAgents(Math.max(1,(int)(Math.floor(this.getNumAgents()*0.2))));
+	// simulate from the current cycle to the end of the run 
+	// (also picks up a run restored by SimCheckpoint)
+	public void runCycles() {
+		
+		if(this.event_driven) {
+			this.runEvents();
+			return;
+		}
+		
+		while (this.cycle < this.getNumCycles()) {
+			int i = this.cycle;
 			
-			this.createAgents();
+			/****** GENERATE DEMANDS ******/
+			this.createRandomDemand();
 			
-			System.out.println("Max number of cycles:" +this.getNumCycles());
+			// manage agent requests
+			this.manageRequests();
 			
-			int prevgt = this.getGlobalTime().get(); 
-			for (int i = 0; i < this.getNumCycles(); i++) {						
-				
-				/****** GENERATE DEMANDS ******/
+			// update simulation global time
+	        this.syncGlobalTime();
+	        
+	        // report out progress
+	        this.reportCycle(i);
+	        
+	        this.cycle++;
+	        
+	        // save the run every so often (if asked to)
+	        if(this.checkpoint_every > 0 && this.cycle%this.checkpoint_every == 0 && 
+	           this.cycle < this.getNumCycles()) {
+	        	this.writeCheckpoint();
+	        }
+		}
+		
+		this.finalizeGlobalTime();
+		
+		// mark complete
+		this.setProgress(1.0);
+		this.setFinished(true);
+	}
+	
+	/*
+	 * discrete-event alternative to runCycles: instead of every agent
+	 * finishing a task each cycle, an EventScheduler gives a FINISH_TASK
+	 * only to the agent(s) at the global minimum time, and parks agents
+	 * that are waiting on a collaborator or have nothing to start until
+	 * something changes for them or a timed wake-up.  The run goes on
+	 * until global time reaches n_cycles (a horizon in simulated time, not
+	 * a step count), and each unit of simulated time gets one chance of a
+	 * new demand as global time passes it; while every agent is parked,
+	 * time moves on to the next arrival.  Results differ from (but are
+	 * comparable with) cycle stepping up to the same global time.  Runs
+	 * are not checkpointed.
+	 */
+	public void runEvents() {
+		
+		if(this.checkpoint_every > 0) {
+			SimLog.warn(LogCategory.SIM, "Checkpoints are not written for event-driven runs");
+		}
+		
+		// cycle counts the units of simulated time demands have arrived for
+		EventScheduler scheduler = new EventScheduler(this.agent_list, this.getGlobalTime().get());
+		int horizon = this.getNumCycles();
+		int steps = 0;
+		
+		while (this.getGlobalTime().get() < horizon) {
+			
+			/****** GENERATE DEMANDS ******/
+			while (this.cycle <= this.getGlobalTime().get()) {
 				this.createRandomDemand();
-				
-				// manage agent requests
-				this.manageRequests();
-				
-				// update simulation global time
-		        this.syncGlobalTime();
-		        
-		        // report out progress
-		        if(i%2 == 0) {
-		        	
-					this.setProgress((i+1)/(double)this.getNumCycles());
-					System.out.println("PROGRESS: "+this.progress.get());
-					
-					if(this.getGlobalTime().get() > prevgt) {
-						// report out on progress
-						this.progressReport(false);
-						prevgt = this.getGlobalTime().get();
-					}
-					
-					// pause so the UI can catch up
-		        	try { 
-		        		Thread.sleep(200);
-	        		}
-		        	catch(InterruptedException ex){ 
-		        		// do nothing
-					}
-		        }
+				this.cycle++;
 			}
 			
-			this.finalizeGlobalTime();
-			
-			// mark complete
-			this.setProgress(1.0);
-			this.setFinished(true);
+			// manage agent requests
+			this.manageRequests();
 			
-			// reinitialize for next sim
-			if(++sim_cnt >= this.getNumMCRuns()) {
-				break;
+			// finish tasks at the global minimum time (or, with nobody
+			// able to, wait for the next demand)
+			if(!scheduler.step(steps++)) {
+				scheduler.advanceTo(this.cycle);
 			}
-			else {
+			
+			// commit up to the new global time (only moves forward)
+			int now = scheduler.getGlobalTime();
+			if(now > this.getGlobalTime().get()) {
+				this.commitUntil(now);
+				this.setGlobalTime(now);
 				
-				// pause so the UI can catch up
-	        	try { 
-	        		Thread.sleep(1000);
-        		}
-	        	catch(InterruptedException ex){ 
-	        		// do nothing
-				}
-	        	
-				initialize();
+				// report out progress
+				this.reportCycle(Math.min(now, horizon)-1);
 			}
 		}
 		
-		// write final monte carlo results to file
-		FileWriter mcWriter = null;
+		scheduler.detach();
+		SimLog.info(LogCategory.SIM, "Event-driven run: {} FINISH_TASKs in {} steps to global time {}", 
+				scheduler.getNumDispatched(), steps, this.getGlobalTime().get());
+		
+		this.finalizeGlobalTime();
+		
+		// mark complete
+		this.setProgress(1.0);
+		this.setFinished(true);
+	}
+	
+	// report progress every other cycle
+	private void reportCycle(int i) {
+		
+		if(i%2 != 0) {
+			return;
+		}
+		
+		this.setProgress((i+1)/(double)this.getNumCycles());
+		SimLog.info(LogCategory.SIM, "PROGRESS: {}", this.progress.get());
+		
+		if(this.getGlobalTime().get() > this.last_report_time) {
+			// report out on progress
+			this.progressReport(false);
+			this.last_report_time = this.getGlobalTime().get();
+		}
+		
+		// pause so the UI can catch up (if any)
+		this.pacing.pauseAfterProgress();
+	}
+	
+	// save the run so far to the checkpoint file
+	private void writeCheckpoint() {
 		try {
-			mcWriter = new FileWriter("montecarlo_report_"+
-										 this.getNumAgents()+"_"+
-										 this.getNumCycles()+"_"+
-										 this.getNumInitDemands()+"_"+
-										 this.getProbNewDemand()+".txt");
-			
-			Iterator<ArrayList<Integer>> iter = this.getMcRxTimeseries().iterator();
-			while (iter.hasNext()) {
-				ArrayList<Integer> al = iter.next();
-				for (Integer i : al) {
-					mcWriter.write(i+",");
-				}
-				mcWriter.write("\n");
+			SimCheckpoint.write(this, this.checkpoint_file);
+			SimLog.debug(LogCategory.SIM, "Checkpoint written after cycle {}", this.cycle);
+		}
+		catch (IOException e) {
+			// keep simulating, the previous checkpoint (if any) is still good
+			SimLog.error(LogCategory.SIM, "Failed to write checkpoint {}: {}", this.checkpoint_file, e.getMessage());
+		}
+	}
+	
+	// create the initial demand pool and the agents for a run
+	public void prepareRun() {
+		
+		/****** CREATE SOME DEMANDS ******/
+		for (int nd = 0; nd < this.getNumInitDemands(); nd++) {
+			this.createDemand(false);
+		}
+
+		/****** DEFINE AGENTS ******/
+		// establish a 2:2:1 ratio between agents
+		this.setNumSciAgents(Math.max(1,(int)(Math.floor(this.getNumAgents()*0.4))));
+		this.setNumEngAgents(Math.max(1,(int)(Math.floor(this.getNumAgents()*0.4))));
+		this.setNumMgrAgents(Math.max(1,(int)(Math.floor(this.getNumAgents()*0.2))));
+		
+		this.createAgents();
+		
+		// spill committed work to file (if asked to)
+		if(this.archive_commits) {
+			Path file = Paths.get(this.reportFileName("commit_archive", false, "_run"+this.getRunId()+".emca"));
+			try {
+				this.archive.open(file);
+			}
+			catch (IOException e) {
+				// keep the totals in memory only
+				SimLog.error(LogCategory.SIM, "Failed to open commit archive {}: {}", file, e.getMessage());
 			}
-			mcWriter.close();
+		}
+		
+		// start at the first cycle
+		this.cycle = 0;
+		this.last_report_time = this.getGlobalTime().get();
+	}
+	
+	// write monte carlo results (one line per run) to the report sink
+	public void writeMonteCarloReport() {
+		try {
+			this.report_sink.writeMonteCarloReport(this);
 		}
 		catch (Exception e) {
 			e.printStackTrace();
@@ -809,10 +1027,179 @@ public class SimEnvironment implements PropertyChangeListener {
 		this.numCommittedProperty().set(n_commit);
 	}
 	
+	public IPacingPolicy getPacingPolicy() {
+		return pacing;
+	}
+
+	public void setPacingPolicy(IPacingPolicy pacing) {
+		this.pacing = pacing;
+	}
+	
 	public int getNumMCRuns() {
-		return MC_NUM_RUNS;
+		return mc_num_runs;
+	}
+	
+	public void setNumMCRuns(int n_runs) {
+		this.mc_num_runs = n_runs;
+	}
+	
+	public String getReportTag() {
+		return report_tag;
+	}
+	
+	public void setReportTag(String tag) {
+		this.report_tag = tag;
+	}
+	
+	public IReportSink getReportSink() {
+		return report_sink;
+	}
+	
+	public void setReportSink(IReportSink sink) {
+		this.report_sink = sink;
+	}
+	
+	public int getCycle() {
+		return cycle;
+	}
+	
+	void setCycle(int cycle) {
+		this.cycle = cycle;
+	}
+	
+	int getLastReportTime() {
+		return last_report_time;
+	}
+	
+	void setLastReportTime(int time) {
+		this.last_report_time = time;
+	}
+	
+	public int getCheckpointEvery() {
+		return checkpoint_every;
+	}
+	
+	public Path getCheckpointFile() {
+		return checkpoint_file;
+	}
+	
+	// write a checkpoint to file every n cycles (n = 0 turns checkpoints off)
+	public void setCheckpoint(int every, Path file) {
+		this.checkpoint_every = Math.max(0, every);
+		this.checkpoint_file = file;
+	}
+	
+	public boolean isEventDriven() {
+		return event_driven;
+	}
+	
+	// step agents as discrete events (runEvents) instead of in cycles
+	public void setEventDriven(boolean event_driven) {
+		this.event_driven = event_driven;
+	}
+	
+	public boolean isArchiveCommits() {
+		return archive_commits;
+	}
+	
+	// write the committed work of each new run to commit_archive_*_run<id>.emca
+	public void setArchiveCommits(boolean archive_commits) {
+		this.archive_commits = archive_commits;
+	}
+	
+	// committed work of the current run (totals, see CommitArchive)
+	public CommitArchive getCommitArchive() {
+		return archive;
+	}
+	
+	ProgressCounters getProgressCounters() {
+		return counters;
+	}
+	
+	// number of threads for the agent-local phases of a cycle (1 = none)
+	public int getParallelism() {
+		return workers.getParallelism();
+	}
+	
+	public void setParallelism(int n_threads) {
+		this.workers.shutdown();
+		this.workers = new AgentWorkPool(n_threads);
+	}
+	
+	public int getRunId() {
+		return run_id;
+	}
+	
+	public void setRunId(int run_id) {
+		this.run_id = run_id;
+	}
+	
+	/*
+	 * set the master seed: every random number stream of the simulation 
+	 * (demand generation, demand arrivals, and one per agent as agents are
+	 * created) is split from it, so runs are reproducible and no two 
+	 * agents or subsystems share a stream
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+		this.seeds = new SimRandom(seed);
+		this.demand_rand = this.seeds.split();
+		this.arrival_rand = this.seeds.split();
+	}
+	
+	public long getSeed() {
+		return seed;
 	}
 
+	// agents and demands of the current run (benchmark fixtures use these)
+	ArrayList<Agent> getAgentList() {
+		return agent_list;
+	}
+	DemandList getDemandList() {
+		return demand_list;
+	}
+	
+	// run state, exposed for SimCheckpoint
+	SimRandom[] getRandomStreams() {
+		return new SimRandom[] { seeds, demand_rand, arrival_rand };
+	}
+	ArrayList<Agent> getRegisteredAgents() {
+		return router.getAgents();
+	}
+	ArrayList<Demand> getCollabDemands() {
+		return collab_demands;
+	}
+	ArrayList<Agent> getCollabAgents() {
+		return collab_agents;
+	}
+	ArrayList<Agent> getResyncRequests() {
+		return resync_requests;
+	}
+	
+	/*
+	 * rebuild a run from checkpointed demands and agents (see SimCheckpoint):
+	 * agents join the bus and router in the order they were first added 
+	 * (registered), then take their turn order on the bus from agent_list
+	 */
+	void restoreRun(ArrayList<Demand> demands, ArrayList<Agent> registered, ArrayList<Agent> ordered) {
+		this.initialize();
+		
+		for (Demand d : demands) {
+			demand_list.addDemand(d);
+		}
+		for (Agent a : registered) {
+			a.setSupplyDemandTable(demand_list.getSupplyDemandTable());
+			a.joinEventBus(bus);
+			a.setProgressCounters(counters);
+			a.setCommitArchive(archive);
+			router.addAgent(a);
+		}
+		agent_list.addAll(ordered);
+		counters.rebuild(agent_list);
+		bus.reorder(SimEventType.FINISH_TASK, agent_list);
+		bus.reorder(SimEventType.COMMIT_UNTIL, agent_list);
+	}
+	
 	public ArrayList<ArrayList<Integer>> getMcRxTimeseries() {
 		return mc_rx_timeseries;
 	}
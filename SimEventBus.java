@@ -0,0 +1,93 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ *  SimEventBus for Agent Based Modeling
+ *  @author Chad Holmes
+ *  
+ *  MIT EM.426 Spring 2021 class
+ *  
+ *  The SimEventBus carries events between SimEnvironment, DemandList,
+ *  and Agents. Listeners subscribe to individual SimEventTypes and are
+ *  notified in subscription order. Firing an event passes its payload 
+ *  straight through to each listener, so no event object is created 
+ *  and no integers are boxed.
+ */
+
+public class SimEventBus {
+
+	// one listener list per event type, indexed by ordinal
+	private ArrayList<ArrayList<ISimEventListener>> listeners;
+	
+	/*
+	 * Constructor
+	 */
+	public SimEventBus() {
+		listeners = new ArrayList<ArrayList<ISimEventListener>>();
+		for (int i = 0; i < SimEventType.values().length; i++) {
+			listeners.add(new ArrayList<ISimEventListener>());
+		}
+	}
+	
+	/*
+	 * Subscription management
+	 */
+	public void subscribe(SimEventType type, ISimEventListener l) {
+		listeners.get(type.ordinal()).add(l);
+	}
+	
+	public void unsubscribe(SimEventType type, ISimEventListener l) {
+		listeners.get(type.ordinal()).remove(l);
+	}
+	
+	// put listeners of a type in a new order (same listeners, e.g. Agents 
+	// re-sorted by local time), without unsubscribing them one by one
+	public void reorder(SimEventType type, List<? extends ISimEventListener> order) {
+		ArrayList<ISimEventListener> ll = listeners.get(type.ordinal());
+		ll.clear();
+		ll.addAll(order);
+	}
+	
+	public void clear() {
+		for (ArrayList<ISimEventListener> ll : listeners) {
+			ll.clear();
+		}
+	}
+	
+	public ArrayList<ISimEventListener> getListeners(SimEventType type) {
+		return listeners.get(type.ordinal());
+	}
+	
+	/*
+	 * Events
+	 */
+	public void fire(SimEventType type) {
+		fire(type, 0, null, null);
+	}
+	
+	public void fire(SimEventType type, int time) {
+		fire(type, time, null, null);
+	}
+	
+	public void fire(SimEventType type, Demand d) {
+		fire(type, 0, d, null);
+	}
+	
+	public void fire(SimEventType type, Agent a) {
+		fire(type, 0, null, a);
+	}
+	
+	public void fire(SimEventType type, Demand d, Agent a) {
+		fire(type, 0, d, a);
+	}
+	
+	public void fire(SimEventType type, int time, Demand d, Agent a) {
+		ArrayList<ISimEventListener> ll = listeners.get(type.ordinal());
+		
+		// only notify listeners subscribed when the event was fired
+		int n = ll.size();
+		for (int i = 0; i < n; i++) {
+			ll.get(i).handleEvent(type, time, d, a);
+		}
+	}
+}
@@ -0,0 +1,17 @@
+/*
+ *  SimEventType for Agent Based Modeling
+ *  @author Chad Holmes
+ *  
+ *  MIT EM.426 Spring 2021 class
+ *  
+ *  Enumerated list of events passed over the SimEventBus:
+ *  NEW_DEMAND      = DemandList has a new Demand (demand payload)
+ *  FINISH_TASK     = SimEnvironment asks agents to complete a task
+ *  COMMIT_UNTIL    = SimEnvironment asks agents to commit work (time payload)
+ *  COLLABORATE     = Agent needs help with a Demand (demand + agent payload)
+ *  REFRESH_BACKLOG = Agent wants to re-sync its backlog (agent payload)
+ */
+
+public enum SimEventType {
+	NEW_DEMAND, FINISH_TASK, COMMIT_UNTIL, COLLABORATE, REFRESH_BACKLOG
+}
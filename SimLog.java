@@ -0,0 +1,157 @@
+import java.util.function.Supplier;
+
+/*
+ * SimLog Class for Agent Based Modeling
+ *  @author Chad Holmes
+ *
+ *  For MIT EM.426 Spring 2021 class
+ *
+ *  SimLog is the simulation log.  Every record has a LogLevel and a
+ *  LogCategory, and each category has its own minimum level.  A record
+ *  below its category's level costs one array load and compare: the
+ *  message is not formatted and no argument's toString() is called.
+ *
+ *  Messages are either a plain string, a template with {} placeholders
+ *  filled from up to three arguments, or a Supplier.  Enabled records are
+ *  formatted on the calling thread (so they show the state at the time
+ *  of the call) and handed to the AsyncLogWriter, which does the console
+ *  I/O on its own thread.
+ *
+ *  Levels default to INFO and can be set with system properties, e.g.
+ *    -Dsim.log.level=WARN -Dsim.log.task=DEBUG
+ *  or with setLevel() before a run starts.
+ *
+ */
+public final class SimLog {
+
+	private static final LogLevel DEFAULT_LEVEL = LogLevel.INFO;
+	private static final LogCategory[] CATEGORIES = LogCategory.values();
+
+	// minimum LogLevel ordinal per LogCategory ordinal
+	private static final int[] thresholds = new int[CATEGORIES.length];
+
+	static {
+		LogLevel all = _parseLevel(System.getProperty("sim.log.level"), DEFAULT_LEVEL);
+		for (LogCategory cat : CATEGORIES) {
+			String prop = System.getProperty("sim.log."+cat.name().toLowerCase());
+			thresholds[cat.ordinal()] = _parseLevel(prop, all).ordinal();
+		}
+	}
+
+	private SimLog() {}
+
+	/*
+	 * Configuration
+	 */
+	public static void setLevel(LogLevel level) {
+		for (LogCategory cat : CATEGORIES) {
+			thresholds[cat.ordinal()] = level.ordinal();
+		}
+	}
+	public static void setLevel(LogCategory cat, LogLevel level) {
+		thresholds[cat.ordinal()] = level.ordinal();
+	}
+	public static LogLevel getLevel(LogCategory cat) {
+		return LogLevel.values()[thresholds[cat.ordinal()]];
+	}
+
+	public static boolean isEnabled(LogLevel level, LogCategory cat) {
+		return level.ordinal() >= thresholds[cat.ordinal()] && level != LogLevel.OFF;
+	}
+
+	// wait until every record logged so far has been written out
+	public static void flush() {
+		AsyncLogWriter.flushIfStarted();
+	}
+
+	/*
+	 * Logging (generic)
+	 */
+	public static void log(LogLevel level, LogCategory cat, String msg) {
+		if(isEnabled(level, cat)) {
+			AsyncLogWriter.get().publish(level, cat, msg);
+		}
+	}
+	public static void log(LogLevel level, LogCategory cat, String fmt, Object a) {
+		if(isEnabled(level, cat)) {
+			AsyncLogWriter.get().publish(level, cat, _format(fmt, a, null, null, 1));
+		}
+	}
+	public static void log(LogLevel level, LogCategory cat, String fmt, Object a, Object b) {
+		if(isEnabled(level, cat)) {
+			AsyncLogWriter.get().publish(level, cat, _format(fmt, a, b, null, 2));
+		}
+	}
+	public static void log(LogLevel level, LogCategory cat, String fmt, Object a, Object b, Object c) {
+		if(isEnabled(level, cat)) {
+			AsyncLogWriter.get().publish(level, cat, _format(fmt, a, b, c, 3));
+		}
+	}
+	public static void log(LogLevel level, LogCategory cat, Supplier<String> msg) {
+		if(isEnabled(level, cat)) {
+			AsyncLogWriter.get().publish(level, cat, msg.get());
+		}
+	}
+
+	/*
+	 * Logging (by level)
+	 */
+	public static void trace(LogCategory cat, String msg) { log(LogLevel.TRACE, cat, msg); }
+	public static void trace(LogCategory cat, String fmt, Object a) { log(LogLevel.TRACE, cat, fmt, a); }
+	public static void trace(LogCategory cat, String fmt, Object a, Object b) { log(LogLevel.TRACE, cat, fmt, a, b); }
+	public static void trace(LogCategory cat, String fmt, Object a, Object b, Object c) { log(LogLevel.TRACE, cat, fmt, a, b, c); }
+
+	public static void debug(LogCategory cat, String msg) { log(LogLevel.DEBUG, cat, msg); }
+	public static void debug(LogCategory cat, String fmt, Object a) { log(LogLevel.DEBUG, cat, fmt, a); }
+	public static void debug(LogCategory cat, String fmt, Object a, Object b) { log(LogLevel.DEBUG, cat, fmt, a, b); }
+	public static void debug(LogCategory cat, String fmt, Object a, Object b, Object c) { log(LogLevel.DEBUG, cat, fmt, a, b, c); }
+
+	public static void info(LogCategory cat, String msg) { log(LogLevel.INFO, cat, msg); }
+	public static void info(LogCategory cat, String fmt, Object a) { log(LogLevel.INFO, cat, fmt, a); }
+	public static void info(LogCategory cat, String fmt, Object a, Object b) { log(LogLevel.INFO, cat, fmt, a, b); }
+	public static void info(LogCategory cat, String fmt, Object a, Object b, Object c) { log(LogLevel.INFO, cat, fmt, a, b, c); }
+
+	public static void warn(LogCategory cat, String msg) { log(LogLevel.WARN, cat, msg); }
+	public static void warn(LogCategory cat, String fmt, Object a) { log(LogLevel.WARN, cat, fmt, a); }
+	public static void warn(LogCategory cat, String fmt, Object a, Object b) { log(LogLevel.WARN, cat, fmt, a, b); }
+	public static void warn(LogCategory cat, String fmt, Object a, Object b, Object c) { log(LogLevel.WARN, cat, fmt, a, b, c); }
+
+	public static void error(LogCategory cat, String msg) { log(LogLevel.ERROR, cat, msg); }
+	public static void error(LogCategory cat, String fmt, Object a) { log(LogLevel.ERROR, cat, fmt, a); }
+	public static void error(LogCategory cat, String fmt, Object a, Object b) { log(LogLevel.ERROR, cat, fmt, a, b); }
+	public static void error(LogCategory cat, String fmt, Object a, Object b, Object c) { log(LogLevel.ERROR, cat, fmt, a, b, c); }
+
+	/*
+	 * Helper Functions
+	 */
+	// replace each {} in fmt with the next argument (extra {} are left as is)
+	private static String _format(String fmt, Object a, Object b, Object c, int nargs) {
+		StringBuilder sb = new StringBuilder(fmt.length()+32);
+		int argi = 0, from = 0;
+		while (true) {
+			int at = fmt.indexOf("{}", from);
+			if(at < 0 || argi >= nargs) {
+				break;
+			}
+			sb.append(fmt, from, at);
+			sb.append(String.valueOf(argi == 0 ? a : (argi == 1 ? b : c)));
+			argi++;
+			from = at+2;
+		}
+		sb.append(fmt, from, fmt.length());
+		return sb.toString();
+	}
+
+	private static LogLevel _parseLevel(String value, LogLevel fallback) {
+		if(value == null) {
+			return fallback;
+		}
+		try {
+			return LogLevel.valueOf(value.trim().toUpperCase());
+		}
+		catch (IllegalArgumentException e) {
+			System.err.println("Unknown log level '"+value+"', using "+fallback);
+			return fallback;
+		}
+	}
+}
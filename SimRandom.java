@@ -0,0 +1,123 @@
+import java.util.Random;
+
+/*
+ *  SimRandom for Agent Based Modeling
+ *  @author Chad Holmes
+ *
+ *  MIT EM.426 Spring 2021 class
+ *
+ *  A random number stream for the simulation.  It is the SplitMix64
+ *  generator of java.util.SplittableRandom behind the java.util.Random
+ *  interface, with two additions:
+ *
+ *  - split() hands out a new, statistically independent stream, so one
+ *    master seed can feed every agent and subsystem of a run (see
+ *    SimEnvironment.setSeed) and replicates stay reproducible
+ *  - the state (seed and gamma) can be read and restored, so a
+ *    checkpoint (see SimCheckpoint) can carry the streams
+ *
+ *  Unlike Random it is not synchronized: each stream belongs to one
+ *  owner, so streams do not contend when agents run in parallel.
+ *
+ *  nextGaussian() keeps Random's cached second value, which is not part
+ *  of the state; the simulation does not use it.
+ */
+
+public class SimRandom extends Random {
+
+	private static final long serialVersionUID = 2L;
+
+	// odd increment of the first stream (as in SplittableRandom)
+	private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+	// generator state (not initialized here: Random's constructor sets it
+	// through setSeed before field initializers would run)
+	private long seed;
+	private long gamma;
+
+	/*
+	 * Constructors
+	 */
+	public SimRandom() {
+		super();
+	}
+
+	public SimRandom(long seed) {
+		super(seed);
+	}
+
+	private SimRandom(long seed, long gamma) {
+		super(0);
+		this.seed = seed;
+		this.gamma = gamma;
+	}
+
+	// a new independent stream (advances this one)
+	public SimRandom split() {
+		return new SimRandom(this.nextLong(), mixGamma(this.nextSeed()));
+	}
+
+	@Override
+	public void setSeed(long seed) {
+		this.seed = seed;
+		this.gamma = GOLDEN_GAMMA;
+	}
+
+	@Override
+	protected int next(int bits) {
+		return (int)(mix64(this.nextSeed()) >>> (64 - bits));
+	}
+
+	@Override
+	public int nextInt() {
+		return mix32(this.nextSeed());
+	}
+
+	@Override
+	public long nextLong() {
+		return mix64(this.nextSeed());
+	}
+
+	/*
+	 * Getters and Setters (raw generator state, not a seed)
+	 */
+	public long getState() {
+		return seed;
+	}
+
+	public long getGamma() {
+		return gamma;
+	}
+
+	public void setState(long state, long gamma) {
+		this.seed = state;
+		this.gamma = gamma | 1L;
+	}
+
+	/*
+	 * Helper Functions (SplitMix64)
+	 */
+	private long nextSeed() {
+		return seed += gamma;
+	}
+
+	private static long mix64(long z) {
+		z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+		z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+		return z ^ (z >>> 33);
+	}
+
+	private static int mix32(long z) {
+		z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+		return (int)(((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+	}
+
+	// gamma of a split stream: odd, with enough bit transitions
+	private static long mixGamma(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		z = (z ^ (z >>> 31)) | 1L;
+		int n = Long.bitCount(z ^ (z >>> 1));
+		return (n < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+	}
+}
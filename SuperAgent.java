@@ -1,6 +1,5 @@
-import java.beans.PropertyChangeListener;
 /*
- *  SuperAgent is an Agent with a PropertyChangeListener 
+ *  SuperAgent is an Agent with an ISimEventListener 
  *  for use in Agent Based Modeling
  *  @author Chad Holmes
  *
@@ -10,7 +9,7 @@ import java.beans.PropertyChangeListener;
  *  All skills, full efficiency, highest capacity. He/She can do anything!
  *  
  */
-public class SuperAgent extends Agent implements PropertyChangeListener {
+public class SuperAgent extends Agent implements ISimEventListener {
 
 	/*
 	 * Constructors
@@ -28,6 +27,16 @@ public class SuperAgent extends Agent implements PropertyChangeListener {
 		initialize();
 	}
 	
+	// with its own random number stream (see SimEnvironment.createAgents)
+	public SuperAgent(String name, SimRandom rand) {
+		this(name, 100, rand);
+	}
+	
+	public SuperAgent(String name, int efficiency, SimRandom rand) {
+		super(name, efficiency, rand);
+		initialize();
+	}
+	
 	/* 
 	 * Helper functions
 	 */
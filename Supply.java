@@ -1,17 +1,6 @@
 import java.util.*;
 //import java.util.logging.Logger;
 
-import javafx.beans.property.BooleanProperty;
-import javafx.beans.property.IntegerProperty;
-import javafx.beans.property.LongProperty;
-import javafx.beans.property.ObjectProperty;
-import javafx.beans.property.StringProperty;
-import javafx.beans.property.SimpleBooleanProperty;
-import javafx.beans.property.SimpleIntegerProperty;
-import javafx.beans.property.SimpleObjectProperty;
-import javafx.beans.property.SimpleStringProperty;
-import javafx.beans.property.SimpleLongProperty;
-
 /*
  *  Supply Class for Agent Based Modeling
  *  @author Chad Holmes
@@ -27,6 +16,9 @@ import javafx.beans.property.SimpleLongProperty;
  *  4. efficiency
  *  5. potentially secondary needs (demands)
  *  
+ *  Attributes are plain fields (enums stored by ordinal); wrap a Supply
+ *  in an ObservableSupply when a UI needs to bind to it
+ *  
  */
 
 public class Supply implements ISupply {
@@ -46,6 +38,11 @@ public class Supply implements ISupply {
 	
 	static private final int DEFAULT_REPLENISH_TIME = 8; // assume full working day to "refresh"
 	
+	// cached enum values (values() clones on every call)
+	static private final SupplyType[] TYPES = SupplyType.values();
+	static private final SupplyState[] STATES = SupplyState.values();
+	static private final SupplyQuality[] QUALITIES = SupplyQuality.values();
+	
 	/* 
 	 * Supply constructors
 	 */
@@ -128,33 +125,33 @@ public class Supply implements ISupply {
 	private UUID id; // universal unique id
 
 	// human-readable identifier
-	private final StringProperty name = new SimpleStringProperty();
+	private String name;
 
-	// assigns a "type" to demand based on SupplyType enumerated list
-	private final ObjectProperty<SupplyType> type = new SimpleObjectProperty<SupplyType>();
+	// assigns a "type" to demand based on SupplyType enumerated list (ordinal)
+	private byte type;
 
-	// current status of demand based on enum SupplyState
-	private final ObjectProperty<SupplyState> state = new SimpleObjectProperty<SupplyState>(); 
+	// current status of demand based on enum SupplyState (ordinal)
+	private byte state; 
 	
 	// supply capacity (in units)  
-	private final IntegerProperty capacity = new SimpleIntegerProperty();
+	private int capacity;
 
 	// current supply amount (in units)
-	private final IntegerProperty amount = new SimpleIntegerProperty();
+	private int amount;
 	
-	// current status of demand based on enum SupplyState
-	private final ObjectProperty<SupplyQuality> quality = new SimpleObjectProperty<SupplyQuality>(); 
+	// current quality based on enum SupplyQuality (ordinal)
+	private byte quality; 
 
 	// supply efficiency (decimal*100)  
-	private final IntegerProperty efficiency = new SimpleIntegerProperty();
+	private int efficiency;
 
 	// variables to manage supply replenishment
-	private final BooleanProperty replenish = new SimpleBooleanProperty();
-	private final IntegerProperty every     = new SimpleIntegerProperty();
-	private final LongProperty until        = new SimpleLongProperty();
+	private boolean replenish;
+	private int every;
+	private long until;
 	
 	// supply lifespan before expiry
-	private final IntegerProperty lifespan = new SimpleIntegerProperty();
+	private int lifespan;
 	
 	// key milestone time stamps
 	private long starttime;
@@ -164,6 +161,9 @@ public class Supply implements ISupply {
 	// learning rate
 	private int learningthreshold;
 	private int learningcounter;
+	
+	// capability index of the Agent holding this Supply (if any)
+	CapabilityIndex capability;
 
 	/* 
 	 * Getters and Setters	
@@ -173,20 +173,21 @@ public class Supply implements ISupply {
 	public void setId(UUID id) { this.id = id; }
 	
 	// NAME -----------------------------------
-	public StringProperty nameProperty() { return name; }
-	public String getName() { return name.get(); }
-	public void setName(String name) { this.name.set(name); }
+	public String getName() { return name; }
+	public void setName(String name) { this.name = name; }
 	
 	// TYPE -----------------------------------
-	public ObjectProperty<SupplyType> typeProperty() { return type; }	
-	public SupplyType getType() { return type.get(); }
-	public void setType(SupplyType type) { this.type.set(type); }	
+	public SupplyType getType() { return TYPES[type]; }
+	public void setType(SupplyType type) { 
+		this.type = (byte)type.ordinal(); 
+		this._capabilityChanged();
+	}	
 	
 	// STATE ----------------------------------
-	public ObjectProperty<SupplyState> stateProperty() { return state; }
-	public SupplyState getState() { return state.get(); }
+	public SupplyState getState() { return STATES[state]; }
 	public void setState(SupplyState state) {
-		this.state.set(state);
+		this.state = (byte)state.ordinal();
+		this._capabilityChanged();
 
 		if(state == SupplyState.AVAILABLE) {
 			this.setStarttime(System.currentTimeMillis() / 1000);
@@ -195,15 +196,23 @@ public class Supply implements ISupply {
 	}
 	
 	// CAPACITY ---------------------------------
-	public IntegerProperty capacityProperty() { return capacity; }
-	public int getCapacity() { return capacity.get(); }
-	public void setCapacity(int capacity) { this.capacity.set(capacity); }
+	public int getCapacity() { return capacity; }
+	public void setCapacity(int capacity) { 
+		this.capacity = capacity; 
+		this._capabilityChanged();
+	}
 	
 	// AMOUNT -----------------------------------
-	public IntegerProperty amountProperty() { return amount; }
-	public int getAmount() { return amount.get(); }
-	public void setAmount(int amount) { this.amount.set(amount); }
-	public void resetAmount() { this.amount.set(this.getCapacity()); }
+	public int getAmount() { return amount; }
+	public void setAmount(int amount) { 
+		this.amount = amount;
+		
+		// amount only matters to usability when not replenishing
+		if(!this.isReplenishing()) {
+			this._capabilityChanged();
+		}
+	}
+	public void resetAmount() { this.amount = this.getCapacity(); }
 	public void reduceAmount(int byamount) { 
 		int remainder = byamount-this.getAmount();
 		if(remainder<=0) {
@@ -235,35 +244,35 @@ public class Supply implements ISupply {
 	}
 	
 	// QUALITY ----------------------------------
-	public ObjectProperty<SupplyQuality> qualityProperty() { return quality; }
-	public SupplyQuality getQuality() { return quality.get(); }
-	public void setQuality(SupplyQuality quality) { this.quality.set(quality); }   
+	public SupplyQuality getQuality() { return QUALITIES[quality]; }
+	public void setQuality(SupplyQuality quality) { 
+		this.quality = (byte)quality.ordinal(); 
+		this._capabilityChanged();
+	}   
 	
 	// EFFICIENCY -------------------------------
-	public IntegerProperty efficiencyProperty() { return efficiency; }
-	public int getEfficiency() { return this.efficiency.get(); }
-	public void setEfficiency(int efficiency) { this.efficiency.set(efficiency); }
+	public int getEfficiency() { return this.efficiency; }
+	public void setEfficiency(int efficiency) { this.efficiency = efficiency; }
 	
 	// LIFESPAN -------------------------------
-	public IntegerProperty lifespanProperty() { return lifespan; }
-	public int getLifespan() { return this.lifespan.get(); }
-	public void setLifespan(int lifespan) { this.lifespan.set(lifespan); }
+	public int getLifespan() { return this.lifespan; }
+	public void setLifespan(int lifespan) { this.lifespan = lifespan; }
 	
 	// REPLENISH --------------------------------
-	public BooleanProperty replenishProperty() { return replenish; }
-	public boolean getReplenish() { return this.replenish.get(); }
-	public void setReplenish(boolean isReplenishing) { this.replenish.set(isReplenishing); }
-	public boolean isReplenishing() { return this.replenish.get(); }
+	public boolean getReplenish() { return this.replenish; }
+	public void setReplenish(boolean isReplenishing) { 
+		this.replenish = isReplenishing; 
+		this._capabilityChanged();
+	}
+	public boolean isReplenishing() { return this.replenish; }
 	
 	// EVERY ------------------------------------
-	public IntegerProperty everyProperty() { return every; } 
-	public int getEvery() { return this.every.get(); }
-	public void setEvery(int every) { this.every.set(every); }
+	public int getEvery() { return this.every; }
+	public void setEvery(int every) { this.every = every; }
 	
 	// UNTIL ------------------------------------
-	public LongProperty untilProperty() { return until; }
-	public long getUntil() { return until.get(); }
-	public void setUntil(long until) { this.until.set(until); }
+	public long getUntil() { return until; }
+	public void setUntil(long until) { this.until = until; }
 	
 	// LASTREPLENISH ----------------------------
 	public long getLastreplenish() { return lastreplenish; }
@@ -364,14 +373,34 @@ public class Supply implements ISupply {
 		return retval;
 	}
 	
+	// same answer as isUsable(), without replenishing the Supply
+	public boolean isUsableWithoutReplenish() {
+		if(this.getState() != SupplyState.AVAILABLE) {
+			return false;
+		}
+		
+		// replenishing would leave nothing to use
+		if(this.getReplenish()) {
+			return this.getCapacity() > 0;
+		}
+		return this.getAmount() > 0;
+	}
+	
+	// let the holding Agent know its capabilities need a refresh
+	private void _capabilityChanged() {
+		if(this.capability != null) {
+			this.capability.invalidate();
+		}
+	}
+	
 	// update SupplyQuality based on experience
 	private void learn(int experience) {
 		if(this.getLearningthreshold() < (this.learningcounter + experience)) {
 
-			System.out.println("+S "+this.getName()+" increased in quality from learning");
+			SimLog.debug(LogCategory.SUPPLY, "{} increased in quality from learning", this.getName());
 
-			if((this.getQuality().ordinal()+1) < SupplyQuality.values().length) {
-				this.setQuality(SupplyQuality.values()[this.getQuality().ordinal()+1]);
+			if((this.quality+1) < QUALITIES.length) {
+				this.setQuality(QUALITIES[this.quality+1]);
 				this.resetLearning();
 			}
 			else {
@@ -385,8 +414,8 @@ public class Supply implements ISupply {
 	
 	// print all components of supply
 	public String toStringFull() {
-		String retstr = "Supply \n[\n id=" + id + ",\n name=" + name + ",\n type=" + type + ",\n capacity=" + capacity
-				+ ",\n quality=" + quality + ",\n efficiency=" + efficiency + ",\n replenish=" + replenish + ",\n every="
+		String retstr = "Supply \n[\n id=" + id + ",\n name=" + name + ",\n type=" + getType() + ",\n capacity=" + capacity
+				+ ",\n quality=" + getQuality() + ",\n efficiency=" + efficiency + ",\n replenish=" + replenish + ",\n every="
 				+ every + ",\n until=" + until + ",\n lifespan=" + lifespan + ",\n starttime=" + starttime + ",\n expirytime="
 				+ expirytime + ",\n lastreplenish=" + lastreplenish + "\n]";
 		
@@ -395,7 +424,7 @@ public class Supply implements ISupply {
 	
 	@Override
 	public String toString() {
-		return "Supply [name=" + name.get() + ", type=" + type.get() + ", amount=" + amount.get() + "]";
+		return "Supply [name=" + name + ", type=" + getType() + ", amount=" + amount + "]";
 	}
 	
 //	public static void main(String args[]) {
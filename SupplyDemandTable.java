@@ -0,0 +1,141 @@
+import java.util.*;
+
+/*
+ * SupplyDemandTable Class for Agent Based Modeling
+ *  @author Chad Holmes
+ *
+ *  For MIT EM.426 Spring 2021 class
+ *
+ *  SupplyDemandTable is the immutable, compiled form of a
+ *  SupplyDemandDictionary.  Requirements are held in dense arrays
+ *  indexed by DemandType ordinal, each a list of (SupplyType ordinal,
+ *  minimum SupplyQuality ordinal) entries in the order they were added
+ *
+ *  The table is built once when the simulation starts and never
+ *  changes afterwards, so reads are plain array loads with no locking
+ *  and no boxing.  Types with no requirements have empty rows
+ *
+ */
+public final class SupplyDemandTable {
+
+	// cached enum values (values() clones on every call)
+	private static final SupplyType[] SUPPLY_TYPES = SupplyType.values();
+	private static final SupplyQuality[] SUPPLY_QUALITIES = SupplyQuality.values();
+
+	// [DemandType ordinal][requirement] -> SupplyType ordinal
+	private final int[][] supply_ords;
+
+	// [DemandType ordinal][requirement] -> minimum SupplyQuality ordinal
+	private final int[][] quality_ords;
+
+	// CapabilityIndex bits required by each DemandType, indexed by ordinal
+	private final long[] req_masks;
+
+	/*
+	 *  Constructor (see SupplyDemandDictionary.compile())
+	 */
+	SupplyDemandTable(int[][] supply_ords, int[][] quality_ords) {
+		int n = DemandType.values().length;
+		this.supply_ords = new int[n][];
+		this.quality_ords = new int[n][];
+		this.req_masks = new long[n];
+
+		for (int i = 0; i < n; i++) {
+			this.supply_ords[i] = supply_ords[i].clone();
+			this.quality_ords[i] = quality_ords[i].clone();
+
+			for (int j = 0; j < this.supply_ords[i].length; j++) {
+				this.req_masks[i] |= CapabilityIndex.bit(this.supply_ords[i][j], this.quality_ords[i][j]);
+			}
+		}
+	}
+
+	// number of (SupplyType, SupplyQuality) requirements for a DemandType
+	public int getNumRequired(DemandType dt) {
+		return supply_ords[dt.ordinal()].length;
+	}
+
+	// SupplyType of the i-th requirement for a DemandType
+	public SupplyType getSupplyType(DemandType dt, int i) {
+		return SUPPLY_TYPES[supply_ords[dt.ordinal()][i]];
+	}
+
+	// SupplyType ordinal of the i-th requirement for a DemandType
+	public int getSupplyOrdinal(DemandType dt, int i) {
+		return supply_ords[dt.ordinal()][i];
+	}
+
+	// minimum SupplyQuality ordinal of the i-th requirement for a DemandType
+	public int getMinQualityOrdinal(DemandType dt, int i) {
+		return quality_ords[dt.ordinal()][i];
+	}
+
+	// one CapabilityIndex bit per required (SupplyType, min SupplyQuality)
+	public long getRequirementMask(DemandType dt) {
+		return req_masks[dt.ordinal()];
+	}
+
+	// Convenience function for determining if a Supply matches a DemandType
+	public boolean isValidMatch(DemandType dt, Supply s) {
+		return isValidMatch(dt, s.getType(), s.getQuality());
+	}
+
+	// Convenience function for determining if a SupplyType of a certain SupplyQuality matches a DemandType
+	public boolean isValidMatch(DemandType dt, SupplyType st, SupplyQuality sq) {
+		// sq must be greater or equal to the quality required
+		return (req_masks[dt.ordinal()] & CapabilityIndex.atLeastBits(st, sq)) != 0;
+	}
+
+	// Convenience function for determining if a list of Supplies matches a DemandType
+	public boolean isValidMatch(DemandType dt, ArrayList<Supply> sts) {
+
+		int[] req_st = supply_ords[dt.ordinal()];
+		if(req_st.length == 0) {
+			// default to not valid if not explicitly defined in dictionary
+			SimLog.warn(LogCategory.SIM, "DemandType not found in SupplyDemandDisctionary: {}", dt);
+			return false;
+		}
+
+		// every requirement needs a supply of matching type and good enough quality
+		int[] req_sq = quality_ords[dt.ordinal()];
+		for (int i = 0; i < req_st.length; i++) {
+			boolean found = false;
+			for (int j = 0; j < sts.size(); j++) {
+				Supply chk = sts.get(j);
+				if(chk.getType().ordinal() == req_st[i] &&
+				   chk.getQuality().ordinal() >= req_sq[i]) {
+					found = true;
+					break;
+				}
+			}
+
+			// short circuit if one not found
+			if(!found)
+				return false;
+		}
+		return true;
+	}
+
+	/*
+	 * Implement toString()
+	 */
+	@Override
+	public String toString() {
+		StringBuilder retstr = new StringBuilder("SupplyDemandDictionary \n[\n");
+
+		for (DemandType dt : DemandType.values()) {
+			int[] req_st = supply_ords[dt.ordinal()];
+			if(req_st.length == 0)
+				continue;
+
+			retstr.append(" ").append(dt.toString()).append(":");
+			for (int i = 0; i < req_st.length; i++) {
+				retstr.append(" ").append(SUPPLY_TYPES[req_st[i]].toString())
+					  .append(" (").append(SUPPLY_QUALITIES[quality_ords[dt.ordinal()][i]].toString()).append(")");
+			}
+			retstr.append("\n");
+		}
+		retstr.append("]\n");
+		return retstr.toString();
+	}
+}
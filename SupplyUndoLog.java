@@ -0,0 +1,149 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/*
+ *  SupplyUndoLog for Agent Based Modeling
+ *  @author Chad Holmes
+ *
+ *  MIT EM.426 Spring 2021 class
+ *
+ *  Per-Agent record of Supply state from before each task, so the task
+ *  can be rolled back.  Each record is three ints: the Supply's index in
+ *  the agent's resources (with its SupplyState ordinal in the low byte),
+ *  its amount and its learning counter, which is all that work changes
+ *  on a Supply (quality gained by learning is kept on a roll-back).
+ *
+ *  A task's records follow each other in the log and its LedgerEntry
+ *  holds where they are, so restoring them is a direct lookup.  Records
+ *  are released once the task is committed or rolled back (or its ledger
+ *  entry replaced); when released records take up more than half the
+ *  log, the live ones are moved down and their entries updated.  The log
+ *  therefore only grows with work that can still be rolled back.
+ */
+
+public class SupplyUndoLog {
+
+	private static final int FIELDS = 3;
+	private static final int MIN_COMPACT = 256; // ints, don't bother below
+
+	private static final SupplyState[] STATES = SupplyState.values();
+
+	private int[] records;
+	private int size;                       // ints in use
+	private int n_released;                 // ints held by released records
+	private ArrayList<LedgerEntry> entries; // entries holding records, in log order
+
+	/*
+	 * Constructor
+	 */
+	public SupplyUndoLog() {
+		this.records = new int[16*FIELDS];
+		this.size = 0;
+		this.n_released = 0;
+		this.entries = new ArrayList<LedgerEntry>();
+	}
+
+	// position of the next record (start of a task's records)
+	public int mark() {
+		return size;
+	}
+
+	// record the state of resources[index] before work is done with it
+	public void record(int index, Supply s) {
+		if(size+FIELDS > records.length) {
+			records = Arrays.copyOf(records, 2*records.length);
+		}
+		records[size++] = (index << 8) | s.getState().ordinal();
+		records[size++] = s.getAmount();
+		records[size++] = s.getLearningcounter();
+	}
+
+	// drop records made since mark (e.g. work that will not be logged)
+	public void discard(int mark) {
+		size = mark;
+	}
+
+	// hand the records made since mark over to a ledger entry
+	public void attach(LedgerEntry le, int mark) {
+		le.undo_at = mark;
+		le.undo_len = size-mark;
+		if(le.undo_len > 0) {
+			entries.add(le);
+		}
+	}
+
+	// put a ledger entry's Supplies back as they were before its task
+	public void restore(LedgerEntry le, ArrayList<Supply> resources) {
+		for (int i = le.undo_at; i < le.undo_at+le.undo_len; i += FIELDS) {
+			Supply s = resources.get(records[i] >>> 8);
+			s.setState(STATES[records[i] & 0xFF]);
+			s.setAmount(records[i+1]);
+			s.setLearningcounter(records[i+2]);
+		}
+	}
+
+	// a ledger entry's records are no longer needed (committed or rolled back)
+	public void release(LedgerEntry le) {
+		if(le.undo_len == 0) {
+			return;
+		}
+		if(le.undo_at+le.undo_len == size && entries.get(entries.size()-1) == le) {
+			// last records in the log, just drop them
+			size = le.undo_at;
+			entries.remove(entries.size()-1);
+		}
+		else {
+			n_released += le.undo_len;
+		}
+		le.undo_len = 0;
+
+		if(size >= MIN_COMPACT && 2*n_released > size) {
+			this._compact();
+		}
+	}
+
+	// forget everything (e.g. when a ledger is cleared)
+	public void clear() {
+		size = 0;
+		n_released = 0;
+		entries.clear();
+	}
+
+	public int size() {
+		return (size-n_released)/FIELDS;
+	}
+	
+	// raw access for SimCheckpoint
+	int get(int i) {
+		return records[i];
+	}
+	
+	void add(int value) {
+		if(size == records.length) {
+			records = Arrays.copyOf(records, 2*records.length);
+		}
+		records[size++] = value;
+	}
+
+	/*
+	 * Helper Functions
+	 */
+	// move live records down over released ones
+	private void _compact() {
+		int to = 0;
+		int n = 0;
+		for (int i = 0; i < entries.size(); i++) {
+			LedgerEntry le = entries.get(i);
+			if(le.undo_len == 0) {
+				continue;
+			}
+			System.arraycopy(records, le.undo_at, records, to, le.undo_len);
+			le.undo_at = to;
+			to += le.undo_len;
+			entries.set(n++, le);
+		}
+		entries.subList(n, entries.size()).clear();
+		size = to;
+		n_released = 0;
+	}
+}
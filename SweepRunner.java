@@ -0,0 +1,85 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/*
+ *  SweepRunner for Agent Based Modeling
+ *  @author Chad Holmes
+ *
+ *  MIT EM.426 Spring 2021 class
+ *
+ *  Headless entry point for a ParameterSweep over the grid of the given
+ *  values.  Each of the first five arguments is a comma-separated list,
+ *  e.g. to sweep agents and new-demand probability with 4 replicates:
+ *
+ *    java SweepRunner 5,10,20,30 200 20 0,25,50,75 0 4 sweep.emr
+ *
+ *  usage: java SweepRunner n_agents n_cycles n_init_demands prob_new_demand
+ *                          interax_lr n_replicates store.emr [n_threads]
+ *
+ *  All runs go into the one store file.  Running the same command again
+ *  after an interruption picks up where it stopped.  ReportExport turns
+ *  the store into text reports.
+ *
+ *  Only sweep progress and warnings are logged unless SimLog system
+ *  properties say otherwise (e.g. -Dsim.log.level=INFO).
+ */
+
+public class SweepRunner {
+
+	public static void main(String args[]) {
+
+		if(args.length < 7 || args.length > 8) {
+			System.err.println("usage: java SweepRunner n_agents n_cycles n_init_demands prob_new_demand "+
+							   "interax_lr n_replicates store.emr [n_threads]");
+			System.exit(1);
+		}
+
+		// a sweep runs many simulations, keep the console to sweep progress
+		if(System.getProperty("sim.log.level") == null) {
+			for (LogCategory cat : LogCategory.values()) {
+				if(System.getProperty("sim.log."+cat.name().toLowerCase()) == null) {
+					SimLog.setLevel(cat, cat == LogCategory.SWEEP ? LogLevel.INFO : LogLevel.WARN);
+				}
+			}
+		}
+
+		ParameterSweep sweep = null;
+		try {
+			sweep = new ParameterSweep(ParameterSweep.grid(parseList(args[0]), parseList(args[1]),
+														   parseList(args[2]), parseList(args[3]),
+														   parseList(args[4])),
+									   Integer.parseInt(args[5]));
+			if(args.length > 7) {
+				sweep.setNumThreads(Integer.parseInt(args[7]));
+			}
+		}
+		catch (NumberFormatException e) {
+			System.err.println("SweepRunner values must be integers: "+e.getMessage());
+			System.exit(1);
+		}
+
+		long starttime = System.currentTimeMillis();
+		try {
+			int n_runs = sweep.run(Paths.get(args[6]));
+			System.out.println("Sweep finished "+n_runs+" runs in "+
+							   (System.currentTimeMillis()-starttime)+" ms");
+		}
+		catch (IOException e) {
+			System.err.println("Sweep failed: "+e.getMessage());
+			System.exit(1);
+		}
+		catch (InterruptedException e) {
+			System.err.println("Sweep interrupted.");
+		}
+	}
+
+	// "5,10,20" -> {5, 10, 20}
+	private static int[] parseList(String arg) {
+		String[] parts = arg.split(",");
+		int[] values = new int[parts.length];
+		for (int i = 0; i < parts.length; i++) {
+			values[i] = Integer.parseInt(parts[i].trim());
+		}
+		return values;
+	}
+}
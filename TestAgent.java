@@ -1,8 +1,6 @@
-import java.beans.PropertyChangeEvent;
-import java.beans.PropertyChangeListener;
 import java.util.ArrayList;
 
-public class TestAgent extends Agent implements PropertyChangeListener {
+public class TestAgent extends Agent implements ISimEventListener {
 
 	public TestAgent() {
 		this("MyName",85);
@@ -24,9 +22,9 @@ public class TestAgent extends Agent implements PropertyChangeListener {
 	
 	// Event dispatcher (event here is time)
 	@Override
-	public void propertyChange(PropertyChangeEvent evt) {
-		if(evt.getPropertyName()=="Step") {
-			System.out.println("Agent "+this.getName()+": notices time has passed...");
+	public void handleEvent(SimEventType type, int time, Demand d, Agent a) {
+		if(type==SimEventType.FINISH_TASK) {
+			SimLog.debug(LogCategory.AGENT, "Agent {}: notices time has passed...", this.getName());
 			this.step();
 		}
 	}
@@ -37,7 +35,7 @@ public class TestAgent extends Agent implements PropertyChangeListener {
 	 */
 	public void start(DemandList demandlist) {
 		
-		System.out.println("TestAgent::Start "+this.getName());
+		SimLog.debug(LogCategory.AGENT, "TestAgent::Start {}", this.getName());
 		
 		// main Agent loop
 		//while(!complete) {
@@ -54,13 +52,13 @@ public class TestAgent extends Agent implements PropertyChangeListener {
 	 */
 	public void doSomething(ArrayList<Demand> dlist) {
 		// deal with Demands here
-		System.out.println("TestAgent::doSomething "+this.getName());
+		SimLog.debug(LogCategory.AGENT, "TestAgent::doSomething {}", this.getName());
 		this.step();
 	}
 	
 	public void step() {
 
-		System.out.println("TestAgent::step "+this.getName());
+		SimLog.debug(LogCategory.AGENT, "TestAgent::step {}", this.getName());
 		if(!this.isComplete()) {
 			this.setCount(this.getCount()-1);
 			if(this.getCount() <= 0) {
@@ -68,10 +66,10 @@ public class TestAgent extends Agent implements PropertyChangeListener {
 			}
 		}
 		else {
-			System.out.println("xxx TestAgent has expired");
+			SimLog.debug(LogCategory.AGENT, "xxx TestAgent has expired");
 		}
 
-		System.out.println("..remaining steps: "+this.getCount());
+		SimLog.debug(LogCategory.AGENT, "..remaining steps: {}", this.getCount());
 	}
 
 	public int getCount() {
@@ -0,0 +1,57 @@
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ *  TextReportSink for Agent Based Modeling
+ *  @author Chad Holmes
+ *
+ *  MIT EM.426 Spring 2021 class
+ *
+ *  The original comma-separated report files, one set per run in the
+ *  working directory (see SimEnvironment.reportFileName):
+ *    agent_report_*       one agent name per line
+ *    interaction_report_* name,name,count per interaction
+ *    montecarlo_report_*  collaboration counts, one line per run
+ *
+ *  Holds no state, so one instance can serve any number of runs.
+ */
+
+public class TextReportSink implements IReportSink {
+
+	@Override
+	public void writeAgents(SimEnvironment sim, List<Agent> agents) throws IOException {
+		try (FileWriter agentWriter = new FileWriter(sim.reportFileName("agent_report", true))) {
+			for (Agent a : agents) {
+				agentWriter.write(a.getName()+"\n");
+			}
+		}
+	}
+
+	@Override
+	public void writeFinalReport(SimEnvironment sim, List<Agent> agents) throws IOException {
+		try (FileWriter interaxWriter = new FileWriter(sim.reportFileName("interaction_report", true))) {
+			for (Agent a : agents) {
+				a.reportInteractions(interaxWriter);
+			}
+		}
+	}
+
+	@Override
+	public void writeMonteCarloReport(SimEnvironment sim) throws IOException {
+		try (FileWriter mcWriter = new FileWriter(sim.reportFileName("montecarlo_report", false))) {
+			for (ArrayList<Integer> al : sim.getMcRxTimeseries()) {
+				for (Integer i : al) {
+					mcWriter.write(i+",");
+				}
+				mcWriter.write("\n");
+			}
+		}
+	}
+
+	@Override
+	public void close() {
+		// every file is closed as soon as it is written
+	}
+}
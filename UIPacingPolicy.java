@@ -0,0 +1,64 @@
+/*
+ *  UIPacingPolicy for Agent Based Modeling
+ *  @author Chad Holmes
+ *  
+ *  MIT EM.426 Spring 2021 class
+ *  
+ *  Pacing policy used by the JavaFX front ends: sleeps the simulation
+ *  thread after progress updates and between Monte Carlo runs so the 
+ *  UI can catch up.
+ */
+
+public class UIPacingPolicy implements IPacingPolicy {
+
+	public static final int DEFAULT_PROGRESS_PAUSE = 200; // milliseconds
+	public static final int DEFAULT_RUN_PAUSE = 1000;     // milliseconds
+	
+	private int progress_pause;
+	private int run_pause;
+	
+	/*
+	 * Constructors
+	 */
+	public UIPacingPolicy() {
+		this(DEFAULT_PROGRESS_PAUSE, DEFAULT_RUN_PAUSE);
+	}
+	
+	public UIPacingPolicy(int progress_pause, int run_pause) {
+		this.progress_pause = progress_pause;
+		this.run_pause = run_pause;
+	}
+	
+	@Override
+	public void pauseAfterProgress() {
+		pause(this.progress_pause);
+	}
+
+	@Override
+	public void pauseBetweenRuns() {
+		pause(this.run_pause);
+	}
+	
+	// helper function to sleep the simulation thread
+	private void pause(int millis) {
+    	try { 
+    		Thread.sleep(millis);
+		}
+    	catch(InterruptedException ex){ 
+    		// do nothing
+		}
+	}
+	
+	/*
+	 * Getters and Setters
+	 */
+	public int getProgressPause() { return progress_pause; }
+	public void setProgressPause(int progress_pause) {
+		this.progress_pause = progress_pause;
+	}
+	
+	public int getRunPause() { return run_pause; }
+	public void setRunPause(int run_pause) {
+		this.run_pause = run_pause;
+	}
+}
@@ -1,6 +1,5 @@
-import java.beans.PropertyChangeListener;
 /*
- *  YangAgent is an Agent with a PropertyChangeListener 
+ *  YangAgent is an Agent with an ISimEventListener 
  *  for use in Agent Based Modeling
  *  @author Chad Holmes
  *
@@ -12,7 +11,7 @@ import java.beans.PropertyChangeListener;
  *  single skill.
  *  
  */
-public class YangAgent extends Agent implements PropertyChangeListener {
+public class YangAgent extends Agent implements ISimEventListener {
 
 	/*
 	 * Constructors
@@ -30,6 +29,16 @@ public class YangAgent extends Agent implements PropertyChangeListener {
 		initialize();
 	}
 	
+	// with its own random number stream (see SimEnvironment.createAgents)
+	public YangAgent(String name, SimRandom rand) {
+		this(name, 100, rand);
+	}
+	
+	public YangAgent(String name, int efficiency, SimRandom rand) {
+		super(name, efficiency, rand);
+		initialize();
+	}
+	
 	/* 
 	 * Helper functions
 	 */
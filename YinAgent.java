@@ -1,6 +1,5 @@
-import java.beans.PropertyChangeListener;
 /*
- *  YinAgent is an Agent with a PropertyChangeListener 
+ *  YinAgent is an Agent with an ISimEventListener 
  *  for use in Agent Based Modeling
  *  @author Chad Holmes
  *
@@ -12,7 +11,7 @@ import java.beans.PropertyChangeListener;
  *  single skill.
  *  
  */
-public class YinAgent extends Agent implements PropertyChangeListener {
+public class YinAgent extends Agent implements ISimEventListener {
 
 	/*
 	 * Constructors
@@ -30,6 +29,16 @@ public class YinAgent extends Agent implements PropertyChangeListener {
 		initialize();
 	}
 	
+	// with its own random number stream (see SimEnvironment.createAgents)
+	public YinAgent(String name, SimRandom rand) {
+		this(name, 100, rand);
+	}
+	
+	public YinAgent(String name, int efficiency, SimRandom rand) {
+		super(name, efficiency, rand);
+		initialize();
+	}
+	
 	/* 
 	 * Helper functions
 	 */
@@ -0,0 +1,147 @@
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+import em426.bench.IModelFixture;
+
+/*
+ * SimFixture Class for Agent Based Modeling benchmarks
+ *  @author Chad Holmes
+ *
+ *  For MIT EM.426 Spring 2021 class
+ *
+ *  Lives in the default package next to the model so it can reach the
+ *  protected and package-private hot paths (Agent.completeNextTask,
+ *  Agent._expendEffort, ...).  The JMH benchmarks in em426.bench call
+ *  into it through IModelFixture.
+ *
+ *  SimLog is switched off, stray console output discarded and reports
+ *  dropped (NullReportSink) so the benchmarks measure the simulation
+ *  rather than the terminal and the disk.
+ *
+ */
+public class SimFixture implements IModelFixture {
+
+	private static final DemandType[] WORK_TYPES = {
+		DemandType.NEED1, DemandType.NEED2, DemandType.NEED3, DemandType.NEED4, DemandType.NEED5 };
+
+	private static final IReportSink REPORTS = new NullReportSink();
+
+	// simulation parameters
+	private int n_agents;
+	private int n_init_demands;
+	private int prob_new_demand;
+	private int n_cycles;
+
+	// simulation used by syncGlobalTime (and for its SupplyDemandTable)
+	private SimEnvironment sim;
+
+	// stand-alone agent used by the Agent micro benchmarks
+	private Agent agent;
+	private Demand[] backlog;
+	private SupplyDemandTable sd_table;
+
+	// round-robin position for expendEffort / isValidMatch
+	private int next;
+
+	@Override
+	public void setUp(int n_agents, int n_init_demands, int prob_new_demand, int n_cycles, int n_backlog) {
+		SimLog.setLevel(LogLevel.OFF);
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+		this.n_agents = n_agents;
+		this.n_init_demands = n_init_demands;
+		this.prob_new_demand = prob_new_demand;
+		this.n_cycles = n_cycles;
+
+		this.sim = this._newSim();
+		this.sim.prepareRun();
+		this.sd_table = this.sim.getDemandList().getSupplyDemandTable();
+
+		// agent with every skill, so every demand can be completed on its own
+		this.agent = new SuperAgent("Bench");
+		this.agent.setSupplyDemandTable(this.sd_table);
+		this.agent.setState(AgentState.ACTIVE);
+		this.backlog = new Demand[n_backlog];
+		for (int i = 0; i < n_backlog; i++) {
+			this.backlog[i] = new Demand("Bench"+i,
+										 DemandPriority.values()[i % DemandPriority.URGENT.ordinal()],
+										 WORK_TYPES[i % WORK_TYPES.length],
+										 (i % 25)+1);
+		}
+		this.next = 0;
+	}
+
+	@Override
+	public int completeNextTasks() {
+		
+		// start every batch from full supplies, so no demand is left PARTIAL
+		for (Supply s : this.agent.resources) {
+			s.resetAmount();
+		}
+		this.agent.setState(AgentState.ACTIVE);
+		
+		for (Demand d : this.backlog) {
+			d.clearPartial();
+			d.setQueued();
+			this.agent.addToBacklog(d);
+		}
+
+		int ncomplete = 0;
+		for (int i = 0; i < this.backlog.length; i++) {
+			if(this.agent.completeNextTask()) {
+				ncomplete++;
+			}
+		}
+
+		// keep the agent from accumulating history between invocations
+		this.agent.completed_tasks.clear();
+		this.agent.new_completed.clear();
+		this.agent.commit_queue.clear();
+		this.agent.ledger.clear();
+		this.agent.committed_ledger.clear();
+		this.agent.undo.clear();
+		this.agent.setAgentTime(0);
+		return ncomplete;
+	}
+
+	@Override
+	public boolean expendEffort() {
+		Demand d = this.backlog[this.next];
+		this.next = (this.next+1) % this.backlog.length;
+
+		d.clearPartial();
+		this.agent.undo.clear();
+		return this.agent._expendEffort(d, d.getEffort());
+	}
+
+	@Override
+	public boolean isValidMatch() {
+		DemandType dt = WORK_TYPES[this.next];
+		this.next = (this.next+1) % WORK_TYPES.length;
+
+		return this.sd_table.isValidMatch(dt, this.agent.resources);
+	}
+
+	@Override
+	public int syncGlobalTime() {
+		this.sim.syncGlobalTime();
+		return this.sim.getGlobalTime().get();
+	}
+
+	@Override
+	public int runSimulation() {
+		SimEnvironment run = this._newSim();
+		run.runOnce();
+		return run.getGlobalTime().get();
+	}
+
+	private SimEnvironment _newSim() {
+		SimEnvironment s = new SimEnvironment();
+		s.setReportSink(REPORTS);
+		s.setNumAgents(this.n_agents);
+		s.setNumInitDemands(this.n_init_demands);
+		s.setProbNewDemand(this.prob_new_demand);
+		s.setNumCycles(this.n_cycles);
+		return s;
+	}
+}
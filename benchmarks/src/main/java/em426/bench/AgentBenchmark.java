@@ -0,0 +1,55 @@
+package em426.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * AgentBenchmark Class
+ * @author Chad Holmes
+ *
+ * Micro benchmarks for the Agent task hot paths:
+ *  - completeNextTask: one call per demand on a backlog of BACKLOG demands
+ *    (re-queueing the backlog is included, amortized over the batch)
+ *  - _expendEffort: one demand's worth of effort against the agent's supplies
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AgentBenchmark {
+
+	static final int BACKLOG = 100;
+
+	private IModelFixture fixture;
+
+	@Setup
+	public void setUp() {
+		fixture = Fixtures.create();
+		fixture.setUp(5, 20, 0, 200, BACKLOG);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BACKLOG)
+	public int completeNextTask() {
+		return fixture.completeNextTasks();
+	}
+
+	@Benchmark
+	public boolean expendEffort() {
+		return fixture.expendEffort();
+	}
+}
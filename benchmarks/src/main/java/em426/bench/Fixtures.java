@@ -0,0 +1,24 @@
+package em426.bench;
+
+/*
+ * Fixtures Class
+ * @author Chad Holmes
+ *
+ * Loads the default-package SimFixture for the benchmarks
+ *
+ */
+public final class Fixtures {
+
+	private static final String FIXTURE_CLASS = "SimFixture";
+
+	private Fixtures() {}
+
+	public static IModelFixture create() {
+		try {
+			return (IModelFixture) Class.forName(FIXTURE_CLASS).getDeclaredConstructor().newInstance();
+		}
+		catch (ReflectiveOperationException e) {
+			throw new IllegalStateException("Unable to load benchmark fixture "+FIXTURE_CLASS, e);
+		}
+	}
+}
@@ -0,0 +1,34 @@
+package em426.bench;
+
+/*
+ * IModelFixture Interface
+ * @author Chad Holmes
+ *
+ * The model classes live in the default package, which JMH benchmark
+ * classes cannot (and Java code in a named package cannot import from).
+ * The benchmarks therefore drive the model through this interface,
+ * implemented by SimFixture in the default package and loaded by name.
+ *
+ */
+public interface IModelFixture {
+
+	// build the model: a simulation with the given parameters, plus a
+	// stand-alone SuperAgent with a backlog of n_backlog demands
+	public void setUp(int n_agents, int n_init_demands, int prob_new_demand, int n_cycles, int n_backlog);
+
+	// re-queue the backlog and call Agent.completeNextTask() once per demand
+	// (returns number completed)
+	public int completeNextTasks();
+
+	// call Agent._expendEffort() on a fresh copy of the next demand
+	public boolean expendEffort();
+
+	// call SupplyDemandTable.isValidMatch() for the next DemandType
+	public boolean isValidMatch();
+
+	// call SimEnvironment.syncGlobalTime() once (returns global time)
+	public int syncGlobalTime();
+
+	// run a full headless simulation realization (returns global time)
+	public int runSimulation();
+}
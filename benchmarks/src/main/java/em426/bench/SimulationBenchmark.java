@@ -0,0 +1,58 @@
+package em426.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * SimulationBenchmark Class
+ * @author Chad Holmes
+ *
+ * Macro benchmark: one full headless SimEnvironment realization (initial
+ * demand pool, agents, cycle loop, final commit) per invocation.
+ * Reports are dropped and logging is off, so no files are written.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimulationBenchmark {
+
+	@Param({"5", "20"})
+	public int n_agents;
+
+	@Param({"20", "200"})
+	public int n_init_demands;
+
+	@Param({"0", "50"})
+	public int prob_new_demand;
+
+	@Param({"200"})
+	public int n_cycles;
+
+	private IModelFixture fixture;
+
+	@Setup
+	public void setUp() {
+		fixture = Fixtures.create();
+		fixture.setUp(n_agents, n_init_demands, prob_new_demand, n_cycles, AgentBenchmark.BACKLOG);
+	}
+
+	@Benchmark
+	public int runSimulation() {
+		return fixture.runSimulation();
+	}
+}
@@ -0,0 +1,44 @@
+package em426.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * SupplyDemandTableBenchmark Class
+ * @author Chad Holmes
+ *
+ * Micro benchmark for isValidMatch: does an agent's list of supplies
+ * meet every requirement of a DemandType (cycling through NEED1-NEED5)
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SupplyDemandTableBenchmark {
+
+	private IModelFixture fixture;
+
+	@Setup
+	public void setUp() {
+		fixture = Fixtures.create();
+		fixture.setUp(5, 20, 0, 200, AgentBenchmark.BACKLOG);
+	}
+
+	@Benchmark
+	public boolean isValidMatch() {
+		return fixture.isValidMatch();
+	}
+}
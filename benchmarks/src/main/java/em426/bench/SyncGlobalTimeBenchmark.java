@@ -0,0 +1,55 @@
+package em426.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/*
+ * SyncGlobalTimeBenchmark Class
+ * @author Chad Holmes
+ *
+ * Micro benchmark for SimEnvironment.syncGlobalTime: FINISH_TASK to all
+ * agents, agent ordering, then COMMIT_UNTIL at the minimum agent time.
+ * A fresh simulation is built every iteration; once the initial demand
+ * pool is worked off the remaining calls measure the synchronization
+ * itself.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SyncGlobalTimeBenchmark {
+
+	@Param({"5", "20", "100"})
+	public int n_agents;
+
+	@Param({"200"})
+	public int n_init_demands;
+
+	private IModelFixture fixture;
+
+	@Setup(Level.Iteration)
+	public void setUp() {
+		fixture = Fixtures.create();
+		fixture.setUp(n_agents, n_init_demands, 0, 200, AgentBenchmark.BACKLOG);
+	}
+
+	@Benchmark
+	public int syncGlobalTime() {
+		return fixture.syncGlobalTime();
+	}
+}
@@ -0,0 +1,71 @@
+#!/usr/bin/env python
+# coding: utf-8
+
+# Load a BinaryReportSink file (sim_report_*.emr) into pandas DataFrames.
+# See BinaryReportSink.java for the layout.
+#
+#   runs, agents, interactions, collabs = read_report("sim_report_5_200_20_0.emr")
+#   edges = interactions[interactions.run == 0]   # node1, node2, weight
+
+from pathlib import Path
+
+import pandas as pd
+
+
+def _varints(buf, pos, n):
+    out = [0]*n
+    for i in range(n):
+        v = shift = 0
+        while True:
+            b = buf[pos]
+            pos += 1
+            v |= (b & 0x7F) << shift
+            shift += 7
+            if b < 0x80:
+                break
+        out[i] = v
+    return out, pos
+
+
+def read_report(path):
+    buf = Path(path).read_bytes()
+    if buf[:4] != b"EMRP" or buf[4] != 1:
+        raise ValueError("not a version 1 binary report file")
+
+    names = []
+    runs = []
+    tables = {"A": [], "I": [], "C": []}
+    ncols = {"A": 1, "I": 3, "C": 2}
+    pos = 5
+    while True:
+        tag = chr(buf[pos])
+        pos += 1
+        if tag == "E":
+            break
+        if tag == "N":
+            (_, length), pos = _varints(buf, pos, 2)
+            names.append(buf[pos:pos+length].decode("utf-8"))
+            pos += length
+        elif tag == "R":
+            row, pos = _varints(buf, pos, 6)
+            runs.append(row)
+        elif tag in tables:
+            (n,), pos = _varints(buf, pos, 1)
+            cols, pos = _varints(buf, pos, n*(ncols[tag]+1))
+            tables[tag].append([cols[c*n:(c+1)*n] for c in range(ncols[tag]+1)])
+        else:
+            raise ValueError("unknown record " + tag)
+
+    def frame(tag, columns, named):
+        blocks = tables[tag]
+        df = pd.DataFrame({c: [v for b in blocks for v in b[i]] for i, c in enumerate(columns)})
+        for c in named:
+            df[c] = pd.Categorical.from_codes(df[c], categories=names)
+        return df
+
+    runs = pd.DataFrame(runs, columns=["run", "n_agents", "n_cycles", "n_init_demands",
+                                       "prob_new_demand", "interax_lr"])
+    agents = frame("A", ["run", "node"], ["node"])
+    interactions = frame("I", ["run", "node1", "node2", "weight"], ["node1", "node2"])
+    collabs = frame("C", ["run", "node", "collaborations"], ["node"])
+    return runs, agents, interactions, collabs
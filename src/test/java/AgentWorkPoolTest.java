@@ -0,0 +1,94 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/*
+ *  AgentWorkPoolTest for Agent Based Modeling
+ *  @author Chad Holmes
+ *
+ *  MIT EM.426 Spring 2021 class
+ */
+
+public class AgentWorkPoolTest {
+
+	@TempDir
+	Path dir;
+
+	@BeforeAll
+	static void quiet() {
+		SimLog.setLevel(LogLevel.OFF);
+	}
+
+	// archive records of a run on n_threads, agents numbered by first commit
+	// (ids are random, so they cannot be compared between runs)
+	private List<String> archivedRun(int n_threads, boolean event_driven) throws IOException {
+		SimEnvironment sim = new SimEnvironment();
+		sim.setNumAgents(30);
+		sim.setNumCycles(600);
+		sim.setNumInitDemands(100);
+		sim.setProbNewDemand(60);
+		sim.setSeed(5);
+		sim.setParallelism(n_threads);
+		sim.setEventDriven(event_driven);
+		sim.setReportSink(new NullReportSink());
+
+		Path file = dir.resolve("commits_"+n_threads+"_"+event_driven+".emca");
+		sim.prepareRun();
+		sim.getCommitArchive().open(file);
+		sim.runCycles();
+		sim.setParallelism(1);
+
+		List<String> records = new ArrayList<String>();
+		HashMap<UUID,Integer> agents = new HashMap<UUID,Integer>();
+		CommitArchive.read(file, (demand, agent, type, priority, effort, start, finish) -> {
+			int a = agents.computeIfAbsent(agent, k -> agents.size());
+			records.add(a+" "+type+" "+priority+" "+effort+" "+start+" "+finish);
+		});
+		records.add("time "+sim.getGlobalTime().get());
+		records.add("mc "+sim.getMcRxTimeseries());
+		return records;
+	}
+
+	@Test
+	void runsDoNotDependOnThreads() throws IOException {
+		List<String> serial = archivedRun(1, false);
+		assertTrue(serial.size() > 100);
+		assertEquals(serial, archivedRun(4, false));
+	}
+
+	@Test
+	void eventRunsDoNotDependOnThreads() throws IOException {
+		// agents refreshing side by side all report to the EventScheduler
+		List<String> serial = archivedRun(1, true);
+		assertTrue(serial.size() > 100);
+		for (int i = 0; i < 3; i++) {
+			assertEquals(serial, archivedRun(8, true));
+		}
+	}
+
+	@Test
+	void forEachVisitsEveryItemOnce() {
+		List<Integer> items = new ArrayList<Integer>();
+		for (int i = 0; i < 1000; i++) {
+			items.add(i);
+		}
+		int[] seen = new int[items.size()];
+
+		AgentWorkPool pool = new AgentWorkPool(4);
+		pool.forEach(items, i -> seen[i]++);
+		pool.shutdown();
+
+		for (int i = 0; i < seen.length; i++) {
+			assertEquals(1, seen[i], "item "+i);
+		}
+	}
+}
@@ -0,0 +1,158 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/*
+ *  BinaryReportSinkTest for Agent Based Modeling
+ *  @author Chad Holmes
+ *
+ *  MIT EM.426 Spring 2021 class
+ */
+
+public class BinaryReportSinkTest {
+
+	@TempDir
+	Path dir;
+
+	// passes reports on to a BinaryReportSink and writes what the text
+	// reports of the run would be into expected/
+	private static class TeeSink implements IReportSink {
+		final IReportSink binary;
+		final Path expected;
+		final StringBuilder montecarlo = new StringBuilder();
+
+		TeeSink(IReportSink binary, Path expected) {
+			this.binary = binary;
+			this.expected = expected;
+		}
+
+		@Override
+		public void writeAgents(SimEnvironment sim, List<Agent> agents) throws IOException {
+			binary.writeAgents(sim, agents);
+		}
+
+		@Override
+		public void writeFinalReport(SimEnvironment sim, List<Agent> agents) throws IOException {
+			binary.writeFinalReport(sim, agents);
+
+			String suffix = sim.getNumAgents()+"_"+sim.getNumCycles()+"_"+sim.getNumInitDemands()+"_"+
+							sim.getProbNewDemand()+"_run"+sim.getRunId()+".txt";
+			try (FileWriter w = new FileWriter(expected.resolve("agent_report_"+suffix).toFile())) {
+				for (Agent a : agents) {
+					w.write(a.getName()+"\n");
+				}
+			}
+			try (FileWriter w = new FileWriter(expected.resolve("interaction_report_"+suffix).toFile())) {
+				for (Agent a : agents) {
+					a.reportInteractions(w);
+				}
+			}
+			for (Agent a : agents) {
+				montecarlo.append(a.getCollaborationCount()).append(",");
+			}
+			montecarlo.append("\n");
+		}
+
+		@Override
+		public void writeMonteCarloReport(SimEnvironment sim) throws IOException {
+			binary.writeMonteCarloReport(sim);
+		}
+
+		@Override
+		public void close() throws IOException {
+			binary.close();
+		}
+	}
+
+	@BeforeAll
+	static void quiet() {
+		SimLog.setLevel(LogLevel.OFF);
+	}
+
+	private static void run(IReportSink sink, int run_id) {
+		SimEnvironment sim = new SimEnvironment();
+		sim.setNumAgents(8);
+		sim.setNumCycles(150);
+		sim.setNumInitDemands(30);
+		sim.setProbNewDemand(30);
+		sim.setRunId(run_id);
+		sim.setReportSink(sink);
+		sim.runOnce();
+	}
+
+	@Test
+	void exportMatchesTheTextReports() throws IOException {
+		Path file = dir.resolve("report.emr");
+		Path expected = Files.createDirectory(dir.resolve("expected"));
+		Path exported = Files.createDirectory(dir.resolve("exported"));
+
+		TeeSink sink = new TeeSink(new BinaryReportSink(file), expected);
+		run(sink, 0);
+		run(sink, 1);
+		sink.close();
+		Files.writeString(expected.resolve("montecarlo_report_8_150_30_30.txt"), sink.montecarlo);
+
+		ReportExport export = new ReportExport();
+		export.read(file);
+		export.write(exported);
+
+		List<Path> files;
+		try (var l = Files.list(expected)) {
+			files = l.sorted().toList();
+		}
+		assertEquals(5, files.size());
+		for (Path f : files) {
+			Path out = exported.resolve(f.getFileName());
+			assertTrue(Files.exists(out), f.getFileName().toString());
+			assertEquals(Files.readString(f), Files.readString(out), f.getFileName().toString());
+		}
+		try (var l = Files.list(exported)) {
+			assertEquals(files.size(), l.count());
+		}
+	}
+
+	@Test
+	void appendKeepsCompleteRunsOnly() throws IOException {
+		Path file = dir.resolve("report.emr");
+		try (BinaryReportSink sink = new BinaryReportSink(file)) {
+			run(sink, 0);
+			run(sink, 1);
+		}
+		long two_runs = Files.size(file);
+
+		// an interrupted write: half of a third run, no END record
+		try (BinaryReportSink sink = new BinaryReportSink(file, true)) {
+			run(sink, 2);
+		}
+		long three_runs = Files.size(file);
+		try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			ch.truncate((two_runs+three_runs)/2);
+		}
+
+		try (BinaryReportSink sink = new BinaryReportSink(file, true)) {
+			assertTrue(sink.hasRun(0));
+			assertTrue(sink.hasRun(1));
+			assertFalse(sink.hasRun(2));
+			assertArrayEquals(new int[] {8, 150, 30, 30, 0}, sink.getRunParams(1));
+			run(sink, 3);
+		}
+
+		ReportExport export = new ReportExport();
+		export.read(file);
+		export.write(dir);
+		assertTrue(Files.exists(dir.resolve("interaction_report_8_150_30_30_run1.txt")));
+		assertFalse(Files.exists(dir.resolve("interaction_report_8_150_30_30_run2.txt")));
+		assertTrue(Files.exists(dir.resolve("interaction_report_8_150_30_30_run3.txt")));
+		assertEquals(3, Files.readAllLines(dir.resolve("montecarlo_report_8_150_30_30.txt")).size());
+	}
+}
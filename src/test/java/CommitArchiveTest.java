@@ -0,0 +1,152 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/*
+ *  CommitArchiveTest for Agent Based Modeling
+ *  @author Chad Holmes
+ *
+ *  MIT EM.426 Spring 2021 class
+ */
+
+public class CommitArchiveTest {
+
+	// more than one window of records
+	private static final int MANY = (1 << 14)+100;
+
+	@TempDir
+	Path dir;
+
+	@BeforeAll
+	static void quiet() {
+		SimLog.setLevel(LogLevel.OFF);
+	}
+
+	// records of an archive file, one string each
+	private static List<String> records(Path file) throws IOException {
+		List<String> l = new ArrayList<String>();
+		long n = CommitArchive.read(file, (demand, agent, type, priority, effort, start, finish) -> {
+			l.add(demand+" "+agent+" "+type+" "+priority+" "+effort+" "+start+" "+finish);
+		});
+		assertEquals(n, l.size());
+		return l;
+	}
+
+	private static String record(Demand d, Agent a, int start, int finish) {
+		return d.getId()+" "+a.getId()+" "+d.getType()+" "+d.getPriority()+" "+d.getEffort()+" "+start+" "+finish;
+	}
+
+	@Test
+	void recordsReadBackInOrder() throws IOException {
+		Agent a = new Agent("a", 10);
+		Agent b = new Agent("b", 10);
+		Demand d1 = new Demand("d1", DemandPriority.HIGH, DemandType.NEED2, 12);
+		Demand d2 = new Demand("d2", DemandPriority.LOW, DemandType.COLLABORATE, 5);
+		Demand d3 = new Demand("d3", DemandPriority.URGENT, DemandType.NEED2, 7);
+
+		Path file = dir.resolve("commits.emca");
+		CommitArchive archive = new CommitArchive();
+		archive.open(file);
+		archive.record(d1, a, 0, 15);
+		archive.record(d2, b, 3, 9);
+		archive.record(d3, a, 15, 20);
+		archive.close();
+
+		assertEquals(List.of(record(d1, a, 0, 15), record(d2, b, 3, 9), record(d3, a, 15, 20)),
+					 records(file));
+		assertEquals(3, archive.getNumRecords());
+		assertEquals(2, archive.getNumRecords(DemandType.NEED2));
+		assertEquals(1, archive.getNumRecords(DemandType.COLLABORATE));
+		assertEquals(0, archive.getNumRecords(DemandType.NEED1));
+		assertEquals(24, archive.getTotalEffort());
+		assertEquals(26, archive.getTimeSpent());
+	}
+
+	@Test
+	void recordsSpanSeveralWindows() throws IOException {
+		Agent a = new Agent("a", 10);
+		Demand d = new Demand("d", DemandPriority.MEDIUM, DemandType.NEED4, 3);
+
+		Path file = dir.resolve("many.emca");
+		CommitArchive archive = new CommitArchive();
+		archive.open(file);
+		for (int i = 0; i < MANY; i++) {
+			archive.record(d, a, i, i+3);
+		}
+
+		// the count is brought up to date when a window fills up
+		assertEquals(1 << 14, CommitArchive.read(file, (demand, agent, type, priority, effort, start, finish) -> {}));
+		archive.close();
+
+		List<String> l = records(file);
+		assertEquals(MANY, l.size());
+		for (int i = 0; i < MANY; i++) {
+			assertEquals(record(d, a, i, i+3), l.get(i));
+		}
+		assertEquals(MANY, archive.getNumRecords());
+		assertEquals(3L*MANY, archive.getTimeSpent());
+	}
+
+	@Test
+	void openingAgainReplacesTheFile() throws IOException {
+		Agent a = new Agent("a", 10);
+		Demand d = new Demand("d", DemandPriority.MEDIUM, DemandType.NEED1, 3);
+
+		Path file = dir.resolve("again.emca");
+		CommitArchive archive = new CommitArchive();
+		archive.open(file);
+		archive.record(d, a, 0, 3);
+		archive.record(d, a, 3, 6);
+		archive.open(file);
+		archive.record(d, a, 6, 9);
+		archive.close();
+
+		assertEquals(List.of(record(d, a, 6, 9)), records(file));
+		assertEquals(file, archive.getFile());
+	}
+
+	@Test
+	void totalsWithoutAFile() {
+		Agent a = new Agent("a", 10);
+		CommitArchive archive = new CommitArchive();
+		archive.record(new Demand("d", DemandPriority.LOW, DemandType.NEED3, 8), a, 2, 12);
+		archive.close();
+
+		assertNull(archive.getFile());
+		assertEquals(1, archive.getNumRecords());
+		assertEquals(8, archive.getTotalEffort());
+		assertEquals(10, archive.getTimeSpent());
+
+		// as saved and restored by SimCheckpoint
+		CommitArchive restored = new CommitArchive();
+		restored.setTotals(archive.getTotals());
+		assertArrayEquals(archive.getTotals(), restored.getTotals());
+		assertEquals(1, restored.getNumRecords(DemandType.NEED3));
+	}
+
+	@Test
+	void rejectsFilesThatAreNotArchives() throws IOException {
+		Path junk = dir.resolve("junk.emca");
+		Files.write(junk, List.of("not a commit archive"));
+		assertThrows(IOException.class, () -> records(junk));
+
+		// a record count past the end of the file
+		Path file = dir.resolve("short.emca");
+		CommitArchive archive = new CommitArchive();
+		archive.open(file);
+		archive.record(new Demand("d", DemandPriority.LOW, DemandType.NEED1, 1), new Agent("a", 10), 0, 1);
+		archive.close();
+		byte[] bytes = Files.readAllBytes(file);
+		Files.write(file, Arrays.copyOf(bytes, CommitArchive.HEADER_SIZE+CommitArchive.RECORD_SIZE/2));
+		assertThrows(IOException.class, () -> records(file));
+	}
+}
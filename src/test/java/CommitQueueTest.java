@@ -0,0 +1,109 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ *  CommitQueueTest for Agent Based Modeling
+ *  @author Chad Holmes
+ *
+ *  MIT EM.426 Spring 2021 class
+ */
+
+public class CommitQueueTest {
+
+	// a Demand and the time it finished
+	private static class Done {
+		final Demand demand;
+		final int finish;
+
+		Done(int i, int finish) {
+			this.demand = new Demand("d"+i, DemandPriority.LOW, DemandType.NEED1, 10);
+			this.finish = finish;
+		}
+	}
+
+	private static List<Demand> drain(CommitQueue q) {
+		List<Demand> l = new ArrayList<Demand>();
+		while (!q.isEmpty()) {
+			int finish = q.peekFinish();
+			Demand d = q.poll();
+			l.add(d);
+			assertTrue(q.isEmpty() || q.peekFinish() >= finish);
+		}
+		return l;
+	}
+
+	// what the queue should hand back: by finish time, ties in the order added
+	private static List<Demand> expected(List<Done> done) {
+		List<Done> sorted = new ArrayList<Done>(done);
+		sorted.sort(Comparator.comparingInt(x -> x.finish)); // (stable)
+		List<Demand> l = new ArrayList<Demand>();
+		for (Done x : sorted) {
+			l.add(x.demand);
+		}
+		return l;
+	}
+
+	@Test
+	void pollsByFinishTimeThenOrderAdded() {
+		Random rand = new Random(3);
+		CommitQueue q = new CommitQueue();
+		List<Done> done = new ArrayList<Done>();
+		for (int i = 0; i < 500; i++) {
+			// few distinct times, so plenty of ties (and growth past 16)
+			Done x = new Done(i, rand.nextInt(20));
+			done.add(x);
+			q.add(x.demand, x.finish);
+		}
+
+		assertEquals(500, q.size());
+		assertEquals(expected(done), drain(q));
+		assertEquals(0, q.size());
+	}
+
+	@Test
+	void interleavedAddsAndPollsKeepOrder() {
+		Random rand = new Random(8);
+		CommitQueue q = new CommitQueue();
+		List<Done> pending = new ArrayList<Done>();
+		for (int i = 0; i < 2000; i++) {
+			Done x = new Done(i, i/10+rand.nextInt(30));
+			pending.add(x);
+			q.add(x.demand, x.finish);
+
+			if(rand.nextInt(3) == 0) {
+				Demand first = expected(pending).get(0);
+				assertEquals(first.getName(), q.poll().getName());
+				pending.removeIf(p -> p.demand == first);
+			}
+		}
+		assertEquals(pending.size(), q.size());
+		assertEquals(expected(pending), drain(q));
+	}
+
+	@Test
+	void clearEmptiesTheQueue() {
+		CommitQueue q = new CommitQueue();
+		for (int i = 0; i < 40; i++) {
+			q.add(new Done(i, 40-i).demand, 40-i);
+		}
+
+		q.clear();
+		assertTrue(q.isEmpty());
+		assertEquals(0, q.size());
+
+		Done a = new Done(0, 7);
+		Done b = new Done(1, 7);
+		q.add(a.demand, a.finish);
+		q.add(b.demand, b.finish);
+		assertEquals(7, q.peekFinish());
+		assertSame(a.demand, q.poll());
+		assertSame(b.demand, q.poll());
+		assertTrue(q.isEmpty());
+	}
+}
@@ -0,0 +1,141 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ *  CommittedLedgerTest for Agent Based Modeling
+ *  @author Chad Holmes
+ *
+ *  MIT EM.426 Spring 2021 class
+ */
+
+public class CommittedLedgerTest {
+
+	private static List<UUID> ids(int n) {
+		List<UUID> l = new ArrayList<UUID>();
+		for (int i = 0; i < n; i++) {
+			l.add(new UUID(i*31L, i));
+		}
+		return l;
+	}
+
+	@Test
+	void addedDemandsCanBeLookedUp() {
+		CommittedLedger cl = new CommittedLedger();
+		UUID a = UUID.randomUUID();
+		UUID b = UUID.randomUUID();
+		cl.add(a, 3, 10);
+		cl.add(b, 10, 12);
+
+		assertEquals(2, cl.size());
+		assertTrue(cl.contains(a));
+		assertEquals(3, cl.getTimeAtStart(a, -1));
+		assertEquals(10, cl.getTimeAtFinish(a, -1));
+		assertEquals(7, cl.getEffort(a));
+		assertEquals(2, cl.getEffort(b));
+
+		UUID missing = UUID.randomUUID();
+		assertFalse(cl.contains(missing));
+		assertEquals(-1, cl.getTimeAtStart(missing, -1));
+		assertEquals(-2, cl.getTimeAtFinish(missing, -2));
+		assertEquals(0, cl.getEffort(missing));
+	}
+
+	@Test
+	void addingAgainReplacesTheTimes() {
+		CommittedLedger cl = new CommittedLedger();
+		UUID a = UUID.randomUUID();
+		cl.add(a, 3, 10);
+		cl.add(a, 20, 25);
+
+		assertEquals(1, cl.size());
+		assertEquals(20, cl.getTimeAtStart(a, -1));
+		assertEquals(5, cl.getEffort(a));
+	}
+
+	@Test
+	void removingKeepsCollidingDemandsReachable() {
+		// same hash (hi ^ lo), so they share a probe chain
+		UUID a = new UUID(1, 2);
+		UUID b = new UUID(2, 1);
+		UUID c = new UUID(3, 0);
+		CommittedLedger cl = new CommittedLedger();
+		cl.add(a, 0, 1);
+		cl.add(b, 0, 2);
+		cl.add(c, 0, 3);
+
+		cl.remove(b);
+		cl.remove(UUID.randomUUID());
+		assertEquals(2, cl.size());
+		assertFalse(cl.contains(b));
+		assertEquals(1, cl.getEffort(a));
+		assertEquals(3, cl.getEffort(c));
+
+		// and back in
+		cl.add(b, 5, 9);
+		assertEquals(3, cl.size());
+		assertEquals(4, cl.getEffort(b));
+		assertEquals(3, cl.getEffort(c));
+	}
+
+	@Test
+	void growsToHoldManyDemands() {
+		CommittedLedger cl = new CommittedLedger();
+		int capacity = cl.capacity();
+		List<UUID> ids = ids(5000);
+		for (int i = 0; i < ids.size(); i++) {
+			cl.add(ids.get(i), i, 2*i);
+		}
+
+		assertEquals(ids.size(), cl.size());
+		assertTrue(cl.capacity() > capacity);
+		for (int i = 0; i < ids.size(); i++) {
+			assertEquals(i, cl.getTimeAtStart(ids.get(i), -1));
+			assertEquals(i, cl.getEffort(ids.get(i)));
+		}
+	}
+
+	@Test
+	void churnDoesNotGrowTheTable() {
+		CommittedLedger cl = new CommittedLedger();
+		int capacity = cl.capacity();
+		List<UUID> ids = ids(10000);
+
+		// a handful live at a time, the rest leave tombstones behind
+		for (int i = 0; i < ids.size(); i++) {
+			cl.add(ids.get(i), i, i+1);
+			if(i >= 4) {
+				cl.remove(ids.get(i-4));
+			}
+		}
+
+		assertEquals(4, cl.size());
+		assertEquals(capacity, cl.capacity());
+		for (int i = ids.size()-4; i < ids.size(); i++) {
+			assertEquals(i, cl.getTimeAtStart(ids.get(i), -1));
+		}
+		assertFalse(cl.contains(ids.get(0)));
+	}
+
+	@Test
+	void clearForgetsEverything() {
+		CommittedLedger cl = new CommittedLedger();
+		List<UUID> ids = ids(100);
+		for (UUID id : ids) {
+			cl.add(id, 1, 2);
+		}
+
+		cl.clear();
+		assertEquals(0, cl.size());
+		for (UUID id : ids) {
+			assertFalse(cl.contains(id));
+		}
+		cl.add(ids.get(0), 4, 6);
+		assertEquals(1, cl.size());
+		assertEquals(2, cl.getEffort(ids.get(0)));
+	}
+}
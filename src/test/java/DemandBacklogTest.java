@@ -0,0 +1,120 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ *  DemandBacklogTest for Agent Based Modeling
+ *  @author Chad Holmes
+ *
+ *  MIT EM.426 Spring 2021 class
+ */
+
+public class DemandBacklogTest {
+
+	private static Demand demand(String name, DemandPriority p) {
+		return new Demand(name, p, DemandType.NEED1, 10);
+	}
+
+	private static List<String> names(DemandBacklog backlog) {
+		List<String> l = new ArrayList<String>();
+		for (Demand d : backlog) {
+			l.add(d.getName());
+		}
+		return l;
+	}
+
+	@Test
+	void highestPriorityFirstThenOrderAdded() {
+		DemandBacklog backlog = new DemandBacklog();
+		backlog.add(demand("low1", DemandPriority.LOW));
+		backlog.add(demand("urgent", DemandPriority.URGENT));
+		backlog.add(demand("med1", DemandPriority.MEDIUM));
+		backlog.add(demand("low2", DemandPriority.LOW));
+		backlog.add(demand("med2", DemandPriority.MEDIUM));
+
+		assertEquals(List.of("urgent", "med1", "med2", "low1", "low2"), names(backlog));
+		assertEquals("urgent", backlog.first().getName());
+	}
+
+	@Test
+	void addIgnoresDuplicates() {
+		DemandBacklog backlog = new DemandBacklog();
+		Demand d = demand("d", DemandPriority.HIGH);
+
+		assertTrue(backlog.add(d));
+		assertFalse(backlog.add(d));
+		assertEquals(1, backlog.size());
+		assertEquals(List.of("d"), names(backlog));
+	}
+
+	@Test
+	void removeKeepsIndexAndLinksConsistent() {
+		DemandBacklog backlog = new DemandBacklog();
+		Demand a = demand("a", DemandPriority.HIGH);
+		Demand b = demand("b", DemandPriority.HIGH);
+		Demand c = demand("c", DemandPriority.HIGH);
+		Demand l = demand("l", DemandPriority.LOW);
+		backlog.add(a);
+		backlog.add(b);
+		backlog.add(c);
+		backlog.add(l);
+
+		// middle, head and tail of a bucket
+		assertTrue(backlog.remove(b));
+		assertEquals(List.of("a", "c", "l"), names(backlog));
+		assertTrue(backlog.remove(a));
+		assertEquals(List.of("c", "l"), names(backlog));
+		assertTrue(backlog.remove(c));
+		assertEquals(List.of("l"), names(backlog));
+
+		assertFalse(backlog.remove(b));
+		assertFalse(backlog.contains(a));
+		assertTrue(backlog.contains(l));
+		assertEquals(1, backlog.size());
+
+		// an emptied bucket takes new Demands again
+		backlog.add(b);
+		assertEquals(List.of("b", "l"), names(backlog));
+	}
+
+	@Test
+	void nextStaysValidWhileBacklogChanges() {
+		DemandBacklog backlog = new DemandBacklog();
+		Demand a = demand("a", DemandPriority.URGENT);
+		Demand b = demand("b", DemandPriority.MEDIUM);
+		Demand c = demand("c", DemandPriority.LOW);
+		backlog.add(a);
+		backlog.add(b);
+		backlog.add(c);
+
+		// walk and drop as we go, the way agents work their backlog
+		List<String> seen = new ArrayList<String>();
+		for (Demand d = backlog.first(); d != null; ) {
+			seen.add(d.getName());
+			Demand next = backlog.next(d);
+			backlog.remove(d);
+			d = next;
+		}
+		assertEquals(List.of("a", "b", "c"), seen);
+		assertTrue(backlog.isEmpty());
+		assertNull(backlog.first());
+		assertNull(backlog.next(a));
+	}
+
+	@Test
+	void clearEmptiesEveryBucket() {
+		DemandBacklog backlog = new DemandBacklog();
+		for (DemandPriority p : DemandPriority.values()) {
+			backlog.add(demand(p.name(), p));
+		}
+		assertEquals(DemandPriority.values().length, backlog.size());
+
+		backlog.clear();
+		assertTrue(backlog.isEmpty());
+		assertNull(backlog.first());
+		assertEquals(List.of(), names(backlog));
+	}
+}
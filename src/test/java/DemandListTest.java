@@ -0,0 +1,185 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ *  DemandListTest for Agent Based Modeling
+ *  @author Chad Holmes
+ *
+ *  MIT EM.426 Spring 2021 class
+ */
+
+public class DemandListTest {
+
+	private static List<String> names(Iterable<Demand> demands) {
+		List<String> l = new ArrayList<String>();
+		for (Demand d : demands) {
+			l.add(d.getName());
+		}
+		return l;
+	}
+
+	private static int count(Iterable<Demand> demands) {
+		return names(demands).size();
+	}
+
+	// every demand is in exactly one partition, matching its state and type
+	private static void assertPartitionsConsistent(DemandList dl) {
+		int total = 0;
+		for (DemandState s : DemandState.values()) {
+			int in_state = 0;
+			for (DemandType t : DemandType.values()) {
+				for (Demand d : dl.getDemands(new DemandState[] {s}, new DemandType[] {t})) {
+					assertEquals(s, d.getState(), d.getName());
+					assertEquals(t, d.getType(), d.getName());
+					in_state++;
+				}
+			}
+			assertEquals(dl.getStateCount(s), in_state, s.name());
+			assertEquals(in_state, count(dl.getDemands(s)), s.name());
+			total += in_state;
+		}
+		assertEquals(dl.getDemandCount(), total);
+	}
+
+	private static DemandList demands() {
+		DemandList dl = new DemandList();
+		dl.newDemand(new Demand("a", DemandPriority.LOW, DemandType.NEED1, 10), false);
+		dl.newDemand(new Demand("b", DemandPriority.HIGH, DemandType.NEED2, 10), false);
+		dl.newDemand(new Demand("c", DemandPriority.LOW, DemandType.NEED1, 10), false);
+		dl.newDemand(new Demand("d", DemandPriority.MEDIUM, DemandType.NEED3, 10), false);
+		dl.addDemand(new Demand("e", DemandPriority.MEDIUM, DemandType.NEED2, 10));
+		return dl;
+	}
+
+	@Test
+	void newDemandsArePartitionedByStateAndType() {
+		DemandList dl = demands();
+
+		assertEquals(5, dl.getDemandCount());
+		assertEquals(4, dl.getStateCount(DemandState.QUEUED));
+		assertEquals(1, dl.getStateCount(DemandState.DEFINED));
+		assertEquals(List.of("a", "b", "c", "d"), names(dl.getOpenDemands()));
+		assertEquals(List.of("a", "c"), names(dl.getOpenDemands(DemandType.NEED1)));
+		assertPartitionsConsistent(dl);
+	}
+
+	@Test
+	void stateAndTypeChangesMoveDemandsBetweenPartitions() {
+		DemandList dl = demands();
+		Demand a = dl.getDemandlist().get(0);
+		Demand b = dl.getDemandlist().get(1);
+		Demand d = dl.getDemandlist().get(3);
+
+		assertTrue(a.claim());
+		assertFalse(a.claim());
+		b.setIncomplete();
+		d.setType(DemandType.NEED1);
+		d.setComplete();
+
+		assertEquals(1, dl.getStateCount(DemandState.QUEUED));
+		assertEquals(1, dl.getStateCount(DemandState.ACTIVE));
+		assertEquals(1, dl.getStateCount(DemandState.INCOMPLETE));
+		assertEquals(1, dl.getStateCount(DemandState.COMPLETE));
+		assertEquals(List.of("b", "c"), names(dl.getOpenDemands()));
+		assertEquals(List.of("c"), names(dl.getOpenDemands(DemandType.NEED1)));
+		assertEquals(List.of("d"), names(dl.getDemands(DemandState.COMPLETE)));
+		assertPartitionsConsistent(dl);
+	}
+
+	@Test
+	void openDemandsOfSeveralTypesKeepInsertionOrder() {
+		DemandList dl = demands();
+		dl.getDemandlist().get(2).setIncomplete();
+
+		assertEquals(List.of("a", "c", "d"),
+				names(dl.getOpenDemands(new DemandType[] {DemandType.NEED3, DemandType.NEED1})));
+		assertEquals(List.of(), names(dl.getOpenDemands(new DemandType[] {DemandType.NEED5})));
+	}
+
+	@Test
+	void replacingTheListRebuildsPartitions() {
+		DemandList dl = demands();
+		ArrayList<Demand> kept = new ArrayList<Demand>(dl.getDemandlist().subList(1, 3));
+		dl.setDemandlist(kept);
+
+		assertEquals(2, dl.getDemandCount());
+		assertEquals(2, dl.getStateCount(DemandState.QUEUED));
+		assertEquals(0, dl.getStateCount(DemandState.DEFINED));
+		assertEquals(List.of("b", "c"), names(dl.getOpenDemands()));
+		assertPartitionsConsistent(dl);
+
+		dl.reset();
+		assertEquals(0, dl.getDemandCount());
+		assertEquals(0, dl.getStateCount(DemandState.QUEUED));
+		assertFalse(dl.getOpenDemands().iterator().hasNext());
+	}
+
+	@Test
+	void readOnlyListRejectsChanges() {
+		DemandList dl = demands();
+		Demand a = dl.getDemandlist().get(0);
+
+		dl.setReadOnly(true);
+		assertThrows(IllegalStateException.class, () -> a.claim());
+		assertThrows(IllegalStateException.class,
+				() -> dl.addDemand(new Demand("f", DemandPriority.LOW, DemandType.NEED1, 10)));
+		assertEquals(List.of("a", "b", "c", "d"), names(dl.getOpenDemands()));
+
+		// nothing changed, and changes go through again afterwards
+		dl.setReadOnly(false);
+		assertEquals(DemandState.QUEUED, a.getState());
+		assertPartitionsConsistent(dl);
+		assertTrue(a.claim());
+		assertPartitionsConsistent(dl);
+	}
+
+	@Test
+	void racingTransitionsLeavePartitionsConsistent() throws Exception {
+		DemandList dl = new DemandList();
+		for (int i = 0; i < 200; i++) {
+			dl.newDemand(new Demand("d"+i, DemandPriority.LOW, DemandType.NEED1, 10), false);
+		}
+		int n_threads = 4;
+		ExecutorService pool = Executors.newFixedThreadPool(n_threads);
+		CountDownLatch go = new CountDownLatch(1);
+		List<Future<Integer>> claimed = new ArrayList<Future<Integer>>();
+		for (int t = 0; t < n_threads; t++) {
+			int me = t;
+			claimed.add(pool.submit(() -> {
+				go.await();
+				int n = 0;
+				for (Demand d : dl.getDemandlist()) {
+					if(d.claim()) {
+						n++;
+					}
+					else if(me == 0) {
+						// someone else got there first, move it on
+						d.setComplete();
+					}
+				}
+				return n;
+			}));
+		}
+		go.countDown();
+		int total = 0;
+		for (Future<Integer> f : claimed) {
+			total += f.get();
+		}
+		pool.shutdown();
+		assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+		// every demand claimed exactly once, and listed where it is now
+		assertEquals(200, total);
+		assertEquals(0, dl.getStateCount(DemandState.QUEUED));
+		assertPartitionsConsistent(dl);
+	}
+}
@@ -0,0 +1,97 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/*
+ *  EventSchedulerTest for Agent Based Modeling
+ *  @author Chad Holmes
+ *
+ *  MIT EM.426 Spring 2021 class
+ */
+
+public class EventSchedulerTest {
+
+	@BeforeAll
+	static void quiet() {
+		SimLog.setLevel(LogLevel.OFF);
+	}
+
+	private static List<Agent> agents(int n) {
+		SimEventBus bus = new SimEventBus();
+		List<Agent> l = new ArrayList<Agent>();
+		for (int i = 0; i < n; i++) {
+			Agent a = new Agent("a"+i, 100);
+			a.joinEventBus(bus);
+			l.add(a);
+		}
+		return l;
+	}
+
+	@Test
+	void agentsWithNothingToDoAreParked() {
+		List<Agent> agents = agents(5);
+		EventScheduler scheduler = new EventScheduler(agents, 0);
+
+		assertTrue(scheduler.step(0));
+		assertEquals(5, scheduler.getNumDispatched());
+
+		// nobody is polled until a timed wake-up
+		assertFalse(scheduler.step(1));
+		assertEquals(5, scheduler.getNumDispatched());
+		scheduler.advanceTo(7);
+		assertEquals(7, scheduler.getGlobalTime());
+		scheduler.detach();
+	}
+
+	@Test
+	void changesReportedSideBySideWakeEveryAgent() throws Exception {
+		int n_agents = 20000;
+		int n_threads = 8;
+		ExecutorService pool = Executors.newFixedThreadPool(n_threads);
+		for (int round = 0; round < 10; round++) {
+			List<Agent> agents = agents(n_agents);
+			EventScheduler scheduler = new EventScheduler(agents, 0);
+			scheduler.step(0);
+			assertFalse(scheduler.step(1));
+
+			List<Demand> demands = new ArrayList<Demand>();
+			for (int i = 0; i < n_agents; i++) {
+				demands.add(new Demand("d"+i, DemandPriority.LOW, DemandType.NEED1, 5));
+			}
+
+			// backlog refreshes on several threads (as on the AgentWorkPool)
+			CountDownLatch go = new CountDownLatch(1);
+			List<Future<?>> done = new ArrayList<Future<?>>();
+			for (int t = 0; t < n_threads; t++) {
+				int me = t;
+				done.add(pool.submit(() -> {
+					go.await();
+					for (int i = me; i < n_agents; i += n_threads) {
+						agents.get(i).addToBacklog(demands.get(i));
+					}
+					return null;
+				}));
+			}
+			go.countDown();
+			for (Future<?> f : done) {
+				f.get();
+			}
+
+			// every agent is woken and gets a FINISH_TASK
+			assertTrue(scheduler.step(2));
+			assertEquals(2*n_agents, scheduler.getNumDispatched(), "round "+round);
+			scheduler.detach();
+		}
+		pool.shutdown();
+		assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+	}
+}
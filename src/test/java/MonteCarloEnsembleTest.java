@@ -0,0 +1,98 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/*
+ *  MonteCarloEnsembleTest for Agent Based Modeling
+ *  @author Chad Holmes
+ *
+ *  MIT EM.426 Spring 2021 class
+ */
+
+public class MonteCarloEnsembleTest {
+
+	// keeps the collaboration rows it is given, optionally failing one run
+	private static class RecordingSink implements IReportSink {
+		final int fail_run;
+		final List<ArrayList<Integer>> rows = new ArrayList<ArrayList<Integer>>();
+		boolean mc_written;
+
+		RecordingSink(int fail_run) {
+			this.fail_run = fail_run;
+		}
+
+		@Override
+		public void writeAgents(SimEnvironment sim, List<Agent> agents) {}
+
+		@Override
+		public synchronized void writeFinalReport(SimEnvironment sim, List<Agent> agents) {
+			if(sim.getRunId() == fail_run) {
+				throw new IllegalStateException("run "+fail_run+" failed");
+			}
+		}
+
+		@Override
+		public void writeMonteCarloReport(SimEnvironment sim) {
+			rows.addAll(sim.getMcRxTimeseries());
+			mc_written = true;
+		}
+
+		@Override
+		public void close() {}
+	}
+
+	@BeforeAll
+	static void quiet() {
+		SimLog.setLevel(LogLevel.OFF);
+	}
+
+	private static SimEnvironment template(int n_runs, IReportSink sink) {
+		SimEnvironment sim = new SimEnvironment();
+		sim.setNumAgents(10);
+		sim.setNumCycles(100);
+		sim.setNumInitDemands(20);
+		sim.setProbNewDemand(25);
+		sim.setNumMCRuns(n_runs);
+		sim.setReportSink(sink);
+		return sim;
+	}
+
+	@Test
+	void replicatesGetTheirOwnSeeds() throws Exception {
+		RecordingSink sink = new RecordingSink(-1);
+		new MonteCarloEnsemble(template(3, sink), 2, 43).run();
+
+		assertTrue(sink.mc_written);
+		assertEquals(3, sink.rows.size());
+		assertNotEquals(sink.rows.get(0), sink.rows.get(1));
+		assertNotEquals(sink.rows.get(1), sink.rows.get(2));
+	}
+
+	@Test
+	void resultsDoNotDependOnThreads() throws Exception {
+		RecordingSink one = new RecordingSink(-1);
+		RecordingSink three = new RecordingSink(-1);
+		new MonteCarloEnsemble(template(3, one), 1, 7).run();
+		new MonteCarloEnsemble(template(3, three), 3, 7).run();
+
+		assertEquals(one.rows, three.rows);
+	}
+
+	@Test
+	void failedReplicateIsReported() {
+		RecordingSink sink = new RecordingSink(1);
+		SimEnvironment sim = template(3, sink);
+
+		ExecutionException e = assertThrows(ExecutionException.class,
+				() -> new MonteCarloEnsemble(sim, 2, 43).run());
+		assertTrue(e.getMessage().contains("[1]"));
+		assertInstanceOf(IllegalStateException.class, e.getCause());
+		assertFalse(sink.mc_written);
+		assertFalse(sim.isFinished());
+	}
+}
@@ -0,0 +1,111 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/*
+ *  SimCheckpointTest for Agent Based Modeling
+ *  @author Chad Holmes
+ *
+ *  MIT EM.426 Spring 2021 class
+ */
+
+public class SimCheckpointTest {
+
+	@TempDir
+	Path dir;
+
+	@BeforeAll
+	static void quiet() {
+		SimLog.setLevel(LogLevel.OFF);
+	}
+
+	private static SimEnvironment newSim() {
+		SimEnvironment sim = new SimEnvironment();
+		sim.setNumAgents(10);
+		sim.setNumCycles(300);
+		sim.setNumInitDemands(30);
+		sim.setProbNewDemand(40);
+		sim.setSeed(11);
+		sim.setReportSink(new NullReportSink());
+		return sim;
+	}
+
+	// everything a finished run reports, in one string
+	private static String outcome(SimEnvironment sim) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("time=").append(sim.getGlobalTime().get()).append('\n');
+		ProgressCounters c = sim.getProgressCounters();
+		sb.append("completed=").append(c.getNumCompleted())
+		  .append(" committed=").append(c.getNumCommitted())
+		  .append(" collaborations=").append(c.getNumCollaborations()).append('\n');
+		sb.append("archived=").append(sim.getCommitArchive().getNumRecords())
+		  .append(" effort=").append(sim.getCommitArchive().getTotalEffort()).append('\n');
+		for (Agent a : sim.getAgentList()) {
+			sb.append(a.getName()).append(" t=").append(a.getAgentTime())
+			  .append(" committed=").append(a.getNumCommitted())
+			  .append(" collabs=").append(a.getCollaborationCount())
+			  .append(" interactions=").append(a.interactions).append('\n');
+		}
+		sb.append("mc=").append(sim.getMcRxTimeseries()).append('\n');
+		return sb.toString();
+	}
+
+	@Test
+	void restoredRunEndsLikeTheOriginal() throws IOException {
+		SimEnvironment full = newSim();
+		full.runOnce();
+
+		Path file = dir.resolve("run.emck");
+		SimEnvironment saved = newSim();
+		saved.setCheckpoint(100, file);
+		saved.runOnce();
+		assertEquals(outcome(full), outcome(saved));
+		assertTrue(Files.exists(file));
+
+		// the last checkpoint (cycle 200) picks up from there
+		SimEnvironment restored = SimCheckpoint.read(file);
+		restored.setReportSink(new NullReportSink());
+		restored.resume();
+
+		assertTrue(restored.isFinished());
+		assertEquals(outcome(full), outcome(restored));
+	}
+
+	@Test
+	void savingARestoredRunLosesNothing() throws IOException {
+		Path first = dir.resolve("first.emck");
+		SimEnvironment sim = newSim();
+		sim.setCheckpoint(150, first);
+		sim.runOnce();
+
+		// ledgers may come back in another iteration order, so compare
+		// where the two copies end up rather than their bytes
+		Path second = dir.resolve("second.emck");
+		SimCheckpoint.write(SimCheckpoint.read(first), second);
+
+		SimEnvironment from_first = SimCheckpoint.read(first);
+		from_first.setReportSink(new NullReportSink());
+		from_first.resume();
+		SimEnvironment from_second = SimCheckpoint.read(second);
+		from_second.setReportSink(new NullReportSink());
+		from_second.resume();
+
+		assertEquals(outcome(sim), outcome(from_first));
+		assertEquals(outcome(sim), outcome(from_second));
+	}
+
+	@Test
+	void rejectsFilesThatAreNotCheckpoints() throws IOException {
+		Path file = dir.resolve("junk.emck");
+		Files.write(file, List.of("not a checkpoint"));
+
+		assertThrows(IOException.class, () -> SimCheckpoint.read(file));
+	}
+}
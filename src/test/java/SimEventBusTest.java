@@ -0,0 +1,88 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ *  SimEventBusTest for Agent Based Modeling
+ *  @author Chad Holmes
+ *
+ *  MIT EM.426 Spring 2021 class
+ */
+
+public class SimEventBusTest {
+
+	// notes who was told what, in order
+	private static class Recorder implements ISimEventListener {
+		final String name;
+		final List<String> log;
+
+		Recorder(String name, List<String> log) {
+			this.name = name;
+			this.log = log;
+		}
+
+		@Override
+		public void handleEvent(SimEventType type, int time, Demand d, Agent a) {
+			log.add(name+":"+type+":"+time+":"+(d == null ? "-" : d.getName()));
+		}
+	}
+
+	@Test
+	void notifiesInSubscriptionOrder() {
+		SimEventBus bus = new SimEventBus();
+		List<String> log = new ArrayList<String>();
+		bus.subscribe(SimEventType.COMMIT_UNTIL, new Recorder("b", log));
+		bus.subscribe(SimEventType.COMMIT_UNTIL, new Recorder("a", log));
+		bus.subscribe(SimEventType.FINISH_TASK, new Recorder("c", log));
+
+		bus.fire(SimEventType.COMMIT_UNTIL, 17);
+
+		assertEquals(List.of("b:COMMIT_UNTIL:17:-", "a:COMMIT_UNTIL:17:-"), log);
+	}
+
+	@Test
+	void passesPayloadThrough() {
+		SimEventBus bus = new SimEventBus();
+		List<String> log = new ArrayList<String>();
+		bus.subscribe(SimEventType.NEW_DEMAND, new Recorder("a", log));
+
+		bus.fire(SimEventType.NEW_DEMAND, new Demand("D1", DemandPriority.LOW, DemandType.NEED1, 5));
+
+		assertEquals(List.of("a:NEW_DEMAND:0:D1"), log);
+	}
+
+	@Test
+	void unsubscribeAndReorder() {
+		SimEventBus bus = new SimEventBus();
+		List<String> log = new ArrayList<String>();
+		Recorder a = new Recorder("a", log);
+		Recorder b = new Recorder("b", log);
+		Recorder c = new Recorder("c", log);
+		bus.subscribe(SimEventType.FINISH_TASK, a);
+		bus.subscribe(SimEventType.FINISH_TASK, b);
+		bus.subscribe(SimEventType.FINISH_TASK, c);
+
+		bus.unsubscribe(SimEventType.FINISH_TASK, b);
+		bus.reorder(SimEventType.FINISH_TASK, List.of(c, a));
+		bus.fire(SimEventType.FINISH_TASK);
+
+		assertEquals(List.of("c:FINISH_TASK:0:-", "a:FINISH_TASK:0:-"), log);
+	}
+
+	@Test
+	void listenersAddedWhileFiringWaitForTheNextEvent() {
+		SimEventBus bus = new SimEventBus();
+		List<String> log = new ArrayList<String>();
+		Recorder late = new Recorder("late", log);
+		bus.subscribe(SimEventType.REFRESH_BACKLOG, (type, time, d, a) -> {
+			log.add("first");
+			bus.subscribe(SimEventType.REFRESH_BACKLOG, late);
+		});
+
+		bus.fire(SimEventType.REFRESH_BACKLOG);
+		assertEquals(List.of("first"), log);
+	}
+}
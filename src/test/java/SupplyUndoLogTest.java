@@ -0,0 +1,153 @@
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ *  SupplyUndoLogTest for Agent Based Modeling
+ *  @author Chad Holmes
+ *
+ *  MIT EM.426 Spring 2021 class
+ */
+
+public class SupplyUndoLogTest {
+
+	private static ArrayList<Supply> supplies(int n) {
+		ArrayList<Supply> resources = new ArrayList<Supply>();
+		for (int i = 0; i < n; i++) {
+			Supply s = new Supply(SupplyType.SKILL1, 100);
+			s.setAmount(i);
+			s.setLearningcounter(i);
+			resources.add(s);
+		}
+		return resources;
+	}
+
+	// one task working resources[index]: record it, then use it up
+	private static LedgerEntry work(SupplyUndoLog undo, ArrayList<Supply> resources, int index) {
+		int mark = undo.mark();
+		Supply s = resources.get(index);
+		undo.record(index, s);
+		s.setAmount(-1);
+		s.setLearningcounter(-1);
+		s.setState(SupplyState.EXHAUSTED);
+
+		LedgerEntry le = new LedgerEntry(0, 1);
+		undo.attach(le, mark);
+		return le;
+	}
+
+	private static void assertRestored(Supply s, int value) {
+		assertEquals(value, s.getAmount());
+		assertEquals(value, s.getLearningcounter());
+		assertEquals(SupplyState.AVAILABLE, s.getState());
+	}
+
+	@Test
+	void restorePutsSuppliesBack() {
+		ArrayList<Supply> resources = supplies(3);
+		SupplyUndoLog undo = new SupplyUndoLog();
+
+		// one task working two supplies
+		int mark = undo.mark();
+		undo.record(0, resources.get(0));
+		undo.record(2, resources.get(2));
+		resources.get(0).setAmount(-1);
+		resources.get(2).setState(SupplyState.EXPIRED);
+		resources.get(2).setLearningcounter(-1);
+		LedgerEntry le = new LedgerEntry(5, 10);
+		undo.attach(le, mark);
+		assertEquals(2, undo.size());
+
+		undo.restore(le, resources);
+		assertRestored(resources.get(0), 0);
+		assertRestored(resources.get(1), 1);
+		assertRestored(resources.get(2), 2);
+	}
+
+	@Test
+	void releasingTheLastTaskShrinksTheLog() {
+		ArrayList<Supply> resources = supplies(2);
+		SupplyUndoLog undo = new SupplyUndoLog();
+		LedgerEntry first = work(undo, resources, 0);
+		int mark = undo.mark();
+		LedgerEntry second = work(undo, resources, 1);
+
+		undo.release(second);
+		assertEquals(0, second.getUndoLength());
+		assertEquals(1, undo.size());
+		assertEquals(mark, undo.mark());
+
+		undo.release(first);
+		assertEquals(0, undo.size());
+		assertEquals(0, undo.mark());
+	}
+
+	@Test
+	void discardDropsRecordsNotHandedOver() {
+		ArrayList<Supply> resources = supplies(2);
+		SupplyUndoLog undo = new SupplyUndoLog();
+		LedgerEntry le = work(undo, resources, 0);
+
+		int mark = undo.mark();
+		undo.record(1, resources.get(1));
+		undo.discard(mark);
+		assertEquals(1, undo.size());
+
+		// a task that needed no records holds none
+		LedgerEntry none = new LedgerEntry(0, 1);
+		undo.attach(none, undo.mark());
+		assertEquals(0, none.getUndoLength());
+		undo.release(none);
+
+		undo.restore(le, resources);
+		assertRestored(resources.get(0), 0);
+	}
+
+	@Test
+	void compactionKeepsLiveRecordsRestorable() {
+		int n = 100;
+		ArrayList<Supply> resources = supplies(n);
+		SupplyUndoLog undo = new SupplyUndoLog();
+		ArrayList<LedgerEntry> tasks = new ArrayList<LedgerEntry>();
+		for (int i = 0; i < n; i++) {
+			tasks.add(work(undo, resources, i));
+		}
+		int before = undo.mark();
+
+		// release the older tasks until they take up more than half the log
+		int released = n/2+1;
+		for (int i = 0; i < released; i++) {
+			undo.release(tasks.get(i));
+		}
+
+		assertEquals(n-released, undo.size());
+		assertTrue(undo.mark() < before);
+		assertEquals(0, tasks.get(released).undo_at);
+		for (int i = released; i < n; i++) {
+			undo.restore(tasks.get(i), resources);
+			assertRestored(resources.get(i), i);
+		}
+
+		// the log carries on from the compacted end
+		LedgerEntry next = work(undo, resources, released-1);
+		assertEquals(undo.mark()-next.getUndoLength(), next.undo_at);
+		undo.restore(next, resources);
+		assertEquals(-1, resources.get(released-1).getAmount());
+		assertEquals(n-released+1, undo.size());
+	}
+
+	@Test
+	void clearForgetsEverything() {
+		ArrayList<Supply> resources = supplies(4);
+		SupplyUndoLog undo = new SupplyUndoLog();
+		for (int i = 0; i < resources.size(); i++) {
+			work(undo, resources, i);
+		}
+
+		undo.clear();
+		assertEquals(0, undo.size());
+		assertEquals(0, undo.mark());
+	}
+}